@@ -7,6 +7,7 @@ import bytecode.NEWSTRING;
 import bytecode.RETURN;
 import bytecode.VIRTUALCALL;
 import semantical.TypeChecker;
+import tables.Symbol;
 import translation.Block;
 import types.BooleanType;
 import types.ClassType;
@@ -109,7 +110,7 @@ public class Assert extends Command {
 		Block failed = new Block(new RETURN(ClassType.mk("String")));
 	
 		failed = new VIRTUALCALL(ClassType.mkFromFileName("String.kit"),
-				ClassType.mkFromFileName("String.kit").methodLookup("output", TypeList.EMPTY)).followedBy(failed);
+				ClassType.mkFromFileName("String.kit").methodLookup(Symbol.mk("output"), TypeList.EMPTY)).followedBy(failed);
 		failed = new NEWSTRING("assert " + out + "\n").followedBy(failed);
 		failed = new NEWSTRING(out).followedBy(failed);
 		
@@ -6,6 +6,7 @@ import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
 
+import tables.Symbol;
 import translation.Program;
 import types.ClassMemberSignature;
 import types.ClassType;
@@ -24,13 +25,13 @@ public class ClassDefinition extends Absyn {
      * The name of the class.
      */
 
-    private final String name;
+    private final Symbol name;
 
     /**
      * The name of the superclass.
      */
 
-    private final String superclassName;
+    private final Symbol superclassName;
 
     /**
      * The sequence of fields or methods declarations. This might be {@code null}.
@@ -56,7 +57,7 @@ public class ClassDefinition extends Absyn {
      *                     This might be {@code null}
      */
 
-    public ClassDefinition(int pos, String name, String superclassName, ClassMemberDeclaration declarations) {
+    public ClassDefinition(int pos, Symbol name, Symbol superclassName, ClassMemberDeclaration declarations) {
     	super(pos);
 
     	this.name = name;
@@ -70,7 +71,7 @@ public class ClassDefinition extends Absyn {
      * @return the name of the class defined with this abstract syntax
      */
 
-    public String getName() {
+    public Symbol getName() {
     	return name;
     }
 
@@ -82,7 +83,7 @@ public class ClassDefinition extends Absyn {
      *         defined with this abstract syntax
      */
 
-    public String getSuperclassName() {
+    public Symbol getSuperclassName() {
     	return superclassName;
     }
 
@@ -198,7 +199,7 @@ public class ClassDefinition extends Absyn {
     	Set<ClassMemberSignature> done = new HashSet<>();
 
     	// we look up for the main method, if any
-    	MethodSignature main = staticType.methodLookup("main", TypeList.EMPTY);
+    	MethodSignature main = staticType.methodLookup(Symbol.MAIN, TypeList.EMPTY);
 
     	// we translate everything that is reachable from the main method of this class (if any)
     	if (main != null)
@@ -1,9 +1,11 @@
 package absyn;
 
-import java.util.HashSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Set;
 
 import translation.Block;
+import translation.BlockWalker;
 import types.ClassMemberSignature;
 import types.ClassType;
 import types.CodeSignature;
@@ -14,7 +16,6 @@ import types.MethodSignature;
 import types.TestSignature;
 import types.VoidType;
 import bytecode.Bytecode;
-import bytecode.BytecodeList;
 import bytecode.CALL;
 import bytecode.GETFIELD;
 import bytecode.PUTFIELD;
@@ -109,90 +110,119 @@ public abstract class CodeDeclaration extends ClassMemberDeclaration {
     }
 
     /**
-     * Translates this constructor or method into intermediate Kitten code.
-     * This amounts to translating its body with a continuation containing
-     * a {@code return} bytecode. This way, if a method does not have an
-     * explicit {@code return} statement, it is automatically put at its end.
+     * Translates this constructor or method into intermediate Kitten code,
+     * together with all class members referenced from it, directly or indirectly.
+     * The translation of each constructor or method amounts to translating its
+     * body through {@link #translateBody()}. The constructors and methods are
+     * taken from a worklist rather than translated recursively, so that long
+     * chains of calls do not exhaust the stack of the Java virtual machine.
      *
      * @param done the set of code signatures that have been already translated
      */
-    public void translate(Set<ClassMemberSignature> done) {
-    	if (done.add(sig)) {
-    		translateSomething(sig.getDefiningClass(), done);
-    		// we translate the body of the constructor or
-    		// method with a block containing RETURN as continuation. This way,
-    		// all methods returning void and
-    		// with some missing return command are correctly
-    		// terminated anyway. If the method is not void, this
-    		// precaution is useless since we know that every execution path
-    		// ends with a return command, as guaranteed by
-    		// checkForDeadCode() (see typeCheck() in MethodDeclaration.java)
-    		sig.setCode(getBody().translate(new Block(new RETURN(VoidType.INSTANCE))));
+
+    public final void translate(Set<ClassMemberSignature> done) {
+    	Deque<CodeDeclaration> worklist = new ArrayDeque<>();
+    	schedule(this, done, worklist);
+
+    	while (!worklist.isEmpty()) {
+    		CodeDeclaration next = worklist.remove();
+    		CodeSignature sig = next.getSignature();
+
+    		translateSomething(sig.getDefiningClass(), done, worklist);
+    		sig.setCode(next.translateBody());
 
     		// we translate all methods and constructors that are referenced
     		// from the code we have generated
-    		translateReferenced(sig.getCode(), done, new HashSet<Block>());
+    		translateReferenced(sig.getCode(), done, worklist);
     	}
     }
 
     /**
-     * Auxiliary method that translates into Kitten bytecode all class members that are
-     * referenced from the given block and the blocks reachable from it.
+     * Translates the body of this constructor or method into intermediate Kitten code.
+     * The body is translated with a continuation containing a {@code return} bytecode.
+     * This way, if a method does not have an explicit {@code return} statement,
+     * it is automatically put at its end.
+     *
+     * @return the code of this constructor or method
+     */
+
+    protected Block translateBody() {
+    	// we translate the body of the constructor or
+    	// method with a block containing RETURN as continuation. This way,
+    	// all methods returning void and
+    	// with some missing return command are correctly
+    	// terminated anyway. If the method is not void, this
+    	// precaution is useless since we know that every execution path
+    	// ends with a return command, as guaranteed by
+    	// checkForDeadCode() (see typeCheck() in MethodDeclaration.java)
+    	return getBody().translate(new Block(new RETURN(VoidType.INSTANCE)));
+    }
+
+    /**
+     * Adds a constructor or method to the worklist of those that must be translated,
+     * if it has not been translated yet.
+     *
+     * @param declaration the constructor or method
+     * @param done the class member signatures already translated or in the worklist
+     * @param worklist the constructors and methods that must be translated
+     */
+
+    private static void schedule(CodeDeclaration declaration, Set<ClassMemberSignature> done, Deque<CodeDeclaration> worklist) {
+    	if (done.add(declaration.getSignature()))
+    		worklist.add(declaration);
+    }
+
+    /**
+     * Auxiliary method that schedules for translation into Kitten bytecode all class
+     * members that are referenced from the given block and the blocks reachable from it.
      *
      * @param block the block
-     * @param done the class member signatures already translated
-     * @param blocksDone the blocks that have been already processed
+     * @param done the class member signatures already translated or in the worklist
+     * @param worklist the constructors and methods that must be translated
      */
-    // XXX: changed access modifier (private -> protected)
-    protected void translateReferenced(Block block, Set<ClassMemberSignature> done, Set<Block> blocksDone) {
-    	// if we already processed the block, we return immediately
-    	if (!blocksDone.add(block))
-    		return;
-
-    	for (BytecodeList cursor = block.getBytecode(); cursor != null; cursor = cursor.getTail()) {
-    		Bytecode h = cursor.getHead();
-
-    		if (h instanceof GETFIELD) {
-    			done.add(((GETFIELD) h).getField());
-    			translateSomething(((GETFIELD) h).getField().getDefiningClass(), done);
-    			
-    		}
-    		else if (h instanceof PUTFIELD) {
-    			done.add(((PUTFIELD) h).getField());
-    			translateSomething(((PUTFIELD) h).getField().getDefiningClass(), done);
-    		}
-    		else if (h instanceof CALL) {
-    			for (CodeSignature callee: ((CALL) h).getDynamicTargets()) {
-    				callee.getAbstractSyntax().translate(done);
-    				translateSomething(callee.getDefiningClass(), done);
+
+    private static void translateReferenced(Block block, final Set<ClassMemberSignature> done, final Deque<CodeDeclaration> worklist) {
+    	new BlockWalker() {
+
+    		@Override
+    		protected void enter(Block block) {
+    			for (Bytecode h: block.getBytecode()) {
+    				if (h instanceof GETFIELD) {
+    					done.add(((GETFIELD) h).getField());
+    					translateSomething(((GETFIELD) h).getField().getDefiningClass(), done, worklist);
+    				}
+    				else if (h instanceof PUTFIELD) {
+    					done.add(((PUTFIELD) h).getField());
+    					translateSomething(((PUTFIELD) h).getField().getDefiningClass(), done, worklist);
+    				}
+    				else if (h instanceof CALL) {
+    					for (CodeSignature callee: ((CALL) h).getDynamicTargets()) {
+    						schedule(callee.getAbstractSyntax(), done, worklist);
+    						translateSomething(callee.getDefiningClass(), done, worklist);
+    					}
+    				}
     			}
     		}
-    	}
-
-    	// we continue with the following blocks
-    	for (Block follow: block.getFollows())
-    		translateReferenced(follow, done, blocksDone);
+    	}.walk(block);
     }
-    
+
     /**
-     * Auxiliary method that translates into Kitten bytecode the fixtures, the test
-     * and the constructors of the given class.
+     * Auxiliary method that schedules for translation into Kitten bytecode the
+     * fixtures, the tests and the constructors of the given class.
      *
      * @param clazz the type of the class
-     * @param done the class member signatures already translated
+     * @param done the class member signatures already translated or in the worklist
+     * @param worklist the constructors and methods that must be translated
      */
-	// XXX: changed access modifier (private -> protected)
-    protected void translateSomething(ClassType clazz, Set<ClassMemberSignature> done) {
-    	for(FixtureSignature cms : clazz.getFixtures()){
-    		cms.getAbstractSyntax().translate(done);
-    	}
 
-    	for(TestSignature cms : clazz.getTests()){
-    		cms.getAbstractSyntax().translate(done);
-    	}
-    	
-    	for(ConstructorSignature cms : clazz.getConstructors()){
-    		cms.getAbstractSyntax().translate(done);
-    	}
+    private static void translateSomething(ClassType clazz, Set<ClassMemberSignature> done, Deque<CodeDeclaration> worklist) {
+    	for (FixtureSignature cms: clazz.getFixtures())
+    		schedule(cms.getAbstractSyntax(), done, worklist);
+
+    	for (TestSignature cms: clazz.getTests())
+    		schedule(cms.getAbstractSyntax(), done, worklist);
+
+    	for (ConstructorSignature cms: clazz.getConstructors())
+    		schedule(cms.getAbstractSyntax(), done, worklist);
     }
-}
\ No newline at end of file
+}
@@ -3,6 +3,7 @@ package absyn;
 import java.io.FileWriter;
 
 import semantical.TypeChecker;
+import tables.Symbol;
 import types.ClassType;
 import types.ConstructorSignature;
 import types.TypeList;
@@ -92,7 +93,7 @@ public class ConstructorDeclaration extends CodeDeclaration {
 		FormalParameters formals = getFormals();
 
 		TypeChecker checker = new TypeChecker(VoidType.INSTANCE, clazz.getErrorMsg());
-		checker = checker.putVar("this", clazz);
+		checker = checker.putVar(Symbol.THIS, clazz);
 		// we enrich the type-checker with the formal parameters
 		if (formals != null)
 			checker = formals.typeCheck(checker);
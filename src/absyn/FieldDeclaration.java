@@ -2,6 +2,7 @@ package absyn;
 
 import java.io.FileWriter;
 
+import tables.Symbol;
 import types.FieldSignature;
 import types.ClassType;
 
@@ -23,7 +24,7 @@ public class FieldDeclaration extends ClassMemberDeclaration {
 	 * The name of the field.
 	 */
 
-	private final String name;
+	private final Symbol name;
 
 	/**
 	 * The signature of this method. This is {@code null} if type-checking
@@ -43,7 +44,7 @@ public class FieldDeclaration extends ClassMemberDeclaration {
 	 *             subsequent class member, if any
 	 */
 
-	public FieldDeclaration(int pos, TypeExpression type, String name, ClassMemberDeclaration next) {
+	public FieldDeclaration(int pos, TypeExpression type, Symbol name, ClassMemberDeclaration next) {
 		super(pos,next);
 
 		this.type = type;
@@ -66,7 +67,7 @@ public class FieldDeclaration extends ClassMemberDeclaration {
 	 * @return the name of the field
 	 */
 
-	public String getName() {
+	public Symbol getName() {
 		return name;
 	}
 
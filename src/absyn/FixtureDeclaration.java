@@ -1,8 +1,10 @@
 package absyn;
 
 import java.io.FileWriter;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import semantical.TypeChecker;
+import tables.Symbol;
 import types.ClassType;
 import types.FixtureSignature;
 import types.VoidType;
@@ -25,12 +27,12 @@ public class FixtureDeclaration extends CodeDeclaration {
 	 * @param next the abstract syntax of the declaration of the
 	 *             subsequent class member, if any
 	 */
-	private static int counter;
-	private String name;
+	private final static AtomicInteger counter = new AtomicInteger();
+	private Symbol name;
 	
 	public FixtureDeclaration(int pos, Command body, ClassMemberDeclaration next) {
 		super(pos,null, body, next);
-		name = "fixture".concat(String.valueOf(++counter));
+		name = Symbol.mk("fixture".concat(String.valueOf(counter.incrementAndGet())));
 	}
 	
 	/**
@@ -75,7 +77,7 @@ public class FixtureDeclaration extends CodeDeclaration {
 	protected void typeCheckAux(ClassType clazz) {
 		
 		TypeChecker checker = new TypeChecker(VoidType.INSTANCE, clazz.getErrorMsg());
-		checker = checker.putVar("this", clazz);
+		checker = checker.putVar(Symbol.THIS, clazz);
 
 		// we type-check the body of the fixture in the resulting type-checker
 		getBody().typeCheck(checker);
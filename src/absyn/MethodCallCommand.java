@@ -4,6 +4,7 @@ import java.io.FileWriter;
 import java.util.Set;
 
 import semantical.TypeChecker;
+import tables.Symbol;
 import translation.Block;
 import types.ClassType;
 import types.MethodSignature;
@@ -33,7 +34,7 @@ public class MethodCallCommand extends Command {
 	 * The name of the method which is called.
 	 */
 
-	private final String name;
+	private final Symbol name;
 
 	/**
 	 * The abstract syntax of the actual parameters of the call.
@@ -62,7 +63,7 @@ public class MethodCallCommand extends Command {
 	 * @param actuals the abstract syntax of the actual parameters of the call
 	 */
 
-	public MethodCallCommand(int pos, Expression receiver, String name, ExpressionSeq actuals) {
+	public MethodCallCommand(int pos, Expression receiver, Symbol name, ExpressionSeq actuals) {
 		super(pos);
 
 		this.receiver = receiver;
@@ -90,7 +91,7 @@ public class MethodCallCommand extends Command {
 	 * @return the name of the method which is called
 	 */
 
-	public String getName() {
+	public Symbol getName() {
 		return name;
 	}
 
@@ -4,6 +4,7 @@ import java.io.FileWriter;
 import java.util.Set;
 
 import semantical.TypeChecker;
+import tables.Symbol;
 import translation.Block;
 import types.ClassType;
 import types.MethodSignature;
@@ -32,7 +33,7 @@ public class MethodCallExpression extends Expression {
 	 * The name of the method which is called.
 	 */
 
-	private final String name;
+	private final Symbol name;
 
 	/**
 	 * The abstract syntax of the actual parameters of the call.
@@ -61,7 +62,7 @@ public class MethodCallExpression extends Expression {
 	 * @param actuals the abstract syntax of the actual parameters of the call.
 	 */
 
-	public MethodCallExpression(int pos, Expression receiver, String name, ExpressionSeq actuals) {
+	public MethodCallExpression(int pos, Expression receiver, Symbol name, ExpressionSeq actuals) {
 		super(pos);
 
 		this.receiver = receiver;
@@ -89,7 +90,7 @@ public class MethodCallExpression extends Expression {
 	 * @return the name of the method which is called
 	 */
 
-	public String getName() {
+	public Symbol getName() {
 		return name;
 	}
 
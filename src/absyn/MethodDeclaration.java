@@ -3,6 +3,7 @@ package absyn;
 import java.io.FileWriter;
 
 import semantical.TypeChecker;
+import tables.Symbol;
 import types.ClassType;
 import types.MethodSignature;
 import types.Type;
@@ -27,7 +28,7 @@ public class MethodDeclaration extends CodeDeclaration {
 	 * The name of the method.
 	 */
 
-	private final String name;
+	private final Symbol name;
 
 	/**
 	 * Constructs the abstract syntax of a method declaration.
@@ -42,7 +43,7 @@ public class MethodDeclaration extends CodeDeclaration {
 	 *             subsequent class member, if any
 	 */
 
-	public MethodDeclaration(int pos, TypeExpression returnType, String name,
+	public MethodDeclaration(int pos, TypeExpression returnType, Symbol name,
 			FormalParameters formals, Command body, ClassMemberDeclaration next) {
 		super(pos, formals, body, next);
 
@@ -66,7 +67,7 @@ public class MethodDeclaration extends CodeDeclaration {
 	 * @return the name of this method
 	 */
 
-	public String getName() {
+	public Symbol getName() {
 		return name;
 	}
 
@@ -148,8 +149,8 @@ public class MethodDeclaration extends CodeDeclaration {
 		checker = new TypeChecker(rt,clazz.getErrorMsg());
 
 		// the main method is the only <i>static</i> method, where there is no this variable
-		if (!getSignature().getName().equals("main"))
-			checker = checker.putVar("this", clazz);
+		if (getSignature().getName() != Symbol.MAIN)
+			checker = checker.putVar(Symbol.THIS, clazz);
 
 		// we enrich the type-checker with the formal parameters
 		checker = getFormals() != null ? getFormals().typeCheck(checker) : checker;
@@ -4,6 +4,7 @@ import java.io.FileWriter;
 import java.util.Set;
 
 import semantical.TypeChecker;
+import tables.Symbol;
 import translation.Block;
 import types.ClassType;
 import types.ConstructorSignature;
@@ -25,7 +26,7 @@ public class NewObject extends Expression {
 	 * The name of the class that in instantiated.
 	 */
 
-	private final String className;
+	private final Symbol className;
 
 	/**
 	 * The abstract syntax of the actual parameters passed to the constructor.
@@ -50,7 +51,7 @@ public class NewObject extends Expression {
 	 *                to a constructor of {@link #className}
 	 */
 
-	public NewObject(int pos, String className, ExpressionSeq actuals) {
+	public NewObject(int pos, Symbol className, ExpressionSeq actuals) {
 		super(pos);
 
 		this.className = className;
@@ -63,7 +64,7 @@ public class NewObject extends Expression {
 	 * @return the name of the class that is instantiated
 	 */
 
-	public String getClassName() {
+	public Symbol getClassName() {
 		return className;
 	}
 
@@ -129,7 +130,7 @@ public class NewObject extends Expression {
 
 	@Override
 	protected Type typeCheckAux(TypeChecker checker) {
-		ClassType target = ClassType.mk(className);
+		ClassType target = ClassType.mk(className.toString());
 
 		target.typeCheck();
 
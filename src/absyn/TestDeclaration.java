@@ -1,8 +1,6 @@
 package absyn;
 
 import java.io.FileWriter;
-import java.util.HashSet;
-import java.util.Set;
 
 import bytecode.ADD;
 import bytecode.Bytecode;
@@ -15,8 +13,8 @@ import bytecode.PUTFIELD;
 import bytecode.RETURN;
 import bytecode.VIRTUALCALL;
 import semantical.TypeChecker;
+import tables.Symbol;
 import translation.Block;
-import types.ClassMemberSignature;
 import types.ClassType;
 import types.CodeSignature;
 import types.FixtureSignature;
@@ -39,7 +37,7 @@ public class TestDeclaration extends CodeDeclaration {
 	 * The name of the test.
 	 */
 
-	private String name;
+	private Symbol name;
 
 	/**
 	 * Constructs the abstract syntax of a test declaration.
@@ -52,7 +50,7 @@ public class TestDeclaration extends CodeDeclaration {
 	 *             subsequent class member, if any
 	 */
 
-	public TestDeclaration(int pos, String name, Command body, ClassMemberDeclaration next) {
+	public TestDeclaration(int pos, Symbol name, Command body, ClassMemberDeclaration next) {
 		super(pos, null, body, next);
 		this.name = name;
 	}
@@ -62,7 +60,7 @@ public class TestDeclaration extends CodeDeclaration {
 	 *
 	 * @return the name of this test
 	 */
-    public String getName() {
+    public Symbol getName() {
     	return name;
     }
     
@@ -121,7 +119,7 @@ public class TestDeclaration extends CodeDeclaration {
 	protected void typeCheckAux(ClassType clazz) {
 		
 		TypeChecker checker = new TypeChecker(VoidType.INSTANCE, clazz.getErrorMsg(), true);
-		checker = checker.putVar("this", clazz);
+		checker = checker.putVar(Symbol.THIS, clazz);
 
 		// we type-check the body of the test in the resulting type-checker
 		getBody().typeCheck(checker);
@@ -135,33 +133,19 @@ public class TestDeclaration extends CodeDeclaration {
 	}
 	
     /**
-     * Translates this constructor or method into intermediate Kitten code.
-     * This amounts to translating its body with a continuation containing
-     * a {@code return} bytecode. This way, if a method does not have an
-     * explicit {@code return} statement, it is automatically put at its end.
+     * Translates the body of this test into intermediate Kitten code.
+     * The body is translated with a continuation that returns the string
+     * {@code passed}. This way, a test that terminates without an explicit
+     * {@code return} statement is reported as passed.
      *
-     * @param done the set of code signatures that have been already translated
+     * @return the code of this test
      */
 
-    public void translate(Set<ClassMemberSignature> done) {
-    	if (done.add(getSignature())) {
-    		
-    		translateSomething(getSignature().getDefiningClass(), done);
-    		// we translate the body of the constructor or
-    		// method with a block containing RETURN as continuation. This way,
-    		// all methods returning void and
-    		// with some missing return command are correctly
-    		// terminated anyway. If the method is not void, this
-    		// precaution is useless since we know that every execution path
-    		// ends with a return command, as guaranteed by
-    		// checkForDeadCode() (see typeCheck() in MethodDeclaration.java)
-	
-    		Block post = new Block(new RETURN(ClassType.mk("String")));
-    		post = new NEWSTRING("passed").followedBy(post);	
-
-    		getSignature().setCode(getBody().translate(post));
+    @Override
+    protected Block translateBody() {
+    	Block post = new Block(new RETURN(ClassType.mk("String")));
+    	post = new NEWSTRING("passed").followedBy(post);
 
-    		translateReferenced(getSignature().getCode(), done, new HashSet<Block>()); 
-    	}
+    	return getBody().translate(post);
     }
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package bytecode;
+
+import javaBytecodeGenerator.JavaClassGenerator;
+
+import org.apache.bcel.Constants;
+import org.apache.bcel.generic.InstructionFactory;
+import org.apache.bcel.generic.InstructionList;
+import org.apache.bcel.generic.ObjectType;
+
+import types.ClassType;
+import types.FloatType;
+import types.IntType;
+import types.Type;
+
+/**
+ * A bytecode that appends a value to a builder of strings (see {@link NEWBUILDER}).
+ * The value is either the top of the stack, of type {@code int}, {@code float},
+ * {@code boolean} or {@code String}, as for the {@code concat} methods of
+ * the strings, or a constant lexical value.
+ * <br><br>
+ * ..., builder, value -&gt; ..., builder<br>
+ * if the value is on the stack<br><br>
+ * ..., builder -&gt; ..., builder<br>
+ * if the value is a constant
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class APPEND extends SequentialBytecode {
+
+	/**
+	 * The type of the value on top of the stack that gets appended.
+	 * This is {@code null} if a constant gets appended.
+	 */
+
+	private final Type type;
+
+	/**
+	 * The constant lexical value that gets appended.
+	 * This is {@code null} if the value on top of the stack gets appended.
+	 */
+
+	private final String constant;
+
+	/**
+	 * Constructs a bytecode that appends the value on top of the stack to a builder of strings.
+	 *
+	 * @param type the type of the value: {@code int}, {@code float}, {@code boolean} or {@code String}
+	 */
+
+	public APPEND(Type type) {
+		this.type = type;
+		this.constant = null;
+	}
+
+	/**
+	 * Constructs a bytecode that appends a constant lexical value to a builder of strings.
+	 *
+	 * @param constant the constant lexical value
+	 */
+
+	public APPEND(String constant) {
+		this.type = null;
+		this.constant = constant;
+	}
+
+	/**
+	 * Yields the type of the value on top of the stack that gets appended.
+	 *
+	 * @return the type, or {@code null} if a constant gets appended
+	 */
+
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * Yields the constant lexical value that gets appended.
+	 *
+	 * @return the constant, or {@code null} if the value on top of the stack gets appended
+	 */
+
+	public String getConstant() {
+		return constant;
+	}
+
+	@Override
+	public String toString() {
+		if (constant != null)
+			return "append " + constant.replaceAll("\n","\\\\\\\\n");
+		else
+			return "append " + type;
+	}
+
+	/**
+	 * Generates the Java bytecode corresponding to this Kitten bytecode. Namely, it generates
+	 * {@code invokevirtual java.lang.StringBuilder.append(t)}, where {@code t} is the
+	 * Java type of {@link #type}. If {@link #type} is {@code String}, the
+	 * {@code java.lang.String} wrapped by the {@code runTime.String} object is
+	 * appended instead, through {@code invokevirtual runTime.String.toString()}.
+	 * If a constant gets appended, it is pushed first, through {@code ldc constant}.
+	 *
+	 * @param il the list of instructions that must be expanded with the Java bytecode above
+	 * @param classGen the Java class generator to be used for this generation
+	 */
+
+	@Override
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		InstructionFactory factory = classGen.getFactory();
+		ObjectType builder = new ObjectType(StringBuilder.class.getName());
+		org.apache.bcel.generic.Type appended;
+
+		if (constant != null) {
+			il.append(factory.createConstant(constant));
+			appended = org.apache.bcel.generic.Type.STRING;
+		}
+		else if (type instanceof ClassType) {
+			// the value is a runTime.String object
+			il.append(factory.createInvoke(runTime.String.class.getName(), "toString",
+				org.apache.bcel.generic.Type.STRING, org.apache.bcel.generic.Type.NO_ARGS, Constants.INVOKEVIRTUAL));
+			appended = org.apache.bcel.generic.Type.STRING;
+		}
+		else if (type == IntType.INSTANCE)
+			appended = org.apache.bcel.generic.Type.INT;
+		else if (type == FloatType.INSTANCE)
+			appended = org.apache.bcel.generic.Type.FLOAT;
+		else // it must be boolean
+			appended = org.apache.bcel.generic.Type.BOOLEAN;
+
+		il.append(factory.createInvoke(builder.getClassName(), "append", builder,
+			new org.apache.bcel.generic.Type[] { appended }, Constants.INVOKEVIRTUAL));
+	}
+}
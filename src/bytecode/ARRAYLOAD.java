@@ -56,13 +56,14 @@ public class ARRAYLOAD extends SequentialBytecode {
 	 * it generates an {@code iaload} if {@link #type} is {@code int}, an {@code faload} if
 	 * {@link #type} is {@code float} and an {@code aaload} if {@link #type} is a class or array type.
 	 *
+	 * @param il the list of instructions that must be expanded with the Java
+	 *           {@code iaload}, {@code faload} or {@code aaload} bytecode, depending on
+	 *           {@link #type}
 	 * @param classGen the Java class generator to be used for this Java bytecode generation
-	 * @return the Java {@code iaload}, {@code faload} or {@code aaload}
-	 *         bytecode, depending on {@link #type}
 	 */
 
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		// we use the instruction factory to simplify the choice among more possible Java bytecodes
-		return new InstructionList(InstructionFactory.createArrayLoad(type.toBCEL()));
+		il.append(InstructionFactory.createArrayLoad(type.toBCEL()));
 	}
 }
\ No newline at end of file
@@ -55,14 +55,15 @@ public class ARRAYSTORE extends SequentialBytecode {
 	 * it generates an {@code iastore} if {@link #type} is {@code nil}, an {@code fastore} if
 	 * {@link #type} is {@code float} and an {@code aastore} if {@link #type} is a class or array type.
 	 *
+	 * @param il the list of instructions that must be expanded with the Java
+	 *           {@code iastore}, {@code fastore} or {@code aastore} bytecode, depending
+	 *           on {@link #type}
 	 * @param classGen the Java class generator to be used for this Java bytecode generation
-	 * @return the Java {@code iastore}, {@code fastore} or {@code aastore}
-	 *         bytecode, depending on {@link #type}
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		// we use the instruction factory to simplify the choice among the possible Java bytecodes
-		return new InstructionList(InstructionFactory.createArrayStore(type.toBCEL()));
+		il.append(InstructionFactory.createArrayStore(type.toBCEL()));
 	}
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package bytecode;
+
+import javaBytecodeGenerator.JavaClassGenerator;
+
+import org.apache.bcel.Constants;
+import org.apache.bcel.generic.InstructionFactory;
+import org.apache.bcel.generic.InstructionList;
+
+/**
+ * A bytecode that pops a builder of strings from the stack (see {@link NEWBUILDER})
+ * and pushes a new string with the characters of the builder in its place.
+ * It is the end of a chain of concatenations of strings.
+ * <br><br>
+ * ..., builder -&gt; ..., new string
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class BUILDSTRING extends SequentialBytecode {
+
+	/**
+	 * Constructs a bytecode that turns the builder of strings on top of the stack into a string.
+	 */
+
+	public BUILDSTRING() {}
+
+	/**
+	 * Generates the Java bytecode corresponding to this Kitten bytecode. Namely, it generates<br>
+	 * <br>
+	 * {@code invokevirtual java.lang.StringBuilder.toString()}<br>
+	 * {@code new runTime.String}<br>
+	 * {@code dup_x1}<br>
+	 * {@code swap}<br>
+	 * {@code invokespecial runTime.String.&lt;init&gt;}<br>
+	 * <br>
+	 * that wraps the characters of the builder into a single {@code runTime.String} object.
+	 *
+	 * @param il the list of instructions that must be expanded with the Java bytecode above
+	 * @param classGen the Java class generator to be used for this generation
+	 */
+
+	@Override
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		InstructionFactory factory = classGen.getFactory();
+		String kittenStringName = runTime.String.class.getName();
+
+		il.append(factory.createInvoke(StringBuilder.class.getName(), "toString",
+			org.apache.bcel.generic.Type.STRING, org.apache.bcel.generic.Type.NO_ARGS, Constants.INVOKEVIRTUAL));
+		il.append(factory.createNew(kittenStringName));
+		il.append(InstructionFactory.DUP_X1);
+		il.append(InstructionFactory.SWAP);
+
+		// we create the invokespecial to the constructor
+		il.append(factory.createInvoke
+			(kittenStringName, // class name of the method
+			Constants.CONSTRUCTOR_NAME, // name of the method
+			org.apache.bcel.generic.Type.VOID, // return type
+			new org.apache.bcel.generic.Type[] { org.apache.bcel.generic.Type.STRING }, // parameters types
+			Constants.INVOKESPECIAL)); // invokespecial
+	}
+}
@@ -3,6 +3,7 @@ package bytecode;
 import javaBytecodeGenerator.JavaClassGenerator;
 import javaBytecodeGenerator.TestClassGenerator;
 
+import org.apache.bcel.generic.BranchInstruction;
 import org.apache.bcel.generic.InstructionHandle;
 import org.apache.bcel.generic.InstructionList;
 
@@ -31,28 +32,21 @@ public abstract class BranchingBytecode extends Bytecode implements NonCallingBy
 
 	/**
 	 * Generates the Java bytecode that checks the condition expressed by this
-	 * bytecode and goes to one of two possible targets depending on the
-	 * outcome of that check. Namely, it generates the code
-	 * <br><br>
-	 * {@code generateJavaBytecodeAux(...yes)}<br>
-	 * {@code goto no}<br>
+	 * bytecode and jumps if it holds. The target of the jump is not known yet,
+	 * since the code of the following blocks might not have been generated yet,
+	 * and must be set later on the returned instruction.
 	 *
+	 * @param il the list of instructions that must be expanded with the Java bytecode
+	 *           that checks the condition expressed by this bytecode
 	 * @param classGen the Java class generator to be used for this code generation
-	 * @param yes the target if the check is satisfied
-	 * @param no the target if the check in not satisfied
-	 * @return the Java bytecode that checks the condition expressed by this bytecode and
-	 *         goes to {@code yes} or {@code no} depending on the outcome of that check
+	 * @return the instruction that jumps if the check is satisfied
 	 */
 
-	public final InstructionList generateJavaBytecode(JavaClassGenerator classGen, InstructionHandle yes, InstructionHandle no) {
-		InstructionList il = new InstructionList();
+	public final BranchInstruction generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		generateJavaBytecodeAux(il, classGen, null);
 
-		// builds the instructions that go to yes if the test is true
-		generateJavaBytecodeAux(il, classGen, yes);
-
-		il.append(new org.apache.bcel.generic.GOTO(no));
-
-		return il;
+		// the jump is the last instruction added by generateJavaBytecodeAux()
+		return (BranchInstruction) il.getEnd().getInstruction();
 	}
 
 	/**
@@ -1,52 +1,62 @@
 package bytecode;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
 import javaBytecodeGenerator.JavaClassGenerator;
-import javaBytecodeGenerator.TestClassGenerator;
 
 import org.apache.bcel.generic.InstructionList;
 
 /**
- * A list of Kitten bytecodes.
+ * A list of Kitten bytecodes. The bytecodes are kept at the end of an array,
+ * that is filled backwards, since the translation into Kitten bytecode
+ * builds the code of a block by prefixing one bytecode at a time.
+ * Prefixing a bytecode hence costs a constant amortized time.
  *
  * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
  */
 
-public class BytecodeList {
+public class BytecodeList implements Iterable<Bytecode> {
 
     /**
-     * The bytecode contained at the head of this list.
+     * The array holding the bytecodes of this list, from position
+     * {@link #start} to its end. The positions before are free.
      */
 
-    private final Bytecode head;
+    private Bytecode[] code;
 
     /**
-     * The next instruction of this list of bytecodes.
-     * It is {@code null} if this is the last element of the list.
+     * The position of the first bytecode of this list inside {@link #code}.
      */
 
-    private final BytecodeList tail;
+    private int start;
 
     /**
-     * Constructs a list of bytecodes that starts with the
-     * given bytecode and continues with the given list of bytecodes.
+     * Constructs a list of bytecodes containing a single bytecode.
      *
-     * @param head the first bytecode of the list to be constructed
-     * @param tail the list of bytecodes that follows {@code head}
+     * @param head the only element of the list
      */
 
-    public BytecodeList(Bytecode head, BytecodeList tail) {
-    	this.head = head;
-    	this.tail = tail;
+    public BytecodeList(Bytecode head) {
+    	this.code = new Bytecode[8];
+    	this.start = code.length - 1;
+    	this.code[start] = head;
     }
 
     /**
-     * Constructs a list of bytecodes containing a single bytecode.
+     * Constructs a list of bytecodes containing the given bytecodes.
      *
-     * @param head the only element of the list
+     * @param code the bytecodes, in order. There must be at least one
      */
 
-    public BytecodeList(Bytecode head) {
-    	this(head, null);
+    public BytecodeList(List<Bytecode> code) {
+    	this.code = new Bytecode[Math.max(8, code.size())];
+    	this.start = this.code.length - code.size();
+
+    	int pos = start;
+    	for (Bytecode bytecode: code)
+    		this.code[pos++] = bytecode;
     }
 
     /**
@@ -56,84 +66,116 @@ public class BytecodeList {
      */
 
     public Bytecode getHead() {
-    	return head;
+    	return code[start];
     }
 
     /**
-     * Yields the tail of this list.
+     * Yields the number of bytecodes in this list.
      *
-     * @return the tail of this list
+     * @return the number of bytecodes
      */
 
-    public BytecodeList getTail() {
-    	return tail;
+    public int size() {
+    	return code.length - start;
     }
 
     /**
-     * Computes the concatenation of this list of bytecodes and another. Intermediate
-     * {@code nop} instructions are removed.
+     * Yields the bytecode at the given position of this list.
      *
-     * @param other the list of bytecodes that must be appended after this
-     * @return the result of the concatenation of this list of bytecodes with {@code other}.
-     *         This list and {@code other} are not modified
+     * @param pos the position, from 0 to {@link #size()} - 1
+     * @return the bytecode at position {@code pos}
      */
 
-    public BytecodeList append(BytecodeList other) {
-    	if (other == null)
-    		return this;
-    	else if (other.head instanceof NOP)
-    		return append(other.tail);
-    	else if (tail == null)
-    		return new BytecodeList(head, other);
-    	else
-    		return new BytecodeList(head, tail.append(other));
+    public Bytecode get(int pos) {
+    	return code[start + pos];
+    }
+
+    /**
+     * Modifies this list by adding a bytecode at its beginning.
+     * The {@code nop} instructions at the beginning of this list are removed first.
+     *
+     * @param bytecode the bytecode that must be prefixed to this list
+     * @return this same list
+     */
+
+    public BytecodeList prefixedBy(Bytecode bytecode) {
+    	// we remove the leading nop's
+    	while (start < code.length && code[start] instanceof NOP)
+    		code[start++] = null;
+
+    	if (start == 0) {
+    		// we double the array and move its bytecodes at its end
+    		Bytecode[] enlarged = new Bytecode[code.length * 2];
+    		System.arraycopy(code, 0, enlarged, code.length, code.length);
+    		start = code.length;
+    		code = enlarged;
+    	}
+
+    	code[--start] = bytecode;
+
+    	return this;
+    }
+
+    @Override
+    public Iterator<Bytecode> iterator() {
+    	return new Iterator<Bytecode>() {
+    		private int cursor = start;
+
+    		@Override
+    		public boolean hasNext() {
+    			return cursor < code.length;
+    		}
+
+    		@Override
+    		public Bytecode next() {
+    			if (cursor >= code.length)
+    				throw new NoSuchElementException();
+
+    			return code[cursor++];
+    		}
+
+    		@Override
+    		public void remove() {
+    			throw new UnsupportedOperationException();
+    		}
+    	};
     }
 
     @Override
     public String toString() {
-    	String s = head.toString();
-    	if (s.length() > 100)
-    		s = s.substring(0,100) + "...";
+    	StringBuilder sb = new StringBuilder();
+
+    	for (int pos = start; pos < code.length; pos++) {
+    		String s = code[pos].toString();
+    		if (s.length() > 100)
+    			s = s.substring(0,100) + "...";
 
-    	if (tail != null)
-    		// if some bytecode yields the empty string, we do no print a new linbe.
+    		sb.append(s);
+
+    		// if some bytecode yields the empty string, we do no print a new line.
     		// This can be useful for bytecodes that disappear from the print-out
-    		if (s.length() > 0)
-    			return s + "\n" + tail.toString();
-    		else
-    			return tail.toString();
-    	else
-    		return s;
+    		if (pos < code.length - 1 && s.length() > 0)
+    			sb.append('\n');
+    	}
+
+    	return sb.toString();
     }
 
     /**
      * Generates the Java bytecode corresponding to this list of bytecodes.
-     * This just calls {@code bytecode.NonBranchingBytecode.generateJavaBytecode(JavaClassGenerator)} on each
-     * non-branching bytecode in the list and appends the results.
+     * This just calls {@code bytecode.NonBranchingBytecode.generateJavaBytecode(InstructionList, JavaClassGenerator)}
+     * on each non-branching bytecode in the list, that appends its Java bytecode to the given list.
+     * The conditions of the branches are generated by the generator of the class, together
+     * with the jumps to the following blocks.
      *
+     * @param il the list of instructions that must be expanded with the Java bytecode
+     *           corresponding to this list of bytecodes
      * @param classGen the Java class generator to be used for this generation
-     * @return the Java bytecode corresponding to this list of bytecodes
      */
 
-    public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-    	InstructionList result;
-
-    	if (head instanceof NonBranchingBytecode)
-    		// we generate the Java bytecode for the first bytecode
-    		// if it is not a condition of a branch
-    		result = ((NonBranchingBytecode) head).generateJavaBytecode(classGen);
-    	else
-    		result = new InstructionList();
-
-    	// and for its followers, if any
-    	if (tail != null)
-    		result.append(tail.generateJavaBytecode(classGen));
-
-    	// if we added no instruction, we add a fictitious one so that we never return an empty list
-    	if (result.isEmpty())
-    		result.append(new org.apache.bcel.generic.NOP());
-
-    	return result;
+    public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+    	for (int pos = start; pos < code.length; pos++)
+    		if (code[pos] instanceof NonBranchingBytecode)
+    			((NonBranchingBytecode) code[pos]).generateJavaBytecode(il, classGen);
     }
-    
-}
\ No newline at end of file
+}
@@ -93,22 +93,22 @@ public class CAST extends SequentialBytecode {
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
 	 *
+	 * @param il the list of instructions that must be expanded with the Java
+	 *           {@code checkcast intoType} bytecode for casts between reference types
+	 *           and a type conversion bytecode such as {@code i2f} for conversions
+	 *           between numercial types
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java {@code checkcast intoType} bytecode for casts between
-	 *         reference types and a type conversion bytecode such as {@code i2f}
-	 *         for conversions between numercial types
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		if (intoType instanceof ReferenceType)
 			// we use the instruction factory to simplify the addition of the type to the constant pool
-			return new InstructionList
-				(classGen.getFactory().createCheckCast
-					((org.apache.bcel.generic.ReferenceType) intoType.toBCEL()));
+			il.append(classGen.getFactory().createCheckCast
+				((org.apache.bcel.generic.ReferenceType) intoType.toBCEL()));
 		else if (fromType == IntType.INSTANCE && intoType == FloatType.INSTANCE)
-			return new InstructionList(new I2F());
+			il.append(new I2F());
 		else // it must be float into int
-			return new InstructionList(new F2I());
+			il.append(new F2I());
 	}
 }
\ No newline at end of file
@@ -81,7 +81,7 @@ public class CONST extends SequentialBytecode {
 	 * @return the constant that is loaded on top of the stack
 	 */
 
-	protected Object getConstant() {
+	public Object getConstant() {
 		return constant;
 	}
 
@@ -110,18 +110,19 @@ public class CONST extends SequentialBytecode {
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
 	 *
+	 * @param il the list of instructions that must be expanded with the Java
+	 *           {@code iconst}, {@code fconst}, {@code ldc}, {@code aconst_null} or
+	 *           {@code bipush} Java bytecode, on the basis of the type and size of
+	 *           {@link #constant}
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java {@code iconst}, {@code fconst}, {@code ldc},
-	 *         {@code aconst_null} or {@code bipush} Java bytecode,
-	 *         on the basis of the type and size of {@link #constant}
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		if (constant == null)
-			return new InstructionList(new org.apache.bcel.generic.ACONST_NULL());
+			il.append(new org.apache.bcel.generic.ACONST_NULL());
 		else
 			// the instruction factory will create the appropriate instruction
-			return new InstructionList(classGen.getFactory().createConstant(constant));
+			il.append(classGen.getFactory().createConstant(constant));
 	}
 }
\ No newline at end of file
@@ -32,6 +32,16 @@ public class DUP extends SequentialBytecode {
 		this.type = type;
 	}
 
+	/**
+	 * Yields the type of the element which is duplicated.
+	 *
+	 * @return the type
+	 */
+
+	public Type getType() {
+		return type;
+	}
+
 	@Override
 	public String toString() {
 		return "dup " + type;
@@ -40,12 +50,13 @@ public class DUP extends SequentialBytecode {
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
 	 *
+	 * @param il the list of instructions that must be expanded with the Java
+	 *           {@code dup} bytecode
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java {@code dup} bytecode
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		return new InstructionList(new org.apache.bcel.generic.DUP());
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		il.append(new org.apache.bcel.generic.DUP());
 	}
 }
\ No newline at end of file
@@ -52,12 +52,13 @@ public class GETFIELD extends FieldAccessBytecode {
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
 	 *
+	 * @param il the list of instructions that must be expanded with the Java
+	 *           {@code getfield field} bytecode
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java {@code getfield field} bytecode
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		return new InstructionList(field.createGETFIELD(classGen));
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		il.append(field.createGETFIELD(classGen));
 	}
 }
\ No newline at end of file
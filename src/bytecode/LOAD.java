@@ -70,14 +70,16 @@ public class LOAD extends SequentialBytecode {
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
 	 *
+	 * @param il the list of instructions that must be expanded with the
+	 *           {@code iload varNum}, {@code fload varNum} and {@code aload varNum}
+	 *           Java bytecode, if {@link #type} is {@code int}, {@code float} or a
+	 *           reference type, respectively
 	 * @param classGen the Java class generator to be used for this Java bytecode generation
-	 * @return the {@code iload varNum}, {@code fload varNum} and {@code aload varNum} Java bytecode,
-	 *         if {@link #type} is {@code int}, {@code float} or a reference type, respectively
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		// we use the instruction factory to simplify the choice between the three Java bytecode
-		return new InstructionList(InstructionFactory.createLoad(type.toBCEL(), varNum));
+		il.append(InstructionFactory.createLoad(type.toBCEL(), varNum));
 	}
 }
\ No newline at end of file
@@ -2,8 +2,8 @@ package bytecode;
 
 import javaBytecodeGenerator.JavaClassGenerator;
 
+import org.apache.bcel.generic.IfInstruction;
 import org.apache.bcel.generic.InstructionFactory;
-import org.apache.bcel.generic.InstructionHandle;
 import org.apache.bcel.generic.InstructionList;
 
 import types.BooleanType;
@@ -51,7 +51,7 @@ public class NE extends ComparisonBinOpBytecode {
 	 * {@code iconst 0}<br>
 	 * {@code goto follow}<br>
 	 * {@code after: iconst 1}<br>
-	 * {@code follow: nop}<br>
+	 * {@code follow: ...}<br>
 	 * <br>
 	 * if {@link #type} is {@code int} or a Boolean value (Booleans are represented as integers
 	 * in Java bytecode, with the assumption that 0 = <i>false</i> and 1 = <i>true</i>),<br>
@@ -60,7 +60,7 @@ public class NE extends ComparisonBinOpBytecode {
 	 * {@code iconst 0}<br>
 	 * {@code goto follow}<br>
 	 * {@code after: iconst 1}<br>
-	 * {@code follow: nop}<br>
+	 * {@code follow: ...}<br>
 	 * <br>
 	 * if {@link #type} is a class or array type, and<br>
 	 * <br>
@@ -69,7 +69,7 @@ public class NE extends ComparisonBinOpBytecode {
 	 * {@code iconst 0}<br>
 	 * {@code goto follow}<br>
 	 * {@code after: iconst 1}<br>
-	 * {@code follow: nop}<br>
+	 * {@code follow: ...}<br>
 	 * <br>
 	 * if {@link #type} is {@code float}. The {@code fcmpl} Java bytecode operates over
 	 * two {@code float} values on top of the stack and produces an
@@ -79,28 +79,30 @@ public class NE extends ComparisonBinOpBytecode {
 	 * ..., value1, value2 -&gt; ..., 0   if value1 = value2<br>
 	 * ..., value1, value2 -&gt; ..., -1  if value1 &lt; value2
 	 *
+	 * @param il the list of instructions that must be expanded with the Java bytecode
+	 *           as above, depending on {@link #type}
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java bytecode as above, depending on {@link #type}
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		InstructionList il = new InstructionList(InstructionFactory.NOP);
-
-		InstructionHandle follow = il.getStart();
-		InstructionHandle after = il.insert(InstructionFactory.ICONST_1);
-		il.insert(new org.apache.bcel.generic.GOTO(follow));
-		il.insert(InstructionFactory.ICONST_0);
-
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		IfInstruction test;
 		if (getType() == IntType.INSTANCE || getType() == BooleanType.INSTANCE)
-			il.insert(new org.apache.bcel.generic.IF_ICMPNE(after));
+			test = new org.apache.bcel.generic.IF_ICMPNE(null);
 		else if (getType() == FloatType.INSTANCE) {
-			il.insert(new org.apache.bcel.generic.IFNE(after));
-			il.insert(InstructionFactory.FCMPL);
+			il.append(InstructionFactory.FCMPL);
+			test = new org.apache.bcel.generic.IFNE(null);
 		}
 		else // classes or arrays
-			il.insert(new org.apache.bcel.generic.IF_ACMPNE(after));
+			test = new org.apache.bcel.generic.IF_ACMPNE(null);
+
+		il.append(test);
+		il.append(InstructionFactory.ICONST_0);
+		org.apache.bcel.generic.GOTO follow = new org.apache.bcel.generic.GOTO(null);
+		il.append(follow);
+		test.setTarget(il.append(InstructionFactory.ICONST_1));
 
-		return il;
+		// follow is the Java bytecode generated after this one
+		classGen.jumpToNext(il, follow);
 	}
 }
\ No newline at end of file
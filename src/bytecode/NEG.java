@@ -2,8 +2,8 @@ package bytecode;
 
 import javaBytecodeGenerator.JavaClassGenerator;
 
+import org.apache.bcel.generic.IfInstruction;
 import org.apache.bcel.generic.InstructionFactory;
-import org.apache.bcel.generic.InstructionHandle;
 import org.apache.bcel.generic.InstructionList;
 
 import types.BooleanType;
@@ -72,32 +72,33 @@ public class NEG extends SequentialBytecode {
 	 * {@code iconst 0}<br>
 	 * {@code goto} <i>end</i><br>
 	 * <i>after:</i> {@code iconst 1}<br>
-	 * <i>end:</i> {@code nop}
+	 * <i>end:</i> ...
 	 * <br>
 	 * if {@link #type} is {@code boolean}, since in the Java bytecode the integer constant
 	 * <i>0</i> is used for <i>false</i> and <i>1</i> is used for <i>true</i>.
 	 *
+	 * @param il the list of instructions that must be expanded with the Java
+	 *           {@code ineg} or similar bytecode, if {@link #type} is the corresponding
+	 *           numerical type, or the sequence seen above if {@link #type} is
+	 *           {@code boolean}
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java {@code ineg} or similar bytecode, if {@link #type} is
-	 *         the corresponding numerical type, or the sequence seen above
-	 *         if {@link #type} is {@code boolean}
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		InstructionList il = new InstructionList();
-
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		if (type == BooleanType.INSTANCE) {
 			// the negation of a Boolean value: it becomes an alternative of 0 or 1 on the stack
-			InstructionHandle end = il.insert(InstructionFactory.NOP);
-			InstructionHandle after = il.insert(InstructionFactory.ICONST_1);
-			il.insert(new org.apache.bcel.generic.GOTO(end));
-			il.insert(InstructionFactory.ICONST_0);
-			il.insert(new org.apache.bcel.generic.IFEQ(after));
+			IfInstruction test = new org.apache.bcel.generic.IFEQ(null);
+			il.append(test);
+			il.append(InstructionFactory.ICONST_0);
+			org.apache.bcel.generic.GOTO end = new org.apache.bcel.generic.GOTO(null);
+			il.append(end);
+			test.setTarget(il.append(InstructionFactory.ICONST_1));
+
+			// end is the Java bytecode generated after this one
+			classGen.jumpToNext(il, end);
 		}
 		else
 			((NumericalType) type).neg(il);
-
-		return il;
 	}
 }
\ No newline at end of file
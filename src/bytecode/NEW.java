@@ -51,12 +51,13 @@ public class NEW extends SequentialBytecode {
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
 	 *
+	 * @param il the list of instructions that must be expanded with the Java
+	 *           {@code new clazz}
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java {@code new clazz}
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		return new InstructionList(classGen.getFactory().createNew(clazz.toBCEL().toString()));
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		il.append(classGen.getFactory().createNew(clazz.toBCEL().toString()));
 	}
 }
\ No newline at end of file
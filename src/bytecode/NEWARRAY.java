@@ -55,6 +55,16 @@ public class NEWARRAY extends SequentialBytecode {
 		this(elementsType, 1);
 	}
 
+	/**
+	 * Yields the type of the elements of the array that is created by this bytecode.
+	 *
+	 * @return the type of the elements
+	 */
+
+	public Type getElementsType() {
+		return elementsType;
+	}
+
 	/**
 	 * Yields the number of dimensions of the array that is created by this bytecode.
 	 *
@@ -76,15 +86,15 @@ public class NEWARRAY extends SequentialBytecode {
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
 	 *
+	 * @param il the list of instructions that must be expanded with the
+	 *           {@code newarray elementsType} Java bytecode, if {@code elementsType} is
+	 *           a primitive types, and the {@code anewarray elementsType} bytecode, if
+	 *           {@code elementsType} is a reference type
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the {@code newarray elementsType} Java bytecode, if
-	 *         {@code elementsType} is a primitive types, and the
-	 *         {@code anewarray elementsType} bytecode, if
-	 *         {@code elementsType} is a reference type
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		// we use the instruction factory to simplify the choice between
 		// the newarray and anewarray Java bytecode. Moreover, it automatically
 		// puts the type of the elements of the array inside the constant pool
@@ -94,6 +104,6 @@ public class NEWARRAY extends SequentialBytecode {
 		if (dimensions > 1)
 			t = ArrayType.mk(t);
 
-		return new InstructionList(classGen.getFactory().createNewArray(t.toBCEL(), (short) dimensions));
+		il.append(classGen.getFactory().createNewArray(t.toBCEL(), (short) dimensions));
 	}
 }
\ No newline at end of file
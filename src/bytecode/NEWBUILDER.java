@@ -0,0 +1,110 @@
+package bytecode;
+
+import javaBytecodeGenerator.JavaClassGenerator;
+
+import org.apache.bcel.Constants;
+import org.apache.bcel.generic.InstructionFactory;
+import org.apache.bcel.generic.InstructionList;
+import org.apache.bcel.generic.ObjectType;
+
+/**
+ * A bytecode that creates a builder of strings, initialised with a lexical value,
+ * and pushes a reference to it on top of the stack. It is the beginning of a chain
+ * of concatenations of strings, that are performed on the builder, without
+ * creating the intermediate strings (see {@link APPEND} and {@link BUILDSTRING}).
+ * <br><br>
+ * ... -&gt; ..., new builder
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class NEWBUILDER extends SequentialBytecode {
+
+	/**
+	 * The lexical value the builder is initialised with.
+	 */
+
+	private final String value;
+
+	/**
+	 * The number of characters the builder is expected to hold at the end of the chain.
+	 */
+
+	private final int capacity;
+
+	/**
+	 * Constructs a bytecode that creates a builder of strings and pushes a reference to it on the stack.
+	 *
+	 * @param value the lexical value the builder is initialised with
+	 * @param capacity the number of characters the builder is expected to hold
+	 *                 at the end of the chain of concatenations
+	 */
+
+	public NEWBUILDER(String value, int capacity) {
+		this.value = value;
+		this.capacity = Math.max(capacity, value.length());
+	}
+
+	/**
+	 * Yields the lexical value the builder is initialised with.
+	 *
+	 * @return the lexical value
+	 */
+
+	public String getValue() {
+		return value;
+	}
+
+	/**
+	 * Yields the number of characters the builder is expected to hold at the end of the chain.
+	 *
+	 * @return the number of characters
+	 */
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	@Override
+	public String toString() {
+		return "newbuilder " + value.replaceAll("\n","\\\\\\\\n") + " of capacity " + capacity;
+	}
+
+	/**
+	 * Generates the Java bytecode corresponding to this Kitten bytecode. Namely, it generates<br>
+	 * <br>
+	 * {@code new java.lang.StringBuilder}<br>
+	 * {@code dup}<br>
+	 * {@code ldc capacity}<br>
+	 * {@code invokespecial java.lang.StringBuilder.&lt;init&gt;(int)}<br>
+	 * {@code ldc value}<br>
+	 * {@code invokevirtual java.lang.StringBuilder.append(java.lang.String)}<br>
+	 * <br>
+	 * where the last two bytecodes are omitted if {@link #value} is empty.
+	 *
+	 * @param il the list of instructions that must be expanded with the Java bytecode above
+	 * @param classGen the Java class generator to be used for this generation
+	 */
+
+	@Override
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		InstructionFactory factory = classGen.getFactory();
+		ObjectType builder = new ObjectType(StringBuilder.class.getName());
+
+		il.append(factory.createNew(builder));
+		il.append(InstructionFactory.DUP);
+		il.append(factory.createConstant(capacity));
+		il.append(factory.createInvoke
+			(builder.getClassName(), // class name of the method
+			Constants.CONSTRUCTOR_NAME, // name of the method
+			org.apache.bcel.generic.Type.VOID, // return type
+			new org.apache.bcel.generic.Type[] { org.apache.bcel.generic.Type.INT }, // parameters types
+			Constants.INVOKESPECIAL)); // invokespecial
+
+		if (!value.isEmpty()) {
+			il.append(factory.createConstant(value));
+			il.append(factory.createInvoke(builder.getClassName(), "append", builder,
+				new org.apache.bcel.generic.Type[] { org.apache.bcel.generic.Type.STRING }, Constants.INVOKEVIRTUAL));
+		}
+	}
+}
@@ -32,6 +32,16 @@ public class NEWSTRING extends SequentialBytecode {
 		this.value = value;
 	}
 
+	/**
+	 * Yields the lexical value of the string that is created.
+	 *
+	 * @return the lexical value
+	 */
+
+	public String getValue() {
+		return value;
+	}
+
 	@Override
 	public String toString() {
 		return "newstring " + value.replaceAll("\n","\\\\\\\\n");
@@ -51,32 +61,28 @@ public class NEWSTRING extends SequentialBytecode {
 	 * that creates a {@code runTime.String} objects and initialises it with
 	 * the lexical value {@link #value} of the Kitten string we want to create.
 	 *
+	 * @param il the list of instructions that must be expanded with a Java bytecode
+	 *           that creates a {@code runTime.String} object initialised with the
+	 *           lexical {@link #value} of the Kitten string that we want to create.
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return a Java bytecode that creates a {@code runTime.String}
-	 *         object initialised with the lexical {@link #value} of the
-	 *         Kitten string that we want to create.
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		InstructionFactory factory = classGen.getFactory();
-		InstructionList il = new InstructionList();
 		String kittenStringName = runTime.String.class.getName();
 
+		il.append(factory.createNew(kittenStringName));
+		il.append(InstructionFactory.DUP);
+		il.append(factory.createConstant(value));
+
 		// we create the invokespecial to the constructor
-		il.insert(factory.createInvoke
+		il.append(factory.createInvoke
 			(kittenStringName, // class name of the method
 			Constants.CONSTRUCTOR_NAME, // name of the method
 			org.apache.bcel.generic.Type.VOID, // return type
 			new org.apache.bcel.generic.Type[] // parameters types
 				{ org.apache.bcel.generic.Type.getType("Ljava/lang/String;") },
 			Constants.INVOKESPECIAL)); // invokespecial
-
-		// we prepend the rest of the code
-		il.insert(factory.createConstant(value));
-		il.insert(InstructionFactory.DUP);
-		il.insert(factory.createNew(kittenStringName));
-
-		return il;
 	}
 }
\ No newline at end of file
@@ -2,7 +2,6 @@ package bytecode;
 
 import javaBytecodeGenerator.JavaClassGenerator;
 
-import org.apache.bcel.generic.InstructionFactory;
 import org.apache.bcel.generic.InstructionList;
 
 /**
@@ -23,13 +22,12 @@ public class NOP extends SequentialBytecode {
 
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
+	 * Nothing is generated, since a {@code nop} has no effect.
 	 *
+	 * @param il the list of instructions, that is left unchanged
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java {@code nop} bytecode
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		return new InstructionList(InstructionFactory.NOP);
-	}
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {}
 }
\ No newline at end of file
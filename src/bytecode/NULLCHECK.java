@@ -0,0 +1,49 @@
+package bytecode;
+
+import javaBytecodeGenerator.JavaClassGenerator;
+
+import org.apache.bcel.Constants;
+import org.apache.bcel.generic.InstructionFactory;
+import org.apache.bcel.generic.InstructionList;
+import org.apache.bcel.generic.ObjectType;
+
+/**
+ * A bytecode that pops the top value of the stack, which must be an object.
+ * If that value is {@code nil}, the computation stops, as it would for
+ * a call whose receiver is {@code nil}.
+ * <br><br>
+ * ..., value -&gt; ...
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class NULLCHECK extends SequentialBytecode {
+
+	/**
+	 * Constructs a bytecode that checks that the top value of the stack is not {@code nil}.
+	 */
+
+	public NULLCHECK() {}
+
+	@Override
+	public String toString() {
+		return "nullcheck";
+	}
+
+	/**
+	 * Generates the Java bytecode corresponding to this Kitten bytecode.
+	 *
+	 * @param il the list of instructions that must be expanded with the Java
+	 *           {@code invokevirtual java.lang.Object.getClass(); pop} bytecodes, that
+	 *           throw a {@code NullPointerException} if the value is {@code null}
+	 * @param classGen the Java class generator to be used for this generation
+	 */
+
+	@Override
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		il.append(classGen.getFactory().createInvoke
+			("java.lang.Object", "getClass", new ObjectType("java.lang.Class"),
+			org.apache.bcel.generic.Type.NO_ARGS, Constants.INVOKEVIRTUAL));
+		il.append(InstructionFactory.POP);
+	}
+}
@@ -26,11 +26,14 @@ public abstract class NonBranchingBytecode extends Bytecode {
 	 * Sometimes there is a direct correspondence between the two bytecode
 	 * languages. Other times, instead, one needs to generate more than one
 	 * Java bytecode to emulate the semantics of a single Kitten bytecode.
+	 * The Java bytecode is appended to the code already generated for the
+	 * same method, so that a method is generated in a single pass.
 	 *
+	 * @param il the list of instructions that must be expanded with
+	 *           the Java bytecode(s) corresponding to this Kitten bytecode
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java bytecode(s) corresponding to this Kitten bytecode
 	 */
 
-	public abstract InstructionList generateJavaBytecode(JavaClassGenerator classGen);
+	public abstract void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen);
 	
 }
\ No newline at end of file
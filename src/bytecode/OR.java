@@ -26,12 +26,13 @@ public class OR extends BooleanBinOpBytecode {
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
 	 *
+	 * @param il the list of instructions that must be expanded with the Java
+	 *           {@code ior} bytecode
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java {@code ior} bytecode
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		return new InstructionList(InstructionFactory.IOR);
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		il.append(InstructionFactory.IOR);
 	}
 }
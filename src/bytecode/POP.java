@@ -51,12 +51,13 @@ public class POP extends SequentialBytecode {
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
 	 *
+	 * @param il the list of instructions that must be expanded with a Java {@code pop}
+	 *           bytecode
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return a Java {@code pop} bytecode
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		return new InstructionList(InstructionFactory.POP);
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		il.append(InstructionFactory.POP);
 	}
 }
\ No newline at end of file
@@ -52,12 +52,13 @@ public class PUTFIELD extends FieldAccessBytecode {
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
 	 *
+	 * @param il the list of instructions that must be expanded with the Java
+	 *           {@code putfield field} bytecode
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java {@code putfield field} bytecode
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		return new InstructionList(field.createPUTFIELD(classGen));
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		il.append(field.createPUTFIELD(classGen));
 	}
 }
\ No newline at end of file
@@ -59,19 +59,20 @@ public class RETURN extends FinalBytecode {
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
 	 *
+	 * @param il the list of instructions that must be expanded with the {@code return}
+	 *           Java bytecode if {@link #type} is {@code void}, the {@code ireturn}
+	 *           Java bytecode if {@link #type} is {@code int} or {@code boolean}
+	 *           (Booleans are represented as integers in Java bytecode, with the
+	 *           assumption that 0 = <i>false</i> and 1 = <i>true</i>), the
+	 *           {@code freturn} Java bytecode if {@link #type} is {@code float} and the
+	 *           {@code areturn} Java bytecode if {@link #type} is a reference type
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the {@code return} Java bytecode if {@link #type} is {@code void},
-	 *         the {@code ireturn} Java bytecode if {@link #type} is {@code int} or {@code boolean}
-	 *         (Booleans are represented as integers in Java bytecode, with the assumption
-	 *         that 0 = <i>false</i> and 1 = <i>true</i>), the {@code freturn}
-	 *         Java bytecode if {@link #type} is {@code float} and the {@code areturn} Java bytecode
-	 *         if {@link #type} is a reference type
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		// we use the instruction factory to simplify the selection of the
 		// right return bytecode, depending on type
-		return new InstructionList(InstructionFactory.createReturn(type.toBCEL()));
+		il.append(InstructionFactory.createReturn(type.toBCEL()));
 	}
 }
\ No newline at end of file
@@ -41,6 +41,16 @@ public class STORE extends SequentialBytecode {
 		this.type = type;
 	}
 
+	/**
+	 * Yields the number of the variable which is modified by this bytecode.
+	 *
+	 * @return the number of the variable modified by this bytecode
+	 */
+
+	public int getVarNum() {
+		return varNum;
+	}
+
 	/**
 	 * Yields the type of the local variable that is assigned.
 	 *
@@ -59,15 +69,16 @@ public class STORE extends SequentialBytecode {
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
 	 *
+	 * @param il the list of instructions that must be expanded with the Java
+	 *           {@code istore varNum}, {@code fstore varNum} or {@code astore varNum}
+	 *           bytecode, if {@link #type} is {@code int}, {@code float} or a class or
+	 *           array type, respectively.
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java {@code istore varNum}, {@code fstore varNum} or
-	 *         {@code astore varNum} bytecode, if {@link #type} is {@code int},
-	 *         {@code float} or a class or array type, respectively.
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		// we use the instruction factory to simplify the choice between the three Java bytecodes
-		return new InstructionList(InstructionFactory.createStore(type.toBCEL(), varNum));
+		il.append(InstructionFactory.createStore(type.toBCEL(), varNum));
 	}
 }
\ No newline at end of file
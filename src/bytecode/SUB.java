@@ -29,17 +29,14 @@ public class SUB extends ArithmeticBinOpBytecode {
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
 	 *
+	 * @param il the list of instructions that must be expanded with the {@code isub}
+	 *           Java bytecode if {@link #type} is {@code int} and the {@code fsub} Java
+	 *           bytecode if it is {@code float}
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the {@code isub} Java bytecode if {@link #type} is {@code int}
-	 *         and the {@code fsub} Java bytecode if it is {@code float}
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		InstructionList il = new InstructionList();
-
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		getType().sub(il);
-
-		return il;
 	}
 }
\ No newline at end of file
@@ -1,8 +1,12 @@
 package bytecode;
 
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.Set;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import javaBytecodeGenerator.JavaClassGenerator;
 
 import org.apache.bcel.generic.InstructionList;
@@ -26,6 +30,13 @@ import types.MethodSignature;
 
 public class VIRTUALCALL extends CALL {
 
+	/**
+	 * The sets of dynamic targets of the calls built so far. Calls with equal
+	 * sets of dynamic targets share the same set, that is kept here.
+	 */
+
+	private final static ConcurrentMap<Set<CodeSignature>, Set<CodeSignature>> targetSets = new ConcurrentHashMap<>();
+
 	/**
 	 * Constructs a bytecode that calls a method of an object with dynamic
 	 * lookup. The set of runtime targets is assumed to be that obtained
@@ -38,7 +49,61 @@ public class VIRTUALCALL extends CALL {
 	public VIRTUALCALL(ClassType receiverType, MethodSignature staticTarget) {
 		// we compute the dynamic targets by assuming that the runtime
 		// type of the receiver is any subclass of its static type
-		super(receiverType, staticTarget, dynamicTargets(receiverType.getInstances(), staticTarget));
+		this(receiverType, staticTarget, dynamicTargets(receiverType.getInstances(), staticTarget));
+	}
+
+	/**
+	 * Constructs a bytecode that calls a method of an object with dynamic
+	 * lookup, whose set of runtime targets is known.
+	 *
+	 * @param receiverType the static type of the receiver of this call
+	 * @param staticTarget the signature of the static target of the call
+	 * @param dynamicTargets the set of dynamic targets of the call. An equal
+	 *                       set is shared among all calls with the same targets
+	 */
+
+	public VIRTUALCALL(ClassType receiverType, MethodSignature staticTarget, Set<CodeSignature> dynamicTargets) {
+		super(receiverType, staticTarget, intern(dynamicTargets));
+	}
+
+	/**
+	 * Yields the unique representative of the sets of dynamic targets equal to the given one.
+	 *
+	 * @param dynamicTargets the set of dynamic targets
+	 * @return the unique representative, that cannot be modified
+	 */
+
+	private static Set<CodeSignature> intern(Set<CodeSignature> dynamicTargets) {
+		Set<CodeSignature> result = targetSets.get(dynamicTargets);
+		if (result == null) {
+			// we use the copy as key as well, since the caller might later modify its set
+			result = Collections.unmodifiableSet(new HashSet<>(dynamicTargets));
+			Set<CodeSignature> previous = targetSets.putIfAbsent(result, result);
+			if (previous != null)
+				result = previous;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Forgets the sets of dynamic targets of the calls built so far.
+	 * They refer to the signatures of a program, that are not needed
+	 * anymore when another program is compiled.
+	 */
+
+	public static void clear() {
+		targetSets.clear();
+	}
+
+	/**
+	 * Determines if this call has a single dynamic target, that is, if it is monomorphic.
+	 *
+	 * @return true if and only if this call is monomorphic
+	 */
+
+	public boolean isMonomorphic() {
+		return getDynamicTargets().size() == 1;
 	}
 
 	/**
@@ -72,12 +137,13 @@ public class VIRTUALCALL extends CALL {
 	 * {@code invokevirtual staticTarget} Java bytecode. The Java {@code invokevirtual} bytecode
 	 * calls a method by using the runtime class of the receiver to look up for the method's implementation.
 	 *
+	 * @param il the list of instructions that must be expanded with the Java
+	 *           {@code invokevirtual staticTarget} bytecode
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java {@code invokevirtual staticTarget} bytecode
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		return new InstructionList(((MethodSignature) getStaticTarget()).createINVOKEVIRTUAL(classGen));
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		il.append(((MethodSignature) getStaticTarget()).createINVOKEVIRTUAL(classGen));
 	}
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package errorMsg;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -17,7 +18,13 @@ public class ErrorMsg {
 	 * This is useful to know where source lines stop.
 	 */
 
-	private final List<Integer> linePos = new ArrayList<>();
+	private int[] linePos = new int[64];
+
+	/**
+	 * The number of newline positions in {@link #linePos}.
+	 */
+
+	private int lines;
 
 	/**
 	 * The name of the file to which this error reporting utility is associated.
@@ -31,6 +38,13 @@ public class ErrorMsg {
 
 	private boolean anyErrors;
 
+	/**
+	 * The messages reported while this utility was deferring them, if any.
+	 * This is {@code null} if messages are printed as soon as they are reported.
+	 */
+
+	private List<String> deferred;
+
 	/**
 	 * Creates an error reporting utility for the specified source file.
 	 *
@@ -69,7 +83,10 @@ public class ErrorMsg {
 	 */
 
 	public void newline(int pos) {
-		linePos.add(pos);
+		if (lines == linePos.length)
+			linePos = Arrays.copyOf(linePos, lines * 2);
+
+		linePos[lines++] = pos;
 	}
 
 	/**
@@ -91,7 +108,8 @@ public class ErrorMsg {
 			int last = 0, n = 1;
 
 			// we look for the last new line before position pos
-			for (int line: linePos) {
+			for (int i = 0; i < lines; i++) {
+				int line = linePos[i];
 				if (line >= pos) break;
 
 				last = line;
@@ -103,7 +121,38 @@ public class ErrorMsg {
 		else
 			where = "";
 
-		System.out.println(fileName + "::" + where + ": " + msg);
+		String message = fileName + "::" + where + ": " + msg;
+
+		if (deferred != null)
+			deferred.add(message);
+		else
+			System.out.println(message);
+	}
+
+	/**
+	 * Specifies that the messages reported from now on must not be printed
+	 * immediately but only when {@link #flush()} is called. This is useful
+	 * when a source file is parsed speculatively and its messages should be
+	 * reported only if that source file is eventually used.
+	 */
+
+	public void defer() {
+		if (deferred == null)
+			deferred = new ArrayList<>();
+	}
+
+	/**
+	 * Prints the messages deferred so far, if any, and specifies that
+	 * messages will be printed as soon as they are reported from now on.
+	 */
+
+	public void flush() {
+		if (deferred != null) {
+			for (String message: deferred)
+				System.out.println(message);
+
+			deferred = null;
+		}
 	}
 	
 	public String calcPos(int pos) {
@@ -112,7 +161,8 @@ public class ErrorMsg {
 			int last = 0, n = 1;
 
 			// we look for the last new line before position pos
-			for (int line: linePos) {
+			for (int i = 0; i < lines; i++) {
+				int line = linePos[i];
 				if (line >= pos) break;
 
 				last = line;
@@ -0,0 +1,267 @@
+package javaBytecodeGenerator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import translation.Block;
+import translation.BlockWalker;
+
+/**
+ * The order in which the Java bytecode of the blocks of a piece of code is laid out.
+ * A block that is immediately followed by one of its followers falls through
+ * into it, without any jump. Hence the blocks are first grouped into chains,
+ * by considering the edges between them from the most frequently executed,
+ * that is, from the most deeply nested inside loops. An edge links two chains
+ * if it goes from the last block of a chain to the first block of another.
+ * The edges that go back to the head of a loop are considered before the
+ * other edges of the same loop, so that the head of the loop, where its
+ * condition is checked, gets laid out at the bottom of the loop, after its body.
+ * In that way, each iteration of the loop executes a single conditional
+ * jump back to the body, while a {@code goto} to the condition is only
+ * executed at the beginning of the loop. The chains are finally laid out
+ * starting from that of the first block of the code, that is always a chain
+ * head, and then in depth-first order of their heads.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class BlockLayout {
+
+	/**
+	 * The blocks of the code, in depth-first order.
+	 */
+
+	private final List<Block> blocks = new ArrayList<>();
+
+	/**
+	 * The position of each block inside {@link #blocks}.
+	 */
+
+	private final Map<Block, Integer> positions = new HashMap<>();
+
+	/**
+	 * The edges between the blocks of the code.
+	 */
+
+	private final List<Edge> edges = new ArrayList<>();
+
+	/**
+	 * The number of loops that contain each block.
+	 */
+
+	private final Map<Block, Integer> depths = new HashMap<>();
+
+	/**
+	 * The chain that contains each block.
+	 */
+
+	private final Map<Block, List<Block>> chains = new HashMap<>();
+
+	/**
+	 * The blocks, in the order in which they must be laid out.
+	 */
+
+	private final List<Block> layout = new ArrayList<>();
+
+	/**
+	 * Computes the layout of the blocks reachable from the given one.
+	 *
+	 * @param start the first block of the code
+	 */
+
+	public BlockLayout(Block start) {
+		explore(start);
+		computeDepths();
+		buildChains(start);
+
+		// the chain of the first block comes first, the others in depth-first order of their heads
+		layout.addAll(chains.get(start));
+
+		for (Block block: blocks)
+			if (block != start && chains.get(block).get(0) == block)
+				layout.addAll(chains.get(block));
+	}
+
+	/**
+	 * Yields the blocks of the code, in the order in which they must be laid out.
+	 * The first block of the code is the first of the list.
+	 *
+	 * @return the blocks
+	 */
+
+	public List<Block> getBlocks() {
+		return layout;
+	}
+
+	/**
+	 * Collects the blocks reachable from the given one, in depth-first order,
+	 * and the edges between them.
+	 *
+	 * @param start the first block of the code
+	 */
+
+	private void explore(Block start) {
+		final Set<Block> onStack = new HashSet<>();
+
+		new BlockWalker() {
+
+			@Override
+			protected void enter(Block block) {
+				positions.put(block, blocks.size());
+				blocks.add(block);
+				onStack.add(block);
+			}
+
+			@Override
+			protected void edge(Block block, Block successor) {
+				// the successor is still being visited only if the edge goes back to a loop head
+				edges.add(new Edge(block, successor, onStack.contains(successor)));
+			}
+
+			@Override
+			protected void exit(Block block) {
+				onStack.remove(block);
+			}
+		}.walk(start);
+	}
+
+	/**
+	 * Computes the number of loops that contain each block. The loop of an
+	 * edge that goes back to a loop head contains the head and all blocks
+	 * that reach the source of the edge without passing through the head.
+	 */
+
+	private void computeDepths() {
+		Map<Block, List<Block>> predecessors = new HashMap<>();
+		for (Block block: blocks) {
+			predecessors.put(block, new ArrayList<Block>());
+			depths.put(block, 0);
+		}
+
+		for (Edge edge: edges)
+			predecessors.get(edge.target).add(edge.source);
+
+		// the loops with the same head are merged into a single loop
+		Map<Block, Set<Block>> loops = new HashMap<>();
+		List<Block> heads = new ArrayList<>();
+
+		for (Edge edge: edges)
+			if (edge.back) {
+				Set<Block> loop = loops.get(edge.target);
+				if (loop == null) {
+					loops.put(edge.target, loop = new HashSet<>());
+					loop.add(edge.target);
+					heads.add(edge.target);
+				}
+
+				Deque<Block> worklist = new ArrayDeque<>();
+				if (loop.add(edge.source))
+					worklist.add(edge.source);
+
+				while (!worklist.isEmpty())
+					for (Block predecessor: predecessors.get(worklist.pop()))
+						if (loop.add(predecessor))
+							worklist.add(predecessor);
+			}
+
+		for (Block head: heads)
+			for (Block block: loops.get(head))
+				depths.put(block, depths.get(block) + 1);
+	}
+
+	/**
+	 * Groups the blocks into chains, by considering the edges from the most
+	 * deeply nested and, for the same depth, the edges that go back to a loop head first.
+	 *
+	 * @param start the first block of the code, that must remain at the head of its chain
+	 */
+
+	private void buildChains(Block start) {
+		for (Block block: blocks) {
+			List<Block> chain = new ArrayList<>();
+			chain.add(block);
+			chains.put(block, chain);
+		}
+
+		List<Edge> sorted = new ArrayList<>(edges);
+		Collections.sort(sorted, new Comparator<Edge>() {
+
+			@Override
+			public int compare(Edge edge1, Edge edge2) {
+				int diff = edge2.depth() - edge1.depth();
+				if (diff != 0)
+					return diff;
+				else if (edge1.back != edge2.back)
+					return edge1.back ? -1 : 1;
+				else if (edge1.source != edge2.source)
+					return positions.get(edge1.source) - positions.get(edge2.source);
+				else
+					return edge1.source.getFollows().indexOf(edge1.target)
+						- edge2.source.getFollows().indexOf(edge2.target);
+			}
+		});
+
+		for (Edge edge: sorted) {
+			List<Block> first = chains.get(edge.source);
+			List<Block> second = chains.get(edge.target);
+
+			// the source must be the tail of a chain and the target the head of another
+			if (first != second && edge.target != start
+					&& first.get(first.size() - 1) == edge.source && second.get(0) == edge.target) {
+
+				first.addAll(second);
+				for (Block block: second)
+					chains.put(block, first);
+			}
+		}
+	}
+
+	/**
+	 * An edge from a block to one of its followers.
+	 */
+
+	private class Edge {
+
+		/**
+		 * The block where the edge starts.
+		 */
+
+		private final Block source;
+
+		/**
+		 * The block where the edge arrives.
+		 */
+
+		private final Block target;
+
+		/**
+		 * True if and only if the edge goes back to the head of a loop.
+		 */
+
+		private final boolean back;
+
+		private Edge(Block source, Block target, boolean back) {
+			this.source = source;
+			this.target = target;
+			this.back = back;
+		}
+
+		/**
+		 * Yields the number of loops that contain this edge.
+		 *
+		 * @return the number of loops that contain both the source and the target of this edge
+		 */
+
+		private int depth() {
+			return Math.min(depths.get(source), depths.get(target));
+		}
+	}
+}
@@ -1,20 +1,23 @@
 package javaBytecodeGenerator;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 import org.apache.bcel.Constants;
+import org.apache.bcel.classfile.Constant;
+import org.apache.bcel.generic.BranchInstruction;
+import org.apache.bcel.generic.CPInstruction;
 import org.apache.bcel.generic.ClassGen;
 import org.apache.bcel.generic.ConstantPoolGen;
 import org.apache.bcel.generic.GOTO;
-import org.apache.bcel.generic.Instruction;
 import org.apache.bcel.generic.InstructionFactory;
 import org.apache.bcel.generic.InstructionHandle;
 import org.apache.bcel.generic.InstructionList;
-import org.apache.bcel.generic.TargetLostException;
 
 import translation.Block;
 import types.ClassMemberSignature;
@@ -50,6 +53,26 @@ public abstract class JavaClassGenerator extends ClassGen {
 
 	private final static String[] noInterfaces = new String[] {};
 
+	/**
+	 * The code lowered in advance by {@link #lowerInParallel(List)}, that has not
+	 * been used by {@link #generateJavaBytecode(Block)} yet.
+	 */
+
+	private final Map<Block, Lowering> lowered = new HashMap<>();
+
+	/**
+	 * The jumps to the instruction that follows another, registered through
+	 * {@link #jumpToNext(InstructionList, BranchInstruction)} and not resolved yet.
+	 */
+
+	private final List<BranchInstruction> jumpsToNext = new ArrayList<>();
+
+	/**
+	 * The instructions followed by the targets of {@link #jumpsToNext}, in the same order.
+	 */
+
+	private final List<InstructionHandle> jumpsToNextFrom = new ArrayList<>();
+
 	/**
 	 * Builds a class generator for the given class type.
 	 *
@@ -86,133 +109,255 @@ public abstract class JavaClassGenerator extends ClassGen {
 
 	/**
 	 * Generates the Java bytecode for the given block of code and for all
-	 * blocks reachable from it. It calls {@link #generateJavaBytecodeFollows(Block, Map, InstructionList)}
-	 * and then {@link #removeRedundancies(InstructionList)}.
+	 * blocks reachable from it, in a single pass, through a {@link CodeGenerator}.
 	 *
 	 * @param block the code from which the generation starts
 	 * @return the Java bytecode for {@code block} and all blocks reachable from it
 	 */
 
 	public InstructionList generateJavaBytecode(Block block) {
-		InstructionList instructions = new InstructionList();
+		Lowering lowering = lowered.remove(block);
+		if (lowering != null)
+			return lowering.mergeInto(this);
 
-		generateJavaBytecode(block, new HashMap<Block, InstructionHandle>(), instructions);
-
-		return removeRedundancies(instructions);
+		return new CodeGenerator().generate(block);
 	}
 
 	/**
-	 * Auxiliary method that generates the Java bytecode for the given block
-	 * of code and for all blocks reachable from it. It uses a set of processed
-	 * blocks in order to avoid looping.
+	 * Takes note that the given jump, that has just been added to the given list
+	 * of instructions, must go to the instruction that will be added next to that list.
+	 * This is used by Kitten bytecodes whose code has more than one exit.
+	 * The target of the jump is set when the generation of the code is over.
 	 *
-	 * @param block the block from which the code generation starts
-	 * @param done the set of blocks which have been already processed
-	 * @param instructions the Java bytecode that has already been generated.
-	 *                     It gets modified in order to include the Java bytecode generated
-	 *                     for {@code block} and for those that are reachable from it
-	 * @return a reference to the first instruction of the Java bytecode
-	 *         generated for this block
+	 * @param il the list of instructions where the code is being generated
+	 * @param jump the jump
 	 */
 
-	private InstructionHandle generateJavaBytecode(Block block, Map<Block, InstructionHandle> done, InstructionList instructions) {
-		// we first check if we already processed the block
-		InstructionHandle result = done.get(block);
-		if (result != null)
-			return result;
+	public void jumpToNext(InstructionList il, BranchInstruction jump) {
+		jumpsToNext.add(jump);
+		jumpsToNextFrom.add(il.getEnd());
+	}
 
-		// this is the first time that we process the block!
+	/**
+	 * Lowers the given pieces of code into Java bytecode in parallel, if this
+	 * generator is used inside a fork-join pool. Each piece is lowered by a task,
+	 * with a private constant pool. The result is used later by
+	 * {@link #generateJavaBytecode(Block)}, that merges the constants into the
+	 * constant pool of this generator in the same order in which they would have
+	 * been added by a sequential lowering, so that the generated class is the same.
+	 * Outside a fork-join pool, this method does nothing.
+	 *
+	 * @param codes the first blocks of the pieces of code
+	 */
 
-		// we generate the Java bytecode for the code inside the block, and
-		// we put it at the end of the instructions already generated
-		result = instructions.append(block.getBytecode().generateJavaBytecode(this));
+	protected final void lowerInParallel(List<Block> codes) {
+		if (!ForkJoinTask.inForkJoinPool() || codes.size() < 2)
+			return;
 
-		// we record the beginning of the Java bytecode generated for the block, for future lookup
-		done.put(block, result);
+		List<Lowering> tasks = new ArrayList<>();
+		for (Block code: codes)
+			tasks.add(new Lowering(code, this));
 
-		// we process the following blocks
-		generateJavaBytecodeFollows(block, done, instructions);
+		ForkJoinTask.invokeAll(tasks);
 
-		// we return the beginning of the Java bytecode generated for the block
-		return result;
+		for (Lowering task: tasks)
+			lowered.put(task.code, task);
 	}
 
 	/**
-	 * Auxiliary method that generates the Java bytecode for the blocks
-	 * that follow a given block. That Java bytecode might include some
-	 * <i>glue</i>, such as the conditional Java bytecode for the branching code blocks.
-	 *
-	 * @param block the block for whose followers the code is being generated
-	 * @param done the set of blocks which have been already processed
-	 * @param instructions the Java bytecode that has already been generated from the predecessors
-	 *                     and from the code of {@code block}. It gets modified
-	 *                     in order to include the Java bytecode generated for the followers
-	 *                     of {@code block}, including some <i>glue</i>
+	 * A task that lowers a piece of code into Java bytecode, with a private
+	 * generator for the same class and, hence, with a private constant pool.
 	 */
- 
-	private void generateJavaBytecodeFollows(Block block, Map<Block, InstructionHandle> done, InstructionList instructions) {
-		List<Block> follows = block.getFollows();
 
-		// this is where the Java bytecode currently ends
-		InstructionHandle ourLast = instructions.getEnd();
+	@SuppressWarnings("serial")
+	private static class Lowering extends RecursiveTask<InstructionList> {
 
-		if (!follows.isEmpty())
-			if (follows.get(0).getBytecode().getHead() instanceof BranchingBytecode) {
-				// we are facing a branch due to a comparison bytecode. That bytecode
-				// and its negation are at the beginning of our two following blocks
+		/**
+		 * The first block of the code to lower.
+		 */
 
-				// we get the condition of the branching
-				BranchingBytecode condition = (BranchingBytecode) follows.get(0).getBytecode().getHead();
+		private final Block code;
 
-				// we append the code for the two blocks that follow the block
-				InstructionHandle noH = generateJavaBytecode(follows.get(1), done, instructions);
-				InstructionHandle yesH = generateJavaBytecode(follows.get(0), done, instructions);
+		/**
+		 * The private generator used for the lowering.
+		 */
 
-				// in between, we put some code that jumps to yesH if condition holds, and to noH otherwise
-				instructions.append(ourLast, condition.generateJavaBytecode(this, yesH, noH));
-			}
-			else {
-				// we append the code for the first follower
-				InstructionHandle followJB = generateJavaBytecode(follows.get(0), done, instructions);
-
-				// in between, we put a goto bytecode. Note that we need it since we have no guarantee
-				// that the code for follows will be appended exactly after that for the block. The
-				// follows blocks might indeed have been already translated into Java bytecode, and hence
-				// followJB might be an internal program point in instructions
-				instructions.append(ourLast, new GOTO(followJB));
+		private final JavaClassGenerator generator;
+
+		private Lowering(Block code, JavaClassGenerator classGen) {
+			this.code = code;
+			this.generator = new JavaClassGenerator(classGen.getClassName(), classGen.getSuperclassName(), classGen.getFileName()) {};
+		}
+
+		@Override
+		protected InstructionList compute() {
+			return generator.generateJavaBytecode(code);
+		}
+
+		/**
+		 * Moves the constants of the lowered code into the constant pool of the given
+		 * generator. They are added in the order of the private constant pool, that is,
+		 * in the order they were added during the lowering, and the instructions are
+		 * updated so that they refer to their new position.
+		 *
+		 * @param classGen the generator
+		 * @return the lowered code
+		 */
+
+		private InstructionList mergeInto(JavaClassGenerator classGen) {
+			ConstantPoolGen from = generator.getConstantPool();
+			int[] positions = new int[from.getSize()];
+
+			// longs and doubles leave an empty entry after them
+			for (int pos = 1; pos < positions.length; pos++) {
+				Constant constant = from.getConstant(pos);
+				if (constant != null)
+					positions[pos] = classGen.getConstantPool().addConstant(constant, from);
 			}
+
+			InstructionList il = join();
+			for (InstructionHandle handle: il.getInstructionHandles())
+				if (handle.getInstruction() instanceof CPInstruction) {
+					CPInstruction instruction = (CPInstruction) handle.getInstruction();
+					instruction.setIndex(positions[instruction.getIndex()]);
+				}
+
+			return il;
+		}
 	}
 
 	/**
-	 * Simplifies a piece of Java bytecode, by removing:
-	 * <ul>
-	 * <li> {@code nop} bytecodes
-	 * <li> {@code goto} bytecodes that jump to their subsequent program point
-	 * </ul>
-	 *
-	 * @param il the Java bytecode which must be simplified
-	 * @return the same Java bytecode, simplified as above
+	 * A generator of the Java bytecode of a piece of code. It first lays out its blocks
+	 * through a {@link BlockLayout} and then appends the code of each block to a single
+	 * list of instructions, followed by the <i>glue</i> towards its following blocks, such
+	 * as the conditional Java bytecode for the branching code blocks. A jump is omitted
+	 * if it goes to the block that comes next in the layout. Since the targets of the
+	 * jumps might not have been generated yet, they are set when the generation is over.
 	 */
 
-	private InstructionList removeRedundancies(InstructionList il) {
-		@SuppressWarnings("unchecked")
-		Iterator<InstructionHandle> it = il.iterator();
+	private class CodeGenerator {
 
-		while (it.hasNext()) {
-			InstructionHandle handle = it.next();
-			Instruction instruction = handle.getInstruction();
+		/**
+		 * The Java bytecode generated so far.
+		 */
 
-			if (instruction instanceof org.apache.bcel.generic.NOP ||
-					(instruction instanceof GOTO && ((GOTO) instruction).getTarget() == handle.getNext()))
-				try {
-					il.redirectBranches(handle, handle.getNext());
-					il.delete(handle);
-				}
-				catch (TargetLostException e) {
-					// impossible
+		private final InstructionList instructions = new InstructionList();
+
+		/**
+		 * The last instruction before the Java bytecode of each block generated so far.
+		 * It is {@code null} for a block whose code is at the beginning of {@link #instructions}.
+		 */
+
+		private final Map<Block, InstructionHandle> marks = new HashMap<>();
+
+		/**
+		 * The jumps to the blocks, generated so far.
+		 */
+
+		private final List<BranchInstruction> jumps = new ArrayList<>();
+
+		/**
+		 * The blocks where {@link #jumps} go, in the same order.
+		 */
+
+		private final List<Block> targets = new ArrayList<>();
+
+		/**
+		 * Generates the Java bytecode of the given block and of all blocks reachable from it.
+		 *
+		 * @param start the block
+		 * @return the Java bytecode
+		 */
+
+		private InstructionList generate(Block start) {
+			List<Block> layout = new BlockLayout(start).getBlocks();
+
+			for (int pos = 0; pos < layout.size(); pos++) {
+				Block block = layout.get(pos);
+				Block next = pos + 1 < layout.size() ? layout.get(pos + 1) : null;
+
+				// the code of the block starts after the instructions generated so far
+				marks.put(block, instructions.getEnd());
+				block.getBytecode().generateJavaBytecode(instructions, JavaClassGenerator.this);
+
+				List<Block> follows = block.getFollows();
+				if (follows.isEmpty())
+					continue;
+				else if (isBranching(block)) {
+					// we are facing a branch due to a comparison bytecode. That bytecode
+					// and its negation are at the beginning of our two following blocks
+
+					// we get the condition of the branching
+					BranchingBytecode condition = (BranchingBytecode) follows.get(0).getBytecode().getHead();
+
+					if (follows.get(0) == next)
+						// we fall through into the first follower and jump to
+						// the code for the second one if condition does not hold
+						jumpTo(condition.negate().generateJavaBytecode(instructions, JavaClassGenerator.this), follows.get(1));
+					else {
+						// we put some code that jumps to the code for the first follower
+						// if condition holds, and to the code for the second otherwise
+						jumpTo(condition.generateJavaBytecode(instructions, JavaClassGenerator.this), follows.get(0));
+						if (follows.get(1) != next)
+							jumpTo(follows.get(1));
+					}
 				}
+				else if (follows.get(0) != next)
+					// the code for the other followers, if any, is not generated
+					jumpTo(follows.get(0));
+			}
+
+			// the code of all blocks has been generated, hence the targets are known
+			for (int pos = 0; pos < jumps.size(); pos++) {
+				InstructionHandle mark = marks.get(targets.get(pos));
+				jumps.get(pos).setTarget(mark == null ? instructions.getStart() : mark.getNext());
+			}
+
+			for (int pos = 0; pos < jumpsToNext.size(); pos++)
+				jumpsToNext.get(pos).setTarget(jumpsToNextFrom.get(pos).getNext());
+
+			jumpsToNext.clear();
+			jumpsToNextFrom.clear();
+
+			if (PeepholeOptimizer.isEnabled())
+				return PeepholeOptimizer.optimize(instructions, getConstantPool());
+			else
+				return instructions;
+		}
+
+		/**
+		 * Adds a {@code goto} to the given block.
+		 *
+		 * @param target the block
+		 */
+
+		private void jumpTo(Block target) {
+			GOTO jump = new GOTO(null);
+			instructions.append(jump);
+			jumpTo(jump, target);
 		}
 
-		return il;
+		/**
+		 * Takes note that the given jump goes to the given block.
+		 *
+		 * @param jump the jump
+		 * @param target the block
+		 */
+
+		private void jumpTo(BranchInstruction jump, Block target) {
+			jumps.add(jump);
+			targets.add(target);
+		}
+
+		/**
+		 * Determines if the given block ends with a branch due to a comparison bytecode.
+		 *
+		 * @param block the block
+		 * @return true if and only if the first follower of {@code block} starts with a branching bytecode
+		 */
+
+		private boolean isBranching(Block block) {
+			return block.getFollows().get(0).getBytecode().getHead() instanceof BranchingBytecode;
+		}
 	}
-}
\ No newline at end of file
+}
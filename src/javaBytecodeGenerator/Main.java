@@ -1,6 +1,9 @@
 package javaBytecodeGenerator;
 
 import errorMsg.ErrorMsg;
+import optimization.Inlining;
+import optimization.PassManager;
+import semantical.ParallelFrontEnd;
 import types.ClassType;
 import translation.Program;
 
@@ -11,12 +14,62 @@ public class Main {
 			return;
 		}
 
+		// the options follow the name of the class: -parallel-front-end,
+		// -parallel-back-end or -parallel for both, the optimization
+		// level -O0, -O1 or -O2, -enable=pass or -disable=pass for each pass
+		// and -inline-budget=n for the maximal size of the inlined methods
+		boolean parallelFrontEnd = false, parallelBackEnd = false;
+		PassManager passes;
+
+		try {
+			int level = 0;
+			for (int pos = 1; pos < args.length; pos++)
+				if (args[pos].matches("-O\\d"))
+					level = Integer.parseInt(args[pos].substring(2));
+
+			passes = new PassManager(level);
+
+			// the Java bytecode is optimized from level 1
+			PeepholeOptimizer.setEnabled(level >= 1);
+
+			for (int pos = 1; pos < args.length; pos++)
+				if (args[pos].equals("-parallel"))
+					parallelFrontEnd = parallelBackEnd = true;
+				else if (args[pos].equals("-parallel-front-end"))
+					parallelFrontEnd = true;
+				else if (args[pos].equals("-parallel-back-end"))
+					parallelBackEnd = true;
+				else if (args[pos].matches("-O\\d"))
+					continue;
+				else if (args[pos].startsWith("-enable="))
+					passes.enable(args[pos].substring("-enable=".length()));
+				else if (args[pos].startsWith("-disable="))
+					passes.disable(args[pos].substring("-disable=".length()));
+				else if (args[pos].matches("-inline-budget=\\d+"))
+					Inlining.setBudget(Integer.parseInt(args[pos].substring("-inline-budget=".length())));
+				else
+					throw new IllegalArgumentException("Unknown option " + args[pos]);
+		}
+		catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+			return;
+		}
+
 		long totalTime = System.currentTimeMillis();
 
 		// we build the class type for the file name passed as a parameter.
-		// This triggers type-checking of that class and of all classes referenced from it
+		// This triggers type-checking of that class and of all classes referenced from it.
+		// With the -parallel-front-end option, classes are parsed and type-checked on all processors
 		long time = System.currentTimeMillis();
-		ClassType clazz = ClassType.mkFromFileName(args[0]);
+		ClassType clazz;
+		if (parallelFrontEnd) {
+			ParallelFrontEnd frontEnd = new ParallelFrontEnd();
+			clazz = frontEnd.mkFromFileName(args[0]);
+			frontEnd.shutdown();
+		}
+		else
+			clazz = ClassType.mkFromFileName(args[0]);
+
 		ErrorMsg errorMsg = clazz.getErrorMsg();
 		System.out.println("Parsing and type-checking completed     \t[" + (System.currentTimeMillis() - time) + "ms]");
 
@@ -29,6 +82,12 @@ public class Main {
 
 			System.out.println("Translation into Kitten bytecode completed \t[" + (System.currentTimeMillis() - time) + "ms]");
 
+			// we optimize the Kitten bytecode with the passes of the optimization level
+			time = System.currentTimeMillis();
+			passes.run(program);
+
+			System.out.println("Optimization of Kitten bytecode completed \t[" + (System.currentTimeMillis() - time) + "ms]");
+
 			time = System.currentTimeMillis();
 			program.dumpCodeDot();
 
@@ -36,8 +95,20 @@ public class Main {
 
 			// we translate, into Java bytecode, the Kitten code of every class member which
 		    // is reachable from the class we translated. This also generates the class files
-		    program.generateJavaBytecode();
-		    program.generateJavaBytecodeForTest();
+		    // With the -parallel-back-end option, classes are generated on all processors
+		    if (parallelBackEnd) {
+		    	ParallelBackEnd backEnd = new ParallelBackEnd();
+		    	program.generateJavaBytecode(backEnd);
+		    	program.generateJavaBytecodeForTest(backEnd);
+		    	backEnd.shutdown();
+		    }
+		    else {
+		    	program.generateJavaBytecode();
+		    	program.generateJavaBytecodeForTest();
+		    }
+
+		    if (PeepholeOptimizer.isEnabled())
+		    	System.out.println(PeepholeOptimizer.getStatistics());
 
 		    System.out.println("Java bytecode generation completed       \t[" + (System.currentTimeMillis() - time) + "ms]");
 		}
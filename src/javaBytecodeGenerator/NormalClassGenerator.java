@@ -1,7 +1,11 @@
 package javaBytecodeGenerator;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
+import translation.Block;
+
 import types.ClassMemberSignature;
 import types.ClassType;
 import types.ConstructorSignature;
@@ -33,6 +37,23 @@ public class NormalClassGenerator extends JavaClassGenerator {
 			clazz.getName() + ".kit" // source file
 			);
 
+		// a class without subclasses lets the Java virtual machine bind its methods statically
+		if (clazz.isFinal())
+			isFinal(true);
+
+		// inside a fork-join pool, the constructors and methods are lowered in parallel
+		List<Block> codes = new ArrayList<>();
+		for (ConstructorSignature constructor: clazz.getConstructors())
+			if (sigs.contains(constructor))
+				codes.add(constructor.getCode());
+
+		for (Set<MethodSignature> s: clazz.getMethods().values())
+			for (MethodSignature method: s)
+				if (sigs.contains(method))
+					codes.add(method.getCode());
+
+		lowerInParallel(codes);
+
 		// we add the fields
 		for (FieldSignature field: clazz.getFields().values())
 			if (sigs.contains(field))
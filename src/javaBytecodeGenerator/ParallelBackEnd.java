@@ -0,0 +1,197 @@
+package javaBytecodeGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import translation.Program;
+import types.ClassMemberSignature;
+import types.ClassType;
+
+/**
+ * A back-end that generates the Java bytecode of a Kitten program on more
+ * threads. Each class is generated and serialized by a task and, inside each
+ * class, the constructors and methods are lowered in parallel, each with a private
+ * constant pool, whose constants are later merged into that of the class
+ * (see {@link JavaClassGenerator#lowerInParallel(List)}). The bytes of
+ * the classes are the same generated by a sequential back-end.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class ParallelBackEnd {
+
+	/**
+	 * The pool of threads used for the generation.
+	 */
+
+	private final ForkJoinPool pool;
+
+	/**
+	 * Builds a back-end that uses all available processors.
+	 */
+
+	public ParallelBackEnd() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Builds a back-end that uses the given number of threads.
+	 *
+	 * @param parallelism the number of threads
+	 */
+
+	public ParallelBackEnd(int parallelism) {
+		this.pool = new ForkJoinPool(parallelism);
+	}
+
+	/**
+	 * Generates the Java bytecode of the given classes, in parallel.
+	 *
+	 * @param classes the classes
+	 * @param sigs the class member signatures that must be translated
+	 * @param tests true if and only if the test classes of {@code classes} must be generated
+	 * @return the bytes of the Java classes, in the same order as {@code classes}
+	 */
+
+	@SuppressWarnings("serial")
+	public List<byte[]> generate(final List<ClassType> classes, final Set<ClassMemberSignature> sigs, final boolean tests) {
+		return pool.invoke(new RecursiveTask<List<byte[]>>() {
+
+			@Override
+			protected List<byte[]> compute() {
+				List<GenerationTask> subtasks = new ArrayList<>();
+				for (ClassType clazz: classes)
+					subtasks.add(new GenerationTask(clazz, sigs, tests));
+
+				invokeAll(subtasks);
+
+				List<byte[]> result = new ArrayList<>();
+				for (GenerationTask subtask: subtasks)
+					result.add(subtask.join());
+
+				return result;
+			}
+		});
+	}
+
+	/**
+	 * Shuts down the threads of this back-end.
+	 */
+
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * A task that generates and serializes the Java bytecode of a class.
+	 */
+
+	@SuppressWarnings("serial")
+	private static class GenerationTask extends RecursiveTask<byte[]> {
+
+		/**
+		 * The class.
+		 */
+
+		private final ClassType clazz;
+
+		/**
+		 * The class member signatures that must be translated.
+		 */
+
+		private final Set<ClassMemberSignature> sigs;
+
+		/**
+		 * True if and only if the test class of {@link #clazz} must be generated.
+		 */
+
+		private final boolean test;
+
+		private GenerationTask(ClassType clazz, Set<ClassMemberSignature> sigs, boolean test) {
+			this.clazz = clazz;
+			this.sigs = sigs;
+			this.test = test;
+		}
+
+		@Override
+		protected byte[] compute() {
+			JavaClassGenerator generator = test ? new TestClassGenerator(clazz, sigs) : new NormalClassGenerator(clazz, sigs);
+			return generator.getJavaClass().getBytes();
+		}
+	}
+
+	/**
+	 * Translates the given file and generates its Java bytecode with an increasing
+	 * number of threads, up to the number of available processors. It reports
+	 * the time and speedup with respect to a sequential generation and checks
+	 * that the generated bytes are the same. No class file is written.
+	 *
+	 * @param args the name of the file to compile and, optionally, the
+	 *             number of repetitions for each number of threads
+	 */
+
+	public static void main(String[] args) {
+		if (args.length == 0) {
+			System.out.println("You must specify a Kitten class name to compile");
+			return;
+		}
+
+		int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		ClassType main = ClassType.mkFromFileName(args[0]);
+		if (main.getErrorMsg() == null || main.getErrorMsg().anyErrors())
+			return;
+
+		Program program = main.translate();
+
+		List<ClassType> classes = new ArrayList<>(ClassType.getAll());
+		List<ClassType> tested = new ArrayList<>();
+		for (ClassType clazz: classes)
+			if (!clazz.getTests().isEmpty())
+				tested.add(clazz);
+
+		// the reference bytes are generated one class at a time, on this thread
+		List<byte[]> expected = new ArrayList<>();
+		long sequential = Long.MAX_VALUE;
+
+		for (int i = 0; i < repetitions; i++) {
+			expected.clear();
+			long time = System.nanoTime();
+			for (ClassType clazz: classes)
+				expected.add(new NormalClassGenerator(clazz, program.getSigs()).getJavaClass().getBytes());
+			for (ClassType clazz: tested)
+				expected.add(new TestClassGenerator(clazz, program.getSigs()).getJavaClass().getBytes());
+			sequential = Math.min(sequential, System.nanoTime() - time);
+		}
+
+		System.out.printf("sequential\t[%.2fms]%n", sequential / 1e6);
+
+		int processors = Runtime.getRuntime().availableProcessors();
+		for (int threads = 1; ; threads = Math.min(threads * 2, processors)) {
+			ParallelBackEnd backEnd = new ParallelBackEnd(threads);
+			long best = Long.MAX_VALUE;
+			boolean identical = true;
+
+			for (int i = 0; i < repetitions; i++) {
+				long time = System.nanoTime();
+				List<byte[]> generated = backEnd.generate(classes, program.getSigs(), false);
+				generated.addAll(backEnd.generate(tested, program.getSigs(), true));
+				best = Math.min(best, System.nanoTime() - time);
+
+				for (int pos = 0; pos < expected.size(); pos++)
+					identical &= Arrays.equals(expected.get(pos), generated.get(pos));
+			}
+
+			backEnd.shutdown();
+
+			System.out.printf("%d thread(s)\t[%.2fms]\tspeedup %.2f\t%s%n", threads, best / 1e6,
+				(double) sequential / best, identical ? "identical bytes" : "DIFFERENT BYTES");
+
+			if (threads == processors)
+				break;
+		}
+	}
+}
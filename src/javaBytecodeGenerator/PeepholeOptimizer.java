@@ -0,0 +1,394 @@
+package javaBytecodeGenerator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.bcel.generic.ACONST_NULL;
+import org.apache.bcel.generic.BIPUSH;
+import org.apache.bcel.generic.BranchInstruction;
+import org.apache.bcel.generic.CHECKCAST;
+import org.apache.bcel.generic.ConstantPoolGen;
+import org.apache.bcel.generic.DUP;
+import org.apache.bcel.generic.FieldInstruction;
+import org.apache.bcel.generic.GETFIELD;
+import org.apache.bcel.generic.GETSTATIC;
+import org.apache.bcel.generic.IADD;
+import org.apache.bcel.generic.ICONST;
+import org.apache.bcel.generic.IFEQ;
+import org.apache.bcel.generic.IFGE;
+import org.apache.bcel.generic.IFGT;
+import org.apache.bcel.generic.IFLE;
+import org.apache.bcel.generic.IFLT;
+import org.apache.bcel.generic.IFNE;
+import org.apache.bcel.generic.IFNONNULL;
+import org.apache.bcel.generic.IFNULL;
+import org.apache.bcel.generic.IF_ACMPEQ;
+import org.apache.bcel.generic.IF_ACMPNE;
+import org.apache.bcel.generic.IF_ICMPEQ;
+import org.apache.bcel.generic.IF_ICMPGE;
+import org.apache.bcel.generic.IF_ICMPGT;
+import org.apache.bcel.generic.IF_ICMPLE;
+import org.apache.bcel.generic.IF_ICMPLT;
+import org.apache.bcel.generic.IF_ICMPNE;
+import org.apache.bcel.generic.IINC;
+import org.apache.bcel.generic.ILOAD;
+import org.apache.bcel.generic.ISTORE;
+import org.apache.bcel.generic.ISUB;
+import org.apache.bcel.generic.IfInstruction;
+import org.apache.bcel.generic.Instruction;
+import org.apache.bcel.generic.InstructionHandle;
+import org.apache.bcel.generic.InstructionList;
+import org.apache.bcel.generic.InvokeInstruction;
+import org.apache.bcel.generic.POP;
+import org.apache.bcel.generic.SIPUSH;
+
+/**
+ * A peephole optimizer of the Java bytecode generated for a piece of code.
+ * It slides over the instructions and tries, at each of them, the patterns
+ * of a table. A pattern matches a short sequence of consecutive instructions
+ * and yields a cheaper sequence that replaces it. The instructions of a
+ * sequence, but the first, cannot be the target of a jump, since they
+ * would disappear. The optimizer is applied again until no pattern matches.
+ * The number of times that each pattern has been applied is counted,
+ * also across more threads. There is no pattern that forwards a stored value
+ * to a load of the same variable, such as {@code istore x; iload x -> dup; istore x},
+ * since both sequences have the same size and the same cost for the Java
+ * virtual machine, hence the rewriting would only inflate the statistics.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class PeepholeOptimizer {
+
+	/**
+	 * True if and only if the optimizer is applied to the generated Java bytecode.
+	 */
+
+	private static volatile boolean enabled;
+
+	/**
+	 * The patterns tried by the optimizer, in order.
+	 */
+
+	private final static Pattern[] PATTERNS = {
+
+		// iload x; iconst c; iadd; istore x -> iinc x c (also with isub)
+		new Pattern("increments", 4) {
+
+			@Override
+			protected Instruction[] rewrite(Instruction[] window, ConstantPoolGen cpg) {
+				if (window[0] instanceof ILOAD && window[3] instanceof ISTORE
+						&& ((ILOAD) window[0]).getIndex() == ((ISTORE) window[3]).getIndex()
+						&& isIntConstant(window[1])) {
+
+					int increment = intConstant(window[1]);
+					if (window[2] instanceof ISUB)
+						increment = -increment;
+					else if (!(window[2] instanceof IADD))
+						return null;
+
+					if (increment >= Short.MIN_VALUE && increment <= Short.MAX_VALUE)
+						return new Instruction[] { new IINC(((ILOAD) window[0]).getIndex(), increment) };
+				}
+
+				return null;
+			}
+		},
+
+		// dup; pop -> nothing
+		new Pattern("dup/pop removals", 2) {
+
+			@Override
+			protected Instruction[] rewrite(Instruction[] window, ConstantPoolGen cpg) {
+				if (window[0] instanceof DUP && window[1] instanceof POP)
+					return new Instruction[0];
+				else
+					return null;
+			}
+		},
+
+		// iconst 0; if_icmpxx -> ifxx and aconst_null; if_acmpxx -> ifnull or ifnonnull
+		new Pattern("comparisons with zero", 2) {
+
+			@Override
+			protected Instruction[] rewrite(Instruction[] window, ConstantPoolGen cpg) {
+				if (!(window[1] instanceof IfInstruction))
+					return null;
+
+				InstructionHandle target = ((IfInstruction) window[1]).getTarget();
+
+				if (isIntConstant(window[0]) && intConstant(window[0]) == 0) {
+					if (window[1] instanceof IF_ICMPEQ)
+						return new Instruction[] { new IFEQ(target) };
+					else if (window[1] instanceof IF_ICMPNE)
+						return new Instruction[] { new IFNE(target) };
+					else if (window[1] instanceof IF_ICMPLT)
+						return new Instruction[] { new IFLT(target) };
+					else if (window[1] instanceof IF_ICMPGE)
+						return new Instruction[] { new IFGE(target) };
+					else if (window[1] instanceof IF_ICMPGT)
+						return new Instruction[] { new IFGT(target) };
+					else if (window[1] instanceof IF_ICMPLE)
+						return new Instruction[] { new IFLE(target) };
+				}
+				else if (window[0] instanceof ACONST_NULL) {
+					if (window[1] instanceof IF_ACMPEQ)
+						return new Instruction[] { new IFNULL(target) };
+					else if (window[1] instanceof IF_ACMPNE)
+						return new Instruction[] { new IFNONNULL(target) };
+				}
+
+				return null;
+			}
+		},
+
+		// a checkcast of a value that is null or already has the same static type is removed.
+		// Only the instructions that read a field push a value of its type
+		new Pattern("redundant checkcasts", 2) {
+
+			@Override
+			protected Instruction[] rewrite(Instruction[] window, ConstantPoolGen cpg) {
+				if (!(window[1] instanceof CHECKCAST))
+					return null;
+
+				org.apache.bcel.generic.Type type = ((CHECKCAST) window[1]).getType(cpg);
+
+				if (window[0] instanceof ACONST_NULL
+						|| (window[0] instanceof CHECKCAST && ((CHECKCAST) window[0]).getType(cpg).equals(type))
+						|| ((window[0] instanceof GETFIELD || window[0] instanceof GETSTATIC)
+							&& ((FieldInstruction) window[0]).getFieldType(cpg).equals(type))
+						|| (window[0] instanceof InvokeInstruction && ((InvokeInstruction) window[0]).getReturnType(cpg).equals(type)))
+					return new Instruction[] { window[0] };
+				else
+					return null;
+			}
+		}
+	};
+
+	private PeepholeOptimizer() {}
+
+	/**
+	 * Determines if the optimizer is applied to the generated Java bytecode.
+	 *
+	 * @return true if and only if the optimizer is applied
+	 */
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Determines if the optimizer must be applied to the generated Java bytecode.
+	 *
+	 * @param enabled true if and only if the optimizer must be applied
+	 */
+
+	public static void setEnabled(boolean enabled) {
+		PeepholeOptimizer.enabled = enabled;
+	}
+
+	/**
+	 * Yields a description of the number of times that each pattern has been applied so far.
+	 *
+	 * @return the description
+	 */
+
+	public static String getStatistics() {
+		String result = "";
+		for (Pattern pattern: PATTERNS)
+			result += (result.isEmpty() ? "" : ", ") + pattern.hits + " " + pattern.name;
+
+		return "Peephole optimization: " + result;
+	}
+
+	/**
+	 * Optimizes the given Java bytecode. The optimized code is copied into
+	 * a new list, since deleting instructions from a list lets BCEL recycle
+	 * their handles through a pool that is shared by all threads, without synchronization.
+	 *
+	 * @param il the Java bytecode, whose jumps must have their target already set
+	 * @param cpg the constant pool used by {@code il}
+	 * @return the optimized Java bytecode. This is {@code il} itself if no pattern matched
+	 */
+
+	public static InstructionList optimize(InstructionList il, ConstantPoolGen cpg) {
+		InstructionList optimized;
+		while ((optimized = optimizeOnce(il, cpg)) != il)
+			il = optimized;
+
+		return il;
+	}
+
+	/**
+	 * Slides once over the given Java bytecode, applying the patterns.
+	 *
+	 * @param il the Java bytecode
+	 * @param cpg the constant pool used by {@code il}
+	 * @return the optimized Java bytecode. This is {@code il} itself if no pattern matched
+	 */
+
+	private static InstructionList optimizeOnce(InstructionList il, ConstantPoolGen cpg) {
+		InstructionHandle[] handles = il.getInstructionHandles();
+		InstructionList result = new InstructionList();
+		Map<InstructionHandle, InstructionHandle> copies = new HashMap<>();
+		List<BranchInstruction> branches = new ArrayList<>();
+
+		// the instructions that have been replaced by nothing and are mapped into the next copied one
+		List<InstructionHandle> pending = new ArrayList<>();
+		boolean modified = false;
+
+		for (int pos = 0; pos < handles.length; ) {
+			Instruction[] replacement = null;
+			int length = 1;
+
+			for (Pattern pattern: PATTERNS)
+				if ((replacement = pattern.apply(handles, pos, cpg)) != null) {
+					length = pattern.length;
+					break;
+				}
+
+			if (replacement == null)
+				replacement = new Instruction[] { handles[pos].getInstruction() };
+			else
+				modified = true;
+
+			// the jumps to the first instruction of the sequence go to its replacement
+			pending.add(handles[pos]);
+
+			for (Instruction instruction: replacement) {
+				InstructionHandle copy;
+				if (instruction instanceof BranchInstruction) {
+					copy = result.append((BranchInstruction) instruction);
+					branches.add((BranchInstruction) instruction);
+				}
+				else
+					copy = result.append(instruction);
+
+				for (InstructionHandle handle: pending)
+					copies.put(handle, copy);
+
+				pending.clear();
+			}
+
+			pos += length;
+		}
+
+		if (!modified)
+			return il;
+
+		// the jumps are moved to the copies of their targets
+		for (BranchInstruction branch: branches)
+			branch.setTarget(copies.get(branch.getTarget()));
+
+		return result;
+	}
+
+	/**
+	 * Determines if the given instruction pushes an integer constant.
+	 *
+	 * @param instruction the instruction
+	 * @return true if and only if {@code instruction} pushes an integer constant
+	 */
+
+	private static boolean isIntConstant(Instruction instruction) {
+		return instruction instanceof ICONST || instruction instanceof BIPUSH || instruction instanceof SIPUSH;
+	}
+
+	/**
+	 * Yields the integer constant pushed by the given instruction.
+	 *
+	 * @param instruction the instruction, that must satisfy {@link #isIntConstant(Instruction)}
+	 * @return the constant
+	 */
+
+	private static int intConstant(Instruction instruction) {
+		if (instruction instanceof ICONST)
+			return ((ICONST) instruction).getValue().intValue();
+		else if (instruction instanceof BIPUSH)
+			return ((BIPUSH) instruction).getValue().intValue();
+		else
+			return ((SIPUSH) instruction).getValue().intValue();
+	}
+
+	/**
+	 * A pattern of the peephole optimizer, that rewrites a sequence
+	 * of consecutive instructions of a given length.
+	 */
+
+	private abstract static class Pattern {
+
+		/**
+		 * The name of the pattern, used in the statistics.
+		 */
+
+		private final String name;
+
+		/**
+		 * The number of instructions rewritten by the pattern.
+		 */
+
+		private final int length;
+
+		/**
+		 * The number of times that the pattern has been applied.
+		 */
+
+		private final AtomicInteger hits = new AtomicInteger();
+
+		/**
+		 * Builds a pattern.
+		 *
+		 * @param name the name of the pattern, used in the statistics
+		 * @param length the number of instructions rewritten by the pattern
+		 */
+
+		private Pattern(String name, int length) {
+			this.name = name;
+			this.length = length;
+		}
+
+		/**
+		 * Applies this pattern to the instructions from the given position.
+		 *
+		 * @param handles the instructions
+		 * @param pos the position
+		 * @param cpg the constant pool used by the instructions
+		 * @return the instructions that replace the {@link #length} instructions from
+		 *         {@code pos}, or {@code null} if the pattern does not match there
+		 */
+
+		private Instruction[] apply(InstructionHandle[] handles, int pos, ConstantPoolGen cpg) {
+			if (pos + length > handles.length)
+				return null;
+
+			Instruction[] window = new Instruction[length];
+			for (int cursor = 0; cursor < length; cursor++) {
+				// only the first instruction of the sequence can be the target of a jump
+				if (cursor > 0 && handles[pos + cursor].hasTargeters())
+					return null;
+
+				window[cursor] = handles[pos + cursor].getInstruction();
+			}
+
+			Instruction[] replacement = rewrite(window, cpg);
+			if (replacement != null)
+				hits.incrementAndGet();
+
+			return replacement;
+		}
+
+		/**
+		 * Rewrites a sequence of instructions.
+		 *
+		 * @param window the {@link #length} instructions
+		 * @param cpg the constant pool used by the instructions
+		 * @return the instructions that replace {@code window}, or {@code null}
+		 *         if this pattern does not match {@code window}
+		 */
+
+		protected abstract Instruction[] rewrite(Instruction[] window, ConstantPoolGen cpg);
+	}
+}
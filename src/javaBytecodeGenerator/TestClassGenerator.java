@@ -1,5 +1,7 @@
 package javaBytecodeGenerator;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.bcel.Constants;
@@ -44,6 +46,16 @@ public class TestClassGenerator extends JavaClassGenerator {
 				);
 
 		this.clazz = clazz;
+
+		// inside a fork-join pool, the fixtures and the tests are lowered in parallel
+		List<Block> codes = new ArrayList<>();
+		for (FixtureSignature fix: clazz.getFixtures())
+			codes.add(fix.getCode());
+		for (TestSignature test: clazz.getTests())
+			codes.add(test.getCode());
+
+		lowerInParallel(codes);
+
 		// we add the tests
 		for (FixtureSignature fix: clazz.getFixtures())
 			fix.createFixture(this);
@@ -266,7 +278,7 @@ public class TestClassGenerator extends JavaClassGenerator {
 			//			obj
 			il.append(getFactory().createInvoke(
 					this.clazz.getName() + "Test", 
-					fixture.getName(), 
+					fixture.getName().toString(), 
 					org.apache.bcel.generic.Type.VOID, 
 					new org.apache.bcel.generic.Type[]{clazz.toBCEL()},
 					org.apache.bcel.Constants.INVOKESTATIC
@@ -276,7 +288,7 @@ public class TestClassGenerator extends JavaClassGenerator {
 		// chiamo il test
 		il.append(getFactory().createInvoke(
 				this.clazz.getName() + "Test", 
-				test.getName(), 
+				test.getName().toString(), 
 				new org.apache.bcel.generic.ObjectType(runTime.String.class.getName()),
 				new org.apache.bcel.generic.Type[]{clazz.toBCEL()},
 				org.apache.bcel.Constants.INVOKESTATIC
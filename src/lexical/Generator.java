@@ -1,6 +1,10 @@
 package lexical;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import JLex.CLexGen;
 
@@ -8,5 +12,30 @@ public class Generator {
 
 	public static void main(String[] args) throws IOException {
 		new CLexGen("resources/Kitten.lex", "src/lexical/Lexer").generate();
+
+		shareTables(Paths.get("src/lexical/Lexer.java"));
+	}
+
+	/**
+	 * Rewrites the lexical analyser generated by JLex so that its constants
+	 * and its transition tables are static. JLex unpacks the tables inside
+	 * every new lexer, while this way they are unpacked once and shared by
+	 * all lexers of the same Java virtual machine.
+	 *
+	 * @param lexer the source of the generated lexical analyser
+	 * @throws IOException if the source cannot be read or written
+	 */
+
+	private static void shareTables(Path lexer) throws IOException {
+		Charset charset = Charset.defaultCharset();
+		String source = new String(Files.readAllBytes(lexer), charset);
+
+		source = source
+			.replaceAll("(?m)^\tprivate final int (\\w+(\\[\\])?) = ", "\tprivate static final int $1 = ")
+			.replaceAll("(?m)^\tprivate int (yy_acpt|yy_cmap|yy_rmap|yy_nxt)((\\[\\])+) = ", "\tprivate static final int $1$2 = ")
+			.replaceAll("(?m)^\tprivate java.lang.String yy_error_string\\[\\] = ", "\tprivate static final java.lang.String yy_error_string[] = ")
+			.replaceAll("(?m)^\tprivate int\\[\\]\\[\\] unpackFromString\\(", "\tprivate static int[][] unpackFromString(");
+
+		Files.write(lexer, source.getBytes(charset));
 	}
-}
\ No newline at end of file
+}
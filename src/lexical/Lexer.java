@@ -9,22 +9,30 @@ package lexical;
  * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
  */
 import java.io.FileInputStream;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Paths;
 import errorMsg.ErrorMsg;
 import syntactical.sym;
+import tables.Symbol;
 @SuppressWarnings("unused")
 public
 
 
 class Lexer {
-	private final int YY_BUFFER_SIZE = 512;
-	private final int YY_F = -1;
-	private final int YY_NO_STATE = -1;
-	private final int YY_NOT_ACCEPT = 0;
-	private final int YY_START = 1;
-	private final int YY_END = 2;
-	private final int YY_NO_ANCHOR = 4;
-	private final int YY_BOL = 128;
-	private final int YY_EOF = 129;
+	private static final int YY_BUFFER_SIZE = 512;
+	private static final int YY_F = -1;
+	private static final int YY_NO_STATE = -1;
+	private static final int YY_NOT_ACCEPT = 0;
+	private static final int YY_START = 1;
+	private static final int YY_END = 2;
+	private static final int YY_NO_ANCHOR = 4;
+	private static final int YY_BOL = 128;
+	private static final int YY_EOF = 129;
 
 /**
  *
@@ -67,7 +75,114 @@ private void err(String msg) {
  *
  */
 private java_cup.runtime.Symbol tok(int kind, Object value) {
+  if (packed == null)
     return new java_cup.runtime.Symbol(kind, yychar, yychar + yylength(), value);
+  if (value == null)
+    packed.add(kind, yychar, yychar + yylength(), 0);
+  else
+    packed.add(kind, yychar, yychar + yylength(), value);
+  packedToken.sym = kind;
+  return packedToken;
+}
+/**
+ *
+ * Creates a token of a given kind and with a given integer lexical value.
+ * The value is boxed only if the tokens are not being packed
+ *
+ * @param kind the kind of token to be created, as enumerated in
+ *             {@code syntactical/sym.java}
+ * @param value the lexical value associated with the token
+ *
+ */
+private java_cup.runtime.Symbol tok(int kind, int value) {
+  if (packed == null)
+    return tok(kind, Integer.valueOf(value));
+  packed.add(kind, yychar, yychar + yylength(), value);
+  packedToken.sym = kind;
+  return packedToken;
+}
+/**
+ *
+ * Creates a token of a given kind and with a given floating-point lexical value.
+ * The value is boxed only if the tokens are not being packed
+ *
+ * @param kind the kind of token to be created, as enumerated in
+ *             {@code syntactical/sym.java}
+ * @param value the lexical value associated with the token
+ *
+ */
+private java_cup.runtime.Symbol tok(int kind, float value) {
+  if (packed == null)
+    return tok(kind, Float.valueOf(value));
+  packed.add(kind, yychar, yychar + yylength(), Float.floatToIntBits(value));
+  packedToken.sym = kind;
+  return packedToken;
+}
+/**
+ *
+ * Creates a token for the identifier just matched. Its lexical value is the
+ * symbol of the identifier. When tokens are being packed, a string is built
+ * only for the first occurrence of each identifier
+ *
+ */
+private java_cup.runtime.Symbol identifier() {
+  if (packed == null)
+    return tok(sym.ID, Symbol.mk(yytext()));
+  packed.addIdentifier(yychar, yychar + yylength(), yy_buffer, yy_buffer_start);
+  packedToken.sym = sym.ID;
+  return packedToken;
+}
+/**
+ *
+ * Yields the value of the integer literal just matched, without
+ * building a string for it
+ *
+ * @return the value of the literal
+ * @throws NumberFormatException if the literal does not fit into an {@code int}
+ *
+ */
+private int intValue() {
+  int value = 0;
+  for (int pos = yy_buffer_start; pos < yy_buffer_end; pos++) {
+    int digit = yy_buffer[pos] - '0';
+    if (value > (Integer.MAX_VALUE - digit) / 10)
+      throw new NumberFormatException("For input string: \"" + yytext() + "\"");
+    value = value * 10 + digit;
+  }
+  return value;
+}
+/**
+ *
+ * The stream where tokens are packed during {@link #tokenize()}.
+ * It is {@code null} otherwise
+ *
+ */
+private TokenStream packed;
+/**
+ *
+ * The symbol returned for every token while they are packed
+ *
+ */
+private java_cup.runtime.Symbol packedToken;
+/**
+ * Tokenises the whole source, packing its tokens into arrays of primitive
+ * values, up to and including the end of file. No symbol is allocated for the tokens.
+ * The stream can be later fed to a parser through {@link TokenStream#replay()}.
+ *
+ * @return the tokens of the source
+ * @throws java.io.IOException if the source cannot be read
+ */
+public TokenStream tokenize() throws java.io.IOException {
+  // we guess about six characters per token, if the source is already in memory
+  packed = new TokenStream(errorMsg, yy_buffer_read / 6);
+  packedToken = new java_cup.runtime.Symbol(sym.EOF);
+  try {
+    while (nextToken().sym != sym.EOF);
+    return packed;
+  }
+  finally {
+    packed = null;
+  }
 }
 /**
  *
@@ -83,6 +198,16 @@ private ErrorMsg errorMsg;
 public ErrorMsg getErrorMsg() {
   return errorMsg;
 }
+/**
+ * Creates a lexical analyser that does not scan any source by itself.
+ * It is used for lexical analysers that provide tokens from elsewhere.
+ *
+ * @param errorMsg the error reporting utility for the tokens
+ */
+protected Lexer(ErrorMsg errorMsg) {
+  this();
+  this.errorMsg = errorMsg;
+}
 /**
  * Creates a lexical analyser for a given class name.
  *
@@ -92,9 +217,63 @@ public ErrorMsg getErrorMsg() {
  */
 public Lexer(String fileName) throws java.io.FileNotFoundException {
   this();
-  String className = fileName.endsWith(".kit") ? fileName.substring(0, fileName.length() - 4) : fileName;
-  fileName = className + ".kit";
-  errorMsg = new ErrorMsg(fileName);
+  errorMsg = new ErrorMsg(fileName = sourceFileName(fileName));
+  yy_reader = open(fileName);
+}
+/**
+ * Creates a lexical analyser for a given class name, that scans the source
+ * file directly from memory. The file is mapped into memory and decoded
+ * in one pass into a buffer of characters, that is then scanned without
+ * further copies. No reader is opened. The buffer is taken from a pool of
+ * the current thread and given back when the end of file is reached,
+ * so that lexers that run one after the other reuse the same buffer.
+ *
+ * @param fileName the name of the file to be lexically analysed
+ *                 (with the trailing {@code .kit})
+ * @param mapped true if the file must be mapped into memory, false if it must
+ *               be read through a stream, as for {@link #Lexer(String)}
+ * @throws java.io.IOException if the source file cannot be found or read
+ */
+public Lexer(String fileName, boolean mapped) throws java.io.IOException {
+  this();
+  errorMsg = new ErrorMsg(fileName = sourceFileName(fileName));
+  if (!mapped)
+    yy_reader = open(fileName);
+  else
+    try (FileChannel channel = FileChannel.open(Paths.get(fileName))) {
+      MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      CharsetDecoder decoder = Charset.defaultCharset().newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+      // we leave room for the end of file after the decoded characters
+      CharBuffer chars = borrow((int) (bytes.remaining() * decoder.maxCharsPerByte()) + 1);
+      decoder.decode(bytes, chars, true);
+      decoder.flush(chars);
+      chars.flip();
+      scanFrom(chars);
+    }
+    catch (java.nio.file.NoSuchFileException e) {
+      errorMsg.error(-1, "Cannot find \"" + fileName + "\"");
+      throw new java.io.FileNotFoundException(fileName);
+    }
+}
+/**
+ * Yields the name of the source file of a given class name.
+ *
+ * @param fileName the name of the class, with or without the trailing {@code .kit}
+ * @return the name of the source file, with the trailing {@code .kit}
+ */
+private static String sourceFileName(String fileName) {
+  return fileName.endsWith(".kit") ? fileName : fileName + ".kit";
+}
+/**
+ * Opens a reader for the given source file.
+ *
+ * @param fileName the name of the source file
+ * @return the reader
+ * @throws java.io.FileNotFoundException if the source file cannot be found
+ */
+private java.io.BufferedReader open(String fileName) throws java.io.FileNotFoundException {
   FileInputStream inp;
   try {
     inp = new FileInputStream(fileName);
@@ -103,7 +282,94 @@ public Lexer(String fileName) throws java.io.FileNotFoundException {
     errorMsg.error(-1, "Cannot find \"" + fileName + "\"");
     throw e;
   }
-  yy_reader = new java.io.BufferedReader(new java.io.InputStreamReader(inp));
+  return new java.io.BufferedReader(new java.io.InputStreamReader(inp));
+}
+/**
+ * The maximal number of characters of a buffer kept in the pool, so that
+ * the pool does not hold the characters of huge sources forever.
+ */
+private final static int MAX_POOLED = 1 << 20;
+/**
+ * The pool of the buffers of characters of the lexers of mapped sources.
+ * It holds at most one buffer for each thread, currently unused.
+ */
+private final static ThreadLocal<CharBuffer> pool = new ThreadLocal<>();
+/**
+ * The buffer taken from the pool by this lexer, if any. It is given back
+ * to the pool when the end of file is reached.
+ */
+private CharBuffer borrowed;
+/**
+ * Takes from the pool of the current thread an empty buffer of characters,
+ * or creates a new one if the pool is empty or its buffer is too small.
+ *
+ * @param capacity the minimal number of characters of the buffer
+ * @return the buffer
+ */
+private CharBuffer borrow(int capacity) {
+  CharBuffer chars = pool.get();
+  if (chars == null || chars.capacity() < capacity)
+    chars = CharBuffer.allocate(capacity);
+  else {
+    // the buffer cannot be used by another lexer until it is given back
+    pool.remove();
+    chars.clear();
+  }
+  return borrowed = chars;
+}
+/**
+ * Gives back to the pool of the current thread the buffer taken by this lexer,
+ * if any. This lexer does not scan that buffer anymore.
+ */
+private void giveBack() {
+  if (borrowed != null) {
+    if (borrowed.capacity() <= MAX_POOLED)
+      pool.set(borrowed);
+    borrowed = null;
+    yy_buffer = new char[1];
+    yy_buffer_index = yy_buffer_read = yy_buffer_start = yy_buffer_end = 0;
+  }
+}
+/**
+ * Creates a lexical analyser for a source held in memory.
+ *
+ * @param source the source to be lexically analysed
+ * @param fileName the name used to report errors in {@code source}
+ *                 (with the trailing {@code .kit})
+ */
+public Lexer(CharSequence source, String fileName) {
+  this();
+  errorMsg = new ErrorMsg(fileName);
+  scanFrom(CharBuffer.wrap(source));
+}
+/**
+ * Creates a lexical analyser for a source held in memory.
+ * Errors are reported as occurring in a file named {@code source.kit}.
+ *
+ * @param source the source to be lexically analysed
+ */
+public Lexer(CharSequence source) {
+  this(source, "source.kit");
+}
+/**
+ * Lets this lexical analyser scan the given characters directly,
+ * without refilling its buffer from a reader.
+ *
+ * @param chars the characters to scan
+ */
+private void scanFrom(CharBuffer chars) {
+  if (chars.hasArray() && chars.arrayOffset() == 0 && chars.position() == 0 && chars.limit() < chars.capacity()) {
+    // the characters are already in an array, with room for the end of file
+    yy_buffer = chars.array();
+    yy_buffer_read = chars.limit();
+  }
+  else {
+    yy_buffer = new char[chars.remaining() + 1];
+    yy_buffer_read = chars.remaining();
+    chars.get(yy_buffer, 0, yy_buffer_read);
+  }
+  // there is nothing more to read after the buffer
+  yy_reader = new java.io.BufferedReader(new java.io.StringReader(""), 1);
 }
 // ritorna il simbolo della classe che si sta parsando
 public String parsedClass() {
@@ -150,10 +416,10 @@ String myString = "";
 	}
 
 	private boolean yy_eof_done = false;
-	private final int STRING = 1;
-	private final int YYINITIAL = 0;
-	private final int COMMENT = 2;
-	private final int yy_state_dtrans[] = {
+	private static final int STRING = 1;
+	private static final int YYINITIAL = 0;
+	private static final int COMMENT = 2;
+	private static final int yy_state_dtrans[] = {
 		0,
 		81,
 		89
@@ -248,9 +514,9 @@ String myString = "";
 		}
 		return newbuf;
 	}
-	private final int YY_E_INTERNAL = 0;
-	private final int YY_E_MATCH = 1;
-	private java.lang.String yy_error_string[] = {
+	private static final int YY_E_INTERNAL = 0;
+	private static final int YY_E_MATCH = 1;
+	private static final java.lang.String yy_error_string[] = {
 		"Error: Internal error.\n",
 		"Error: Unmatched input.\n"
 	};
@@ -261,7 +527,7 @@ String myString = "";
 			throw new Error("Fatal Error.\n");
 		}
 	}
-	private int[][] unpackFromString(int size1, int size2, String st) {
+	private static int[][] unpackFromString(int size1, int size2, String st) {
 		int colonIndex = -1;
 		String lengthString;
 		int sequenceLength = 0;
@@ -298,7 +564,7 @@ String myString = "";
 		}
 		return res;
 	}
-	private int yy_acpt[] = {
+	private static final int yy_acpt[] = {
 		/* 0 */ YY_NOT_ACCEPT,
 		/* 1 */ YY_NO_ANCHOR,
 		/* 2 */ YY_NO_ANCHOR,
@@ -459,19 +725,19 @@ String myString = "";
 		/* 157 */ YY_NO_ANCHOR,
 		/* 158 */ YY_NO_ANCHOR
 	};
-	private int yy_cmap[] = unpackFromString(1,130,
+	private static final int yy_cmap[] = unpackFromString(1,130,
 "47:9,2,6,47,2,5,47:18,2,38,1,47:3,41,49,28,29,4,35,26,36,34,3,46:10,43,27,3" +
 "9,37,40,47:2,44:26,30,48,31,47,45,47,22,24,18,17,11,12,44,8,9,44:2,10,15,19" +
 ",13,44:2,14,20,16,21,25,7,23,44:2,32,42,33,47:2,0:2")[0];
 
-	private int yy_rmap[] = unpackFromString(1,159,
+	private static final int yy_rmap[] = unpackFromString(1,159,
 "0,1:3,2,3,1,4,1:4,5,1:3,6,1:3,7,8,9,1:2,10,11,1:3,12,13,1,6,1:4,12:21,1:6,1" +
 "4,1:7,15,16,1,17,18,6,19,20,21,22,23,24,25,26,27,28,29,30,31,32,33,34,35,36" +
 ",37,38,39,40,41,42,43,44,45,46,47,48,49,50,51,52,53,54,55,56,57,58,59,60,61" +
 ",62,63,64,65,66,67,68,69,70,71,72,73,74,75,76,77,78,79,80,81,82,83,84,85,86" +
 ",87,88,89,90,91,12,92,93,94,95,96,97")[0];
 
-	private int yy_nxt[][] = unpackFromString(98,50,
+	private static final int yy_nxt[][] = unpackFromString(98,50,
 "1,2,3,4,5,73,6,7,152,74,152,126,107,152,154,156,127,152,157,108,152:2,79,15" +
 "2,158,128,8,9,10,11,12,13,14,15,16,17,18,19,20,21,22,23,24,25,152,75,26,75:" +
 "3,-1:54,27,-1:48,28,-1:53,152,129,152:17,-1:18,152:3,-1:34,32,-1:64,33,-1:4" +
@@ -540,7 +806,9 @@ String myString = "";
 
 	{
 	  if (commentCount != 0) err("Unclosed comment");
-	  return tok(sym.EOF, null);
+	  java_cup.runtime.Symbol eof = tok(sym.EOF, null);
+	  giveBack();
+	  return eof;
         }
 			}
 			if (YY_F != yy_next_state) {
@@ -588,7 +856,7 @@ String myString = "";
 					case -7:
 						break;
 					case 7:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -8:
 						break;
 					case 8:
@@ -664,7 +932,7 @@ String myString = "";
 					case -26:
 						break;
 					case 26:
-						{return tok(sym.INTEGER, new Integer(yytext()));}
+						{return tok(sym.INTEGER, intValue());}
 					case -27:
 						break;
 					case 27:
@@ -692,7 +960,7 @@ String myString = "";
 					case -33:
 						break;
 					case 33:
-						{return tok(sym.FLOATING, new Float(yytext()));}
+						{return tok(sym.FLOATING, Float.parseFloat(yytext()));}
 					case -34:
 						break;
 					case 34:
@@ -857,7 +1125,7 @@ String myString = "";
 					case -73:
 						break;
 					case 74:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -74:
 						break;
 					case 75:
@@ -873,7 +1141,7 @@ String myString = "";
 					case -77:
 						break;
 					case 79:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -78:
 						break;
 					case 80:
@@ -881,295 +1149,295 @@ String myString = "";
 					case -79:
 						break;
 					case 82:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -80:
 						break;
 					case 84:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -81:
 						break;
 					case 86:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -82:
 						break;
 					case 88:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -83:
 						break;
 					case 90:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -84:
 						break;
 					case 91:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -85:
 						break;
 					case 92:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -86:
 						break;
 					case 93:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -87:
 						break;
 					case 94:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -88:
 						break;
 					case 95:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -89:
 						break;
 					case 96:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -90:
 						break;
 					case 97:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -91:
 						break;
 					case 98:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -92:
 						break;
 					case 99:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -93:
 						break;
 					case 100:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -94:
 						break;
 					case 101:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -95:
 						break;
 					case 102:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -96:
 						break;
 					case 103:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -97:
 						break;
 					case 104:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -98:
 						break;
 					case 105:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -99:
 						break;
 					case 106:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -100:
 						break;
 					case 107:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -101:
 						break;
 					case 108:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -102:
 						break;
 					case 109:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -103:
 						break;
 					case 110:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -104:
 						break;
 					case 111:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -105:
 						break;
 					case 112:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -106:
 						break;
 					case 113:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -107:
 						break;
 					case 114:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -108:
 						break;
 					case 115:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -109:
 						break;
 					case 116:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -110:
 						break;
 					case 117:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -111:
 						break;
 					case 118:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -112:
 						break;
 					case 119:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -113:
 						break;
 					case 120:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -114:
 						break;
 					case 121:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -115:
 						break;
 					case 122:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -116:
 						break;
 					case 123:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -117:
 						break;
 					case 124:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -118:
 						break;
 					case 125:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -119:
 						break;
 					case 126:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -120:
 						break;
 					case 127:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -121:
 						break;
 					case 128:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -122:
 						break;
 					case 129:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -123:
 						break;
 					case 130:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -124:
 						break;
 					case 131:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -125:
 						break;
 					case 132:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -126:
 						break;
 					case 133:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -127:
 						break;
 					case 134:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -128:
 						break;
 					case 135:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -129:
 						break;
 					case 136:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -130:
 						break;
 					case 137:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -131:
 						break;
 					case 138:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -132:
 						break;
 					case 139:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -133:
 						break;
 					case 140:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -134:
 						break;
 					case 141:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -135:
 						break;
 					case 142:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -136:
 						break;
 					case 143:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -137:
 						break;
 					case 144:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -138:
 						break;
 					case 145:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -139:
 						break;
 					case 146:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -140:
 						break;
 					case 147:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -141:
 						break;
 					case 148:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -142:
 						break;
 					case 149:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -143:
 						break;
 					case 150:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -144:
 						break;
 					case 151:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -145:
 						break;
 					case 152:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -146:
 						break;
 					case 153:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -147:
 						break;
 					case 154:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -148:
 						break;
 					case 155:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -149:
 						break;
 					case 156:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -150:
 						break;
 					case 157:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -151:
 						break;
 					case 158:
-						{return tok(sym.ID, yytext());}
+						{return identifier();}
 					case -152:
 						break;
 					default:
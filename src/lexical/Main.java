@@ -2,11 +2,15 @@ package lexical;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 import java_cup.runtime.Symbol;
 
 import syntactical.sym;
 import lexical.Lexer;
+import util.Allocation;
 
 public class Main {
 	public static void main(String args[]) {
@@ -19,13 +23,24 @@ public class Main {
 		Lexer lexer;
 		Symbol tok;
 
+		// with the -benchmark option, we compare the ways of reading the source
+		if (args.length > 1 && args[1].equals("-benchmark")) {
+			benchmark(fileName, args.length > 2 ? Integer.parseInt(args[2]) : 100);
+			return;
+		}
+
 		try {
-			lexer = new Lexer(fileName);
+			// with the -mapped option, the source file is mapped into memory
+			lexer = new Lexer(fileName, args.length > 1 && args[1].equals("-mapped"));
 		}
 		catch (FileNotFoundException e) {
 			System.out.println("Cannot find " + fileName);
 			return;
 		}
+		catch (IOException e) {
+			System.out.println("I/O error");
+			return;
+		}
 
 		do {
 			try {
@@ -50,6 +65,54 @@ public class Main {
 		while (tok.sym != sym.EOF);
 	}
 
+	/**
+	 * Tokenises the given file many times, by reading it through a stream,
+	 * by mapping it into memory, from a string already in memory and
+	 * from a string already in memory into a packed stream of tokens,
+	 * and reports the average time of each mode and the bytes that it allocates
+	 * for each kilobyte of source.
+	 *
+	 * @param fileName the name of the file to tokenise
+	 * @param repetitions how many times each mode is run
+	 */
+
+	private static void benchmark(String fileName, int repetitions) {
+		try {
+			if (!fileName.endsWith(".kit"))
+				fileName += ".kit";
+
+			String source = new String(Files.readAllBytes(Paths.get(fileName)), Charset.defaultCharset());
+			String[] modes = { "stream", "mapped", "memory", "packed" };
+
+			// the first round warms up the virtual machine and is not reported
+			for (int round = 0; round < 2; round++)
+				for (String mode: modes) {
+					long allocated = Allocation.allocatedBytes();
+					long time = System.nanoTime();
+					int tokens = 0;
+
+					for (int i = 0; i < repetitions; i++) {
+						Lexer lexer = mode.equals("memory") || mode.equals("packed") ? new Lexer(source, fileName) : new Lexer(fileName, mode.equals("mapped"));
+						if (mode.equals("packed"))
+							tokens += lexer.tokenize().size() - 1;
+						else
+							while (lexer.nextToken().sym != sym.EOF)
+								tokens++;
+					}
+
+					time = System.nanoTime() - time;
+					allocated = Allocation.allocatedBytes() - allocated;
+
+					if (round > 0)
+						System.out.printf("%s\t%d tokens\t[%.3fms per file]\t[%d bytes per source KB]%n", mode, tokens / repetitions,
+							time / 1e6 / repetitions, allocated * 1024 / repetitions / Math.max(source.length(), 1));
+				}
+		}
+		catch (IOException e) {
+			System.out.println("I/O error");
+		}
+	}
+
 	static String symnames[] = new String[100];
 
 	static {     
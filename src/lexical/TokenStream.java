@@ -0,0 +1,340 @@
+package lexical;
+
+import java.util.Arrays;
+
+import errorMsg.ErrorMsg;
+import syntactical.sym;
+import tables.Symbol;
+
+/**
+ * The tokens of a whole source file, packed into parallel arrays of
+ * primitive values. The lexical value of each token is kept in a side table:
+ * integer literals are kept as they are, floating-point literals as the bits
+ * of their value and identifiers and strings as an index into a table of values.
+ * This way, the lexical analysis of a file allocates a few arrays only,
+ * rather than a {@link java_cup.runtime.Symbol} for each token. Moreover,
+ * the symbol of an identifier is looked up only once, however many times it occurs.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class TokenStream {
+
+	/**
+	 * The kind of each token, as enumerated in {@code syntactical/sym.java}.
+	 */
+
+	private int[] kind;
+
+	/**
+	 * The position where each token starts, from the beginning of the source file.
+	 */
+
+	private int[] start;
+
+	/**
+	 * The position where each token ends, from the beginning of the source file.
+	 * This is the position after the last character of the token.
+	 */
+
+	private int[] end;
+
+	/**
+	 * The lexical value of each token. It is the value of integer literals,
+	 * the bits of the value of floating-point literals and the index
+	 * inside {@link #values} of the value of identifiers and strings.
+	 */
+
+	private int[] literal;
+
+	/**
+	 * The lexical values of identifiers and strings. They are
+	 * {@link Symbol}s for identifiers and strings for strings.
+	 */
+
+	private Object[] values;
+
+	/**
+	 * The number of tokens in this stream.
+	 */
+
+	private int size;
+
+	/**
+	 * The number of values in {@link #values}.
+	 */
+
+	private int valuesSize;
+
+	/**
+	 * A hash table from identifiers to the index of their symbol inside {@link #values}.
+	 * Free slots hold -1. Its length is always a power of two.
+	 */
+
+	private int[] identifiers;
+
+	/**
+	 * The number of identifiers in {@link #identifiers}.
+	 */
+
+	private int identifiersSize;
+
+	/**
+	 * The error reporting utility used during the lexical analysis
+	 * that built this stream.
+	 */
+
+	private final ErrorMsg errorMsg;
+
+	/**
+	 * Builds an empty stream of tokens.
+	 *
+	 * @param errorMsg the error reporting utility used during the
+	 *                 lexical analysis that fills this stream
+	 * @param capacity the number of tokens that the stream can hold
+	 *                 before its arrays must be enlarged
+	 */
+
+	TokenStream(ErrorMsg errorMsg, int capacity) {
+		capacity = Math.max(capacity, 16);
+
+		this.errorMsg = errorMsg;
+		this.kind = new int[capacity];
+		this.start = new int[capacity];
+		this.end = new int[capacity];
+		this.literal = new int[capacity];
+		this.values = new Object[capacity / 4 + 1];
+		this.identifiers = new int[64];
+		Arrays.fill(identifiers, -1);
+	}
+
+	/**
+	 * Adds a token to this stream.
+	 *
+	 * @param kind the kind of the token
+	 * @param start the position where the token starts
+	 * @param end the position after the last character of the token
+	 * @param literal the lexical value of the token, if it is an integer
+	 *                or floating-point literal, as for {@link #literal}
+	 */
+
+	void add(int kind, int start, int end, int literal) {
+		if (size == this.kind.length) {
+			int capacity = size * 2;
+			this.kind = Arrays.copyOf(this.kind, capacity);
+			this.start = Arrays.copyOf(this.start, capacity);
+			this.end = Arrays.copyOf(this.end, capacity);
+			this.literal = Arrays.copyOf(this.literal, capacity);
+		}
+
+		this.kind[size] = kind;
+		this.start[size] = start;
+		this.end[size] = end;
+		this.literal[size++] = literal;
+	}
+
+	/**
+	 * Adds a token to this stream, whose lexical value is an object.
+	 *
+	 * @param kind the kind of the token
+	 * @param start the position where the token starts
+	 * @param end the position after the last character of the token
+	 * @param value the lexical value of the token
+	 */
+
+	void add(int kind, int start, int end, Object value) {
+		if (valuesSize == values.length)
+			values = Arrays.copyOf(values, valuesSize * 2);
+
+		values[valuesSize] = value;
+		add(kind, start, end, valuesSize++);
+	}
+
+	/**
+	 * Adds an identifier to this stream. An identifier already met in
+	 * this stream shares the symbol of its previous occurrence, so that
+	 * no string is built for it and no symbol is looked up.
+	 *
+	 * @param start the position where the identifier starts
+	 * @param end the position after the last character of the identifier
+	 * @param chars the characters where the identifier occurs
+	 * @param offset the index inside {@code chars} of the first
+	 *               character of the identifier
+	 */
+
+	void addIdentifier(int start, int end, char[] chars, int offset) {
+		int length = end - start;
+		int hash = 0;
+		for (int pos = offset; pos < offset + length; pos++)
+			hash = 31 * hash + chars[pos];
+
+		// we enlarge the table of identifiers when it gets half full
+		if (identifiersSize * 2 >= identifiers.length) {
+			int[] old = identifiers;
+			identifiers = new int[old.length * 2];
+			Arrays.fill(identifiers, -1);
+
+			for (int index: old)
+				if (index >= 0)
+					identifiers[freeSlot(values[index].hashCode())] = index;
+		}
+
+		// we look for the identifier by linear probing
+		int mask = identifiers.length - 1;
+		int slot = hash & mask;
+		for (int index; (index = identifiers[slot]) >= 0; slot = (slot + 1) & mask)
+			if (matches(values[index].toString(), chars, offset, length)) {
+				add(sym.ID, start, end, index);
+				return;
+			}
+
+		identifiers[slot] = valuesSize;
+		identifiersSize++;
+		add(sym.ID, start, end, Symbol.mk(new String(chars, offset, length)));
+	}
+
+	/**
+	 * Yields the first free slot of {@link #identifiers} for the given hash code.
+	 *
+	 * @param hash the hash code
+	 * @return the index of the slot
+	 */
+
+	private int freeSlot(int hash) {
+		int mask = identifiers.length - 1;
+		int slot = hash & mask;
+		while (identifiers[slot] >= 0)
+			slot = (slot + 1) & mask;
+
+		return slot;
+	}
+
+	/**
+	 * Determines if a string is made of the given characters.
+	 *
+	 * @param s the string
+	 * @param chars the array holding the characters
+	 * @param offset the index of the first character inside {@code chars}
+	 * @param length the number of characters
+	 * @return true if and only if {@code s} is made of those characters
+	 */
+
+	private static boolean matches(String s, char[] chars, int offset, int length) {
+		if (s.length() != length)
+			return false;
+
+		for (int pos = 0; pos < length; pos++)
+			if (s.charAt(pos) != chars[offset + pos])
+				return false;
+
+		return true;
+	}
+
+	/**
+	 * Yields the number of tokens in this stream, including the
+	 * final end of file.
+	 *
+	 * @return the number of tokens
+	 */
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Yields the kind of the given token.
+	 *
+	 * @param pos the index of the token inside this stream
+	 * @return the kind of the token, as enumerated in {@code syntactical/sym.java}
+	 */
+
+	public int getKind(int pos) {
+		return kind[pos];
+	}
+
+	/**
+	 * Yields the position where the given token starts.
+	 *
+	 * @param pos the index of the token inside this stream
+	 * @return the position, from the beginning of the source file
+	 */
+
+	public int getStart(int pos) {
+		return start[pos];
+	}
+
+	/**
+	 * Yields the position after the last character of the given token.
+	 *
+	 * @param pos the index of the token inside this stream
+	 * @return the position, from the beginning of the source file
+	 */
+
+	public int getEnd(int pos) {
+		return end[pos];
+	}
+
+	/**
+	 * Yields the lexical value of the given token, as it would be
+	 * reported by {@link Lexer#nextToken()}.
+	 *
+	 * @param pos the index of the token inside this stream
+	 * @return the lexical value of the token. It is {@code null} for
+	 *         tokens without lexical value
+	 */
+
+	public Object getValue(int pos) {
+		switch (kind[pos]) {
+		case sym.INTEGER: return literal[pos];
+		case sym.FLOATING: return Float.intBitsToFloat(literal[pos]);
+		case sym.ID:
+		case sym.STRING: return values[literal[pos]];
+		default: return null;
+		}
+	}
+
+	/**
+	 * Yields the given token as a symbol for the syntactical analysis.
+	 *
+	 * @param pos the index of the token inside this stream
+	 * @return the symbol for the token
+	 */
+
+	public java_cup.runtime.Symbol getSymbol(int pos) {
+		return new java_cup.runtime.Symbol(kind[pos], start[pos], end[pos], getValue(pos));
+	}
+
+	/**
+	 * Yields the error reporting utility used during the lexical analysis
+	 * that built this stream.
+	 *
+	 * @return the error reporting utility
+	 */
+
+	public ErrorMsg getErrorMsg() {
+		return errorMsg;
+	}
+
+	/**
+	 * Yields a lexical analyser that replays the tokens of this stream,
+	 * so that they can be fed to a {@link syntactical.Parser}.
+	 *
+	 * @return the lexical analyser
+	 */
+
+	public Lexer replay() {
+		return new Lexer(errorMsg) {
+			private int next;
+
+			@Override
+			public java_cup.runtime.Symbol nextToken() {
+				// after the end of file, the end of file is reported again
+				java_cup.runtime.Symbol result = getSymbol(next);
+				if (next < size - 1)
+					next++;
+
+				return result;
+			}
+		};
+	}
+}
@@ -0,0 +1,189 @@
+package optimization;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import translation.Block;
+import bytecode.BinOpBytecode;
+import bytecode.Bytecode;
+import bytecode.BytecodeList;
+import bytecode.CONST;
+import bytecode.LOAD;
+import bytecode.STORE;
+
+/**
+ * The available expressions analysis of a constructor or method.
+ * The expressions are the binary operations whose operands are local
+ * variables or constants, that is, sequences of bytecodes such as
+ * {@code load 1 of type int; const 3; add int}. They are identified by their
+ * textual representation and numbered from {@code 0}. An expression is
+ * available at a program point if it is computed along every path that leads
+ * to that point, without any later {@code store} into one of its variables.
+ * The facts of the analysis are the numbers of the available expressions.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class AvailableExpressions extends Dataflow {
+
+	/**
+	 * The textual representation of the expressions, in order of number.
+	 */
+
+	private final List<String> expressions = new ArrayList<>();
+
+	/**
+	 * The number of each expression, from its textual representation.
+	 */
+
+	private final Map<String, Integer> numbers = new HashMap<>();
+
+	/**
+	 * The numbers of the expressions that read each local variable.
+	 */
+
+	private final Map<Integer, BitSet> readers = new HashMap<>();
+
+	/**
+	 * Computes the available expressions analysis of the given code.
+	 *
+	 * @param start the block where the code starts
+	 */
+
+	public AvailableExpressions(Block start) {
+		super(start, true);
+
+		for (Block block: getBlocks()) {
+			BytecodeList code = block.getBytecode();
+
+			for (int pos = 2; pos < code.size(); pos++) {
+				String expression = expressionAt(code, pos);
+				if (expression != null && !numbers.containsKey(expression)) {
+					int number = expressions.size();
+					numbers.put(expression, number);
+					expressions.add(expression);
+
+					for (int operand = pos - 2; operand < pos; operand++)
+						if (code.get(operand) instanceof LOAD) {
+							int varNum = ((LOAD) code.get(operand)).getVarNum();
+							BitSet bits = readers.get(varNum);
+							if (bits == null)
+								readers.put(varNum, bits = new BitSet());
+
+							bits.set(number);
+						}
+				}
+			}
+		}
+
+		solve();
+	}
+
+	/**
+	 * Yields the textual representation of the expression with the given number.
+	 *
+	 * @param number the number of the expression
+	 * @return the textual representation, such as {@code load 1 of type int; const 3; add int}
+	 */
+
+	public String getExpression(int number) {
+		return expressions.get(number);
+	}
+
+	/**
+	 * Yields the number of the expression computed by the given bytecodes.
+	 *
+	 * @param code the bytecodes
+	 * @param pos the position of the binary operation of the expression inside {@code code}
+	 * @return the number of the expression, or {@code -1} if {@code code}
+	 *         does not compute an expression at {@code pos}
+	 */
+
+	public int getNumber(BytecodeList code, int pos) {
+		Integer number = numbers.get(expressionAt(code, pos));
+		return number == null ? -1 : number;
+	}
+
+	/**
+	 * Yields the textual representation of the expression computed
+	 * by the given bytecodes.
+	 *
+	 * @param code the bytecodes
+	 * @param pos the position of the binary operation of the expression inside {@code code}
+	 * @return the textual representation, or {@code null} if {@code code}
+	 *         does not compute an expression at {@code pos}
+	 */
+
+	private static String expressionAt(BytecodeList code, int pos) {
+		if (pos < 2 || pos >= code.size() || !(code.get(pos) instanceof BinOpBytecode))
+			return null;
+
+		Bytecode left = code.get(pos - 2), right = code.get(pos - 1);
+		if (!isOperand(left) || !isOperand(right))
+			return null;
+
+		return left + "; " + right + "; " + code.get(pos);
+	}
+
+	/**
+	 * Determines if the given bytecode can be an operand of an expression.
+	 *
+	 * @param bytecode the bytecode
+	 * @return true if and only if {@code bytecode} loads a local variable or a constant
+	 */
+
+	private static boolean isOperand(Bytecode bytecode) {
+		return bytecode instanceof LOAD || bytecode instanceof CONST;
+	}
+
+	@Override
+	protected int size() {
+		return expressions.size();
+	}
+
+	@Override
+	protected boolean isMust() {
+		return true;
+	}
+
+	@Override
+	protected BitSet boundary() {
+		// no expression is available at the beginning of the code
+		return new BitSet();
+	}
+
+	/**
+	 * Transforms the expressions available before a bytecode into
+	 * those available after it.
+	 *
+	 * @param code the bytecodes of a block
+	 * @param pos the position of the bytecode inside {@code code}
+	 * @param facts the expressions available before the bytecode, modified in place
+	 */
+
+	public void transfer(BytecodeList code, int pos, BitSet facts) {
+		Bytecode bytecode = code.get(pos);
+
+		if (bytecode instanceof STORE) {
+			BitSet killed = readers.get(((STORE) bytecode).getVarNum());
+			if (killed != null)
+				facts.andNot(killed);
+		}
+		else {
+			int number = getNumber(code, pos);
+			if (number >= 0)
+				facts.set(number);
+		}
+	}
+
+	@Override
+	protected void transfer(Block block, BitSet facts) {
+		BytecodeList code = block.getBytecode();
+
+		for (int pos = 0; pos < code.size(); pos++)
+			transfer(code, pos, facts);
+	}
+}
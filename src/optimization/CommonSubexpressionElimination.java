@@ -0,0 +1,187 @@
+package optimization;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import tables.Symbol;
+import translation.Block;
+import translation.Program;
+import types.BooleanType;
+import types.ClassMemberSignature;
+import types.CodeSignature;
+import types.MethodSignature;
+import types.Type;
+import bytecode.ArithmeticBinOpBytecode;
+import bytecode.BinOpBytecode;
+import bytecode.Bytecode;
+import bytecode.BytecodeList;
+import bytecode.DUP;
+import bytecode.LOAD;
+import bytecode.STORE;
+
+/**
+ * A pass that avoids recomputing the binary operations of local variables
+ * and constants, such as {@code a * b}, whose value is already available, as
+ * computed by an {@link AvailableExpressions} analysis. Each expression that
+ * is recomputed while it is available gets a fresh local variable. Every
+ * computation of the expression that is not redundant stores its result into
+ * that variable, by a {@code dup} and a {@code store} after the operation, and
+ * every redundant computation is replaced by a {@code load} of the variable.
+ * Since the expression is computed along every path that reaches a redundant
+ * computation, without later changes to its variables, the variable holds
+ * its value there. The fresh variables are later packed by slot allocation.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class CommonSubexpressionElimination extends Pass {
+
+	/**
+	 * Builds the pass. It is run after constant folding, so that the
+	 * operations of constants have been already folded.
+	 */
+
+	public CommonSubexpressionElimination() {
+		super("subexpressions", 1, "constant-folding");
+	}
+
+	@Override
+	public String run(Program program) {
+		// the number of redundant computations and of expressions, and the blocks and iterations of the analyses
+		int[] statistics = new int[4];
+
+		for (ClassMemberSignature sig: program.getSigs())
+			if (sig instanceof CodeSignature && ((CodeSignature) sig).getCode() != null)
+				eliminate((CodeSignature) sig, statistics);
+
+		return statistics[0] + " redundant computations of " + statistics[1] + " expressions removed, availability computed in "
+			+ statistics[3] + " iterations over " + statistics[2] + " blocks";
+	}
+
+	/**
+	 * Removes the redundant computations of expressions inside the given constructor or method.
+	 *
+	 * @param sig the constructor or method
+	 * @param statistics the number of redundant computations and of expressions, and the blocks
+	 *                   and iterations of the analyses so far, that gets updated
+	 */
+
+	private static void eliminate(CodeSignature sig, int[] statistics) {
+		AvailableExpressions analysis = new AvailableExpressions(sig.getCode());
+		statistics[2] += analysis.getBlocks().size();
+		statistics[3] += analysis.getIterations();
+
+		// the redundant positions of each block and the expressions computed redundantly somewhere
+		Map<Block, BitSet> redundant = new HashMap<>();
+		BitSet recomputed = new BitSet();
+
+		for (Block block: analysis.getBlocks()) {
+			BytecodeList code = block.getBytecode();
+			BitSet facts = analysis.getEntry(block);
+			BitSet positions = new BitSet();
+
+			for (int pos = 0; pos < code.size(); pos++) {
+				int number = analysis.getNumber(code, pos);
+				if (number >= 0 && facts.get(number)) {
+					positions.set(pos);
+					recomputed.set(number);
+				}
+
+				analysis.transfer(code, pos, facts);
+			}
+
+			redundant.put(block, positions);
+		}
+
+		if (recomputed.isEmpty())
+			return;
+
+		// we give a fresh local variable to each expression computed redundantly
+		Map<Integer, Integer> variables = new HashMap<>();
+		int next = localsOf(sig, analysis.getBlocks());
+		for (int number = recomputed.nextSetBit(0); number >= 0; number = recomputed.nextSetBit(number + 1))
+			variables.put(number, next++);
+
+		for (Block block: analysis.getBlocks()) {
+			BytecodeList code = block.getBytecode();
+			BitSet positions = redundant.get(block);
+			List<Bytecode> result = new ArrayList<>();
+			boolean changed = false;
+
+			for (int pos = 0; pos < code.size(); pos++) {
+				Bytecode bytecode = code.get(pos);
+				int number = analysis.getNumber(code, pos);
+				Integer variable = number >= 0 ? variables.get(number) : null;
+
+				if (variable == null)
+					result.add(bytecode);
+				else {
+					Type type = typeOf((BinOpBytecode) bytecode);
+
+					if (positions.get(pos)) {
+						// we remove the two operands and load the value computed before
+						result.remove(result.size() - 1);
+						result.remove(result.size() - 1);
+						result.add(new LOAD(variable, type));
+						statistics[0]++;
+					}
+					else {
+						result.add(bytecode);
+						result.add(new DUP(type));
+						result.add(new STORE(variable, type));
+					}
+
+					changed = true;
+				}
+			}
+
+			if (changed)
+				block.setBytecode(new BytecodeList(result));
+		}
+
+		statistics[1] += variables.size();
+	}
+
+	/**
+	 * Yields the type of the result of the given binary operation.
+	 *
+	 * @param bytecode the binary operation
+	 * @return the type of its result
+	 */
+
+	private static Type typeOf(BinOpBytecode bytecode) {
+		if (bytecode instanceof ArithmeticBinOpBytecode)
+			return ((ArithmeticBinOpBytecode) bytecode).getType();
+		else
+			// comparisons and Boolean operations yield a Boolean value
+			return BooleanType.INSTANCE;
+	}
+
+	/**
+	 * Yields the number of local variables used by a constructor or method,
+	 * including its receiver, if any, and its parameters.
+	 *
+	 * @param sig the constructor or method
+	 * @param blocks the blocks of its code
+	 * @return the number of local variables
+	 */
+
+	private static int localsOf(CodeSignature sig, Iterable<Block> blocks) {
+		// the main method is static and does not receive parameters from Kitten
+		int locals = sig.getParameters().getSize();
+		if (!(sig instanceof MethodSignature && sig.getName() == Symbol.MAIN))
+			locals++;
+
+		for (Block block: blocks)
+			for (Bytecode bytecode: block.getBytecode())
+				if (bytecode instanceof LOAD)
+					locals = Math.max(locals, ((LOAD) bytecode).getVarNum() + 1);
+				else if (bytecode instanceof STORE)
+					locals = Math.max(locals, ((STORE) bytecode).getVarNum() + 1);
+
+		return locals;
+	}
+}
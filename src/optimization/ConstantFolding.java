@@ -0,0 +1,754 @@
+package optimization;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import translation.Block;
+import translation.BlockWalker;
+import translation.Program;
+import types.BooleanType;
+import types.ClassMemberSignature;
+import types.CodeSignature;
+import types.NumericalType;
+import types.Type;
+import bytecode.ADD;
+import bytecode.AND;
+import bytecode.APPEND;
+import bytecode.ARRAYLOAD;
+import bytecode.ARRAYSTORE;
+import bytecode.ArithmeticBinOpBytecode;
+import bytecode.BUILDSTRING;
+import bytecode.BinOpBytecode;
+import bytecode.BranchingBytecode;
+import bytecode.BranchingComparisonBytecode;
+import bytecode.BranchingConstantComparisonBytecode;
+import bytecode.Bytecode;
+import bytecode.BytecodeList;
+import bytecode.CALL;
+import bytecode.CAST;
+import bytecode.CONST;
+import bytecode.ComparisonBinOpBytecode;
+import bytecode.DIV;
+import bytecode.DUP;
+import bytecode.EQ;
+import bytecode.GE;
+import bytecode.GETFIELD;
+import bytecode.GT;
+import bytecode.IF_CMPEQ;
+import bytecode.IF_CMPGE;
+import bytecode.IF_CMPGT;
+import bytecode.IF_CMPLE;
+import bytecode.IF_CMPLT;
+import bytecode.IF_CMPNE;
+import bytecode.IF_FALSE;
+import bytecode.IF_TRUE;
+import bytecode.LE;
+import bytecode.LOAD;
+import bytecode.LT;
+import bytecode.MUL;
+import bytecode.NE;
+import bytecode.NEG;
+import bytecode.NEW;
+import bytecode.NEWARRAY;
+import bytecode.NEWBUILDER;
+import bytecode.NEWSTRING;
+import bytecode.NOP;
+import bytecode.NULLCHECK;
+import bytecode.OR;
+import bytecode.POP;
+import bytecode.PUTFIELD;
+import bytecode.RETURN;
+import bytecode.STORE;
+import bytecode.SUB;
+
+/**
+ * A pass that propagates and folds constants in the Kitten bytecode. For each
+ * constructor or method, it computes the constant values of the local variables
+ * and of the stack elements at the beginning of each block, by a dataflow analysis
+ * over the graph of blocks. The arithmetical, comparison and Boolean operations,
+ * the negations and the numerical casts of constant values are then replaced
+ * by the constant result, the loads of local variables holding a constant are
+ * replaced by that constant and the branches whose condition is decided are
+ * replaced by a jump to the block that is actually executed. The arithmetic
+ * is that of the Java virtual machine: integer operations overflow silently
+ * and integer divisions by zero are never folded, so that they still fail at run-time.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class ConstantFolding extends Pass {
+
+	/**
+	 * The bits of the negative floating-point zero.
+	 */
+
+	private final static int NEGATIVE_ZERO = Float.floatToIntBits(-0.0f);
+
+	/**
+	 * Builds the pass. It is run after inlining, so that it folds the
+	 * constants passed as actual parameters to the inlined methods.
+	 */
+
+	public ConstantFolding() {
+		super("constant-folding", 1, "inlining");
+	}
+
+	@Override
+	public String run(Program program) {
+		int folded = 0, decided = 0;
+
+		for (ClassMemberSignature sig: program.getSigs())
+			if (sig instanceof CodeSignature && ((CodeSignature) sig).getCode() != null) {
+				Method method = new Method(((CodeSignature) sig).getCode());
+				method.fold();
+				folded += method.folded;
+				decided += method.decisions.size();
+			}
+
+		// the branches that have been removed might have left isolated nop's
+		program.cleanUp();
+
+		return folded + " operations folded, " + decided + " branches decided";
+	}
+
+	/**
+	 * The code of a constructor or method, being optimized.
+	 */
+
+	private static class Method {
+
+		/**
+		 * The block where the code starts.
+		 */
+
+		private final Block code;
+
+		/**
+		 * The number of local variables used in the code.
+		 */
+
+		private final int locals;
+
+		/**
+		 * The abstract state at the beginning of each block reached by the analysis.
+		 */
+
+		private final Map<Block, State> entries = new HashMap<>();
+
+		/**
+		 * The blocks that end with a branch whose condition is decided,
+		 * bound to the value of the condition at the head of their first follower.
+		 */
+
+		private final Map<Block, Boolean> decisions = new LinkedHashMap<>();
+
+		/**
+		 * The number of operations replaced by their constant result.
+		 */
+
+		private int folded;
+
+		/**
+		 * Builds the code of a constructor or method.
+		 *
+		 * @param code the block where the code starts
+		 */
+
+		private Method(Block code) {
+			this.code = code;
+
+			final int[] max = new int[1];
+			new BlockWalker() {
+
+				@Override
+				protected void enter(Block block) {
+					for (Bytecode bytecode: block.getBytecode())
+						if (bytecode instanceof LOAD)
+							max[0] = Math.max(max[0], ((LOAD) bytecode).getVarNum() + 1);
+						else if (bytecode instanceof STORE)
+							max[0] = Math.max(max[0], ((STORE) bytecode).getVarNum() + 1);
+				}
+			}.walk(code);
+
+			this.locals = max[0];
+		}
+
+		/**
+		 * Propagates and folds the constants of this code.
+		 */
+
+		private void fold() {
+			analyse();
+
+			// the blocks that are taken after a decided branch are split after
+			// their condition, so that their predecessors can jump after it
+			Set<Block> taken = new LinkedHashSet<>();
+			for (Map.Entry<Block, Boolean> entry: decisions.entrySet())
+				taken.add(entry.getKey().getFollows().get(entry.getValue() ? 0 : 1));
+
+			for (Block target: taken)
+				if (target.getBytecode().size() > 1) {
+					Block continuation = split(target);
+
+					State state = entries.get(target).copy();
+					state.execute(target.getBytecode().getHead());
+					entries.put(continuation, state);
+
+					Boolean decision = decisions.remove(target);
+					if (decision != null)
+						decisions.put(continuation, decision);
+				}
+
+			for (Map.Entry<Block, State> entry: entries.entrySet())
+				rewrite(entry.getKey(), entry.getValue());
+
+			// the decided branches become unconditional
+			for (Map.Entry<Block, Boolean> entry: decisions.entrySet()) {
+				List<Block> follows = entry.getKey().getFollows();
+				Block target = follows.get(entry.getValue() ? 0 : 1);
+				follows.clear();
+				follows.addAll(target.getFollows());
+			}
+		}
+
+		/**
+		 * Computes the abstract state at the beginning of each block reachable
+		 * from the start of the code, without following the branches that are never taken.
+		 * Initially, the stack is empty and the local variables are unknown.
+		 */
+
+		private void analyse() {
+			Deque<Block> worklist = new ArrayDeque<>();
+			Set<Block> pending = new HashSet<>();
+
+			entries.put(code, new State(locals));
+			worklist.add(code);
+			pending.add(code);
+
+			while (!worklist.isEmpty()) {
+				Block block = worklist.remove();
+				pending.remove(block);
+
+				State state = entries.get(block).copy();
+				for (Bytecode bytecode: block.getBytecode())
+					state.execute(bytecode);
+
+				List<Block> follows = block.getFollows();
+				if (isBranching(block)) {
+					Boolean decision = decide((BranchingBytecode) follows.get(0).getBytecode().getHead(), state);
+					if (decision == null)
+						decisions.remove(block);
+					else {
+						decisions.put(block, decision);
+						follows = Collections.singletonList(follows.get(decision ? 0 : 1));
+					}
+				}
+
+				for (Block follow: follows) {
+					State old = entries.get(follow);
+					if (old == null)
+						entries.put(follow, state.copy());
+					else if (!old.join(state))
+						continue;
+
+					if (pending.add(follow))
+						worklist.add(follow);
+				}
+			}
+		}
+
+		/**
+		 * Rewrites the code of a block, by replacing the operations on constants with
+		 * their result. If the block ends with a decided branch, the operands of its
+		 * condition are removed from the stack.
+		 *
+		 * @param block the block
+		 * @param entry the abstract state at the beginning of the block
+		 */
+
+		private void rewrite(Block block, State entry) {
+			List<Bytecode> result = new ArrayList<>();
+			State state = entry.copy();
+			boolean changed = false;
+
+			for (Bytecode bytecode: block.getBytecode()) {
+				Object value = state.evaluate(bytecode);
+				if (value != null) {
+					// we remove the operands of the bytecode and push its result instead
+					for (Type operand: operands(bytecode))
+						pop(result, operand);
+
+					result.add(mkConst(value));
+					changed = true;
+					folded++;
+				}
+				else
+					result.add(bytecode);
+
+				state.execute(bytecode);
+			}
+
+			if (decisions.containsKey(block)) {
+				for (Type operand: operands(block.getFollows().get(0).getBytecode().getHead()))
+					pop(result, operand);
+
+				changed = true;
+			}
+
+			if (changed) {
+				if (result.isEmpty())
+					result.add(new NOP());
+
+				block.setBytecode(new BytecodeList(result));
+			}
+		}
+
+		/**
+		 * Splits a block after its first bytecode.
+		 *
+		 * @param block the block. It is modified so that it contains
+		 *              only its first bytecode, followed by the rest of its code
+		 * @return the block containing the rest of the code
+		 */
+
+		private static Block split(Block block) {
+			BytecodeList code = block.getBytecode();
+			List<Bytecode> rest = new ArrayList<>();
+			for (int pos = 1; pos < code.size(); pos++)
+				rest.add(code.get(pos));
+
+			Block continuation = new Block(new BytecodeList(rest), new ArrayList<>(block.getFollows()));
+			block.setBytecode(new BytecodeList(code.getHead()));
+			block.getFollows().clear();
+			block.getFollows().add(continuation);
+
+			return continuation;
+		}
+
+		/**
+		 * Adds to a piece of code the removal of the top of the stack. If the
+		 * last bytecode of the code just pushed that element, it is removed instead.
+		 *
+		 * @param code the code
+		 * @param type the type of the top of the stack
+		 */
+
+		private static void pop(List<Bytecode> code, Type type) {
+			int last = code.size() - 1;
+
+			if (last >= 0 && (code.get(last) instanceof CONST || code.get(last) instanceof LOAD || code.get(last) instanceof DUP))
+				code.remove(last);
+			else
+				code.add(new POP(type));
+		}
+	}
+
+	/**
+	 * Determines if a block ends with a branch due to a comparison bytecode.
+	 *
+	 * @param block the block
+	 * @return true if and only if the first follower of {@code block} starts with a branching bytecode
+	 */
+
+	private static boolean isBranching(Block block) {
+		List<Block> follows = block.getFollows();
+		return follows.size() == 2 && follows.get(0).getBytecode().getHead() instanceof BranchingBytecode;
+	}
+
+	/**
+	 * Yields the types of the operands that a bytecode pops from the stack,
+	 * from the top of the stack, if it is a bytecode that can be folded or a branch.
+	 *
+	 * @param bytecode the bytecode
+	 * @return the types of the operands
+	 */
+
+	private static List<Type> operands(Bytecode bytecode) {
+		if (bytecode instanceof ArithmeticBinOpBytecode) {
+			Type type = ((ArithmeticBinOpBytecode) bytecode).getType();
+			return Arrays.asList(type, type);
+		}
+		else if (bytecode instanceof ComparisonBinOpBytecode) {
+			Type type = ((ComparisonBinOpBytecode) bytecode).getType();
+			return Arrays.asList(type, type);
+		}
+		else if (bytecode instanceof BranchingComparisonBytecode) {
+			Type type = ((BranchingComparisonBytecode) bytecode).getType();
+			return Arrays.asList(type, type);
+		}
+		else if (bytecode instanceof AND || bytecode instanceof OR)
+			return Arrays.<Type> asList(BooleanType.INSTANCE, BooleanType.INSTANCE);
+		else if (bytecode instanceof BranchingConstantComparisonBytecode)
+			return Collections.<Type> singletonList(((BranchingConstantComparisonBytecode) bytecode).getType());
+		else if (bytecode instanceof NEG)
+			return Collections.singletonList(((NEG) bytecode).getType());
+		else if (bytecode instanceof CAST)
+			return Collections.singletonList(((CAST) bytecode).getFromType());
+		else
+			return Collections.emptyList();
+	}
+
+	/**
+	 * Yields a bytecode that pushes the given constant on the stack.
+	 *
+	 * @param value the constant
+	 * @return the bytecode
+	 */
+
+	private static CONST mkConst(Object value) {
+		if (value instanceof Integer)
+			return new CONST((Integer) value);
+		else if (value instanceof Float)
+			return new CONST((Float) value);
+		else
+			return new CONST((Boolean) value);
+	}
+
+	/**
+	 * Determines the outcome of a branching bytecode, if its operands are constant.
+	 *
+	 * @param condition the branching bytecode
+	 * @param state the abstract state just before the branching bytecode
+	 * @return the outcome of the condition, or {@code null} if it is not known
+	 */
+
+	private static Boolean decide(BranchingBytecode condition, State state) {
+		if (condition instanceof IF_TRUE || condition instanceof IF_FALSE) {
+			Object value = state.peek(0);
+			if (value instanceof Boolean)
+				return (Boolean) value == condition instanceof IF_TRUE;
+		}
+		else {
+			Integer comparison = compare(state.peek(1), state.peek(0));
+			if (comparison != null)
+				return test(condition, comparison);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Folds a binary operation on constants.
+	 *
+	 * @param operation the operation
+	 * @param left the left operand, or {@code null} if it is not known
+	 * @param right the right operand, or {@code null} if it is not known
+	 * @return the result, or {@code null} if it is not known
+	 */
+
+	private static Object fold(BinOpBytecode operation, Object left, Object right) {
+		if (operation instanceof ArithmeticBinOpBytecode) {
+			if (left instanceof Integer && right instanceof Integer) {
+				int l = (Integer) left, r = (Integer) right;
+
+				if (operation instanceof ADD)
+					return l + r;
+				else if (operation instanceof SUB)
+					return l - r;
+				else if (operation instanceof MUL)
+					return l * r;
+				else if (operation instanceof DIV && r != 0)
+					// a division by zero must fail at run-time
+					return l / r;
+			}
+			else if (left instanceof Float && right instanceof Float) {
+				float l = (Float) left, r = (Float) right;
+
+				if (operation instanceof ADD)
+					return l + r;
+				else if (operation instanceof SUB)
+					return l - r;
+				else if (operation instanceof MUL)
+					return l * r;
+				else if (operation instanceof DIV)
+					return l / r;
+			}
+		}
+		else if (operation instanceof ComparisonBinOpBytecode) {
+			Integer comparison = compare(left, right);
+			if (comparison != null)
+				return test(operation, comparison);
+		}
+		else if (left instanceof Boolean && right instanceof Boolean) {
+			if (operation instanceof AND)
+				return (Boolean) left & (Boolean) right;
+			else if (operation instanceof OR)
+				return (Boolean) left | (Boolean) right;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Compares two constants, as done by the Java bytecode generated for the
+	 * Kitten comparisons. Floating-point values are compared by {@code fcmpl},
+	 * hence a comparison with a {@code NaN} yields -1.
+	 *
+	 * @param left the left constant, or {@code null} if it is not known
+	 * @param right the right constant, or {@code null} if it is not known
+	 * @return a negative, zero or positive value if {@code left} is smaller than,
+	 *         equal to or larger than {@code right}, respectively. Yields
+	 *         {@code null} if the constants are unknown or not comparable
+	 */
+
+	private static Integer compare(Object left, Object right) {
+		if (left instanceof Integer && right instanceof Integer)
+			return Integer.compare((Integer) left, (Integer) right);
+		else if (left instanceof Float && right instanceof Float) {
+			float l = (Float) left, r = (Float) right;
+			return l > r ? 1 : l == r ? 0 : -1;
+		}
+		else if (left instanceof Boolean && right instanceof Boolean)
+			// Booleans are only compared for equality
+			return left.equals(right) ? 0 : 1;
+		else
+			return null;
+	}
+
+	/**
+	 * Yields the outcome of a comparison bytecode.
+	 *
+	 * @param comparison the comparison bytecode, possibly branching
+	 * @param result the comparison of its operands, as computed by {@link #compare(Object, Object)}
+	 * @return the outcome of {@code comparison}
+	 */
+
+	private static boolean test(Bytecode comparison, int result) {
+		if (comparison instanceof EQ || comparison instanceof IF_CMPEQ)
+			return result == 0;
+		else if (comparison instanceof NE || comparison instanceof IF_CMPNE)
+			return result != 0;
+		else if (comparison instanceof LT || comparison instanceof IF_CMPLT)
+			return result < 0;
+		else if (comparison instanceof LE || comparison instanceof IF_CMPLE)
+			return result <= 0;
+		else if (comparison instanceof GT || comparison instanceof IF_CMPGT)
+			return result > 0;
+		else if (comparison instanceof GE || comparison instanceof IF_CMPGE)
+			return result >= 0;
+		else
+			throw new IllegalArgumentException("Unexpected comparison " + comparison);
+	}
+
+	/**
+	 * An abstract state of the Kitten virtual machine: the constant value
+	 * of each local variable and of each stack element, if known. Unknown
+	 * values are {@code null}. Constants are {@link Integer}s, {@link Float}s and {@link Boolean}s.
+	 */
+
+	private static class State {
+
+		/**
+		 * The values of the local variables.
+		 */
+
+		private final Object[] locals;
+
+		/**
+		 * The values of the stack elements, from the bottom.
+		 */
+
+		private Object[] stack;
+
+		/**
+		 * The number of elements in the stack.
+		 */
+
+		private int size;
+
+		/**
+		 * Builds a state with unknown local variables and empty stack.
+		 *
+		 * @param locals the number of local variables
+		 */
+
+		private State(int locals) {
+			this.locals = new Object[locals];
+			this.stack = new Object[8];
+		}
+
+		/**
+		 * Builds a copy of the given state.
+		 *
+		 * @param other the state to copy
+		 */
+
+		private State(State other) {
+			this.locals = other.locals.clone();
+			this.stack = other.stack.clone();
+			this.size = other.size;
+		}
+
+		/**
+		 * Yields a copy of this state.
+		 *
+		 * @return the copy
+		 */
+
+		private State copy() {
+			return new State(this);
+		}
+
+		/**
+		 * Joins another state into this, by forgetting the values that differ.
+		 *
+		 * @param other the other state. It must have the same number of stack elements
+		 * @return true if and only if this state has been modified
+		 */
+
+		private boolean join(State other) {
+			boolean changed = false;
+
+			for (int pos = 0; pos < locals.length; pos++)
+				if (locals[pos] != null && !locals[pos].equals(other.locals[pos])) {
+					locals[pos] = null;
+					changed = true;
+				}
+
+			for (int pos = 0; pos < size; pos++)
+				if (stack[pos] != null && !stack[pos].equals(other.stack[pos])) {
+					stack[pos] = null;
+					changed = true;
+				}
+
+			return changed;
+		}
+
+		private void push(Object value) {
+			if (size == stack.length)
+				stack = Arrays.copyOf(stack, size * 2);
+
+			stack[size++] = value;
+		}
+
+		private Object pop() {
+			return stack[--size];
+		}
+
+		private void pop(int count) {
+			while (count-- > 0)
+				stack[--size] = null;
+		}
+
+		/**
+		 * Yields an element of the stack.
+		 *
+		 * @param depth the depth of the element, 0 for the top of the stack
+		 * @return the value of the element, or {@code null} if it is not known
+		 */
+
+		private Object peek(int depth) {
+			return stack[size - 1 - depth];
+		}
+
+		/**
+		 * Yields the constant pushed on the stack by a bytecode that
+		 * loads a local variable or that can be folded.
+		 *
+		 * @param bytecode the bytecode
+		 * @return the constant, or {@code null} if it is not known or if
+		 *         {@code bytecode} is not a load nor can be folded
+		 */
+
+		private Object evaluate(Bytecode bytecode) {
+			Object result = null;
+
+			if (bytecode instanceof LOAD)
+				result = locals[((LOAD) bytecode).getVarNum()];
+			else if (bytecode instanceof BinOpBytecode)
+				result = fold((BinOpBytecode) bytecode, peek(1), peek(0));
+			else if (bytecode instanceof NEG) {
+				Object value = peek(0);
+				if (value instanceof Integer)
+					result = -(Integer) value;
+				else if (value instanceof Float)
+					result = -(Float) value;
+				else if (value instanceof Boolean)
+					result = !(Boolean) value;
+			}
+			else if (bytecode instanceof CAST && ((CAST) bytecode).getIntoType() instanceof NumericalType) {
+				Object value = peek(0);
+				if (value instanceof Integer)
+					result = (float) (Integer) value;
+				else if (value instanceof Float)
+					result = (int) (float) (Float) value;
+			}
+
+			// BCEL would push the negative zero as a positive zero
+			if (result instanceof Float && Float.floatToIntBits((Float) result) == NEGATIVE_ZERO)
+				return null;
+			else
+				return result;
+		}
+
+		/**
+		 * Executes a bytecode on this abstract state.
+		 *
+		 * @param bytecode the bytecode
+		 */
+
+		private void execute(Bytecode bytecode) {
+			if (bytecode instanceof CONST)
+				push(((CONST) bytecode).getConstant());
+			else if (bytecode instanceof LOAD)
+				push(locals[((LOAD) bytecode).getVarNum()]);
+			else if (bytecode instanceof STORE)
+				locals[((STORE) bytecode).getVarNum()] = pop();
+			else if (bytecode instanceof BinOpBytecode) {
+				Object result = evaluate(bytecode);
+				pop(2);
+				push(result);
+			}
+			else if (bytecode instanceof NEG || bytecode instanceof CAST) {
+				Object result = evaluate(bytecode);
+				pop(1);
+				push(result);
+			}
+			else if (bytecode instanceof DUP)
+				push(peek(0));
+			else if (bytecode instanceof POP || bytecode instanceof NULLCHECK)
+				pop(1);
+			else if (bytecode instanceof NEW || bytecode instanceof NEWSTRING || bytecode instanceof NEWBUILDER)
+				push(null);
+			else if (bytecode instanceof NEWARRAY) {
+				pop(((NEWARRAY) bytecode).getDimensions());
+				push(null);
+			}
+			else if (bytecode instanceof APPEND) {
+				// the builder stays on the stack, above which there is the appended value, if not a constant
+				if (((APPEND) bytecode).getConstant() == null)
+					pop(1);
+			}
+			else if (bytecode instanceof ARRAYLOAD || bytecode instanceof GETFIELD || bytecode instanceof BUILDSTRING) {
+				pop(bytecode instanceof ARRAYLOAD ? 2 : 1);
+				push(null);
+			}
+			else if (bytecode instanceof ARRAYSTORE)
+				pop(3);
+			else if (bytecode instanceof PUTFIELD)
+				pop(2);
+			else if (bytecode instanceof CALL) {
+				CodeSignature target = ((CALL) bytecode).getStaticTarget();
+				pop(target.getParameters().getSize() + 1);
+				for (int count = target.getReturnType().getSize(); count > 0; count--)
+					push(null);
+			}
+			else if (bytecode instanceof BranchingConstantComparisonBytecode)
+				pop(1);
+			else if (bytecode instanceof BranchingComparisonBytecode)
+				pop(2);
+			else if (!(bytecode instanceof NOP || bytecode instanceof RETURN))
+				throw new IllegalStateException("Unexpected bytecode " + bytecode);
+		}
+	}
+}
@@ -0,0 +1,291 @@
+package optimization;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import translation.Block;
+import translation.BlockWalker;
+
+/**
+ * A monotone dataflow analysis over the graph of blocks of a constructor or method.
+ * The facts of the analysis are numbered from {@code 0} and a set of facts
+ * is a bitset. The analysis can be forward or backward and it can be a
+ * <i>may</i> analysis, where the facts coming from different blocks are
+ * merged by union, or a <i>must</i> analysis, where they are merged by intersection.
+ * The blocks are kept in reverse postorder and the fixpoint is computed with a
+ * worklist that always selects the pending block that comes first in that order
+ * (in postorder, for backward analyses). Hence the body of a loop is analysed
+ * before the analysis goes back to the pivot block that closes the loop, and
+ * the fixpoint is reached in very few iterations.
+ * Subclasses specify the facts and their transfer function and then call {@link #solve()}.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public abstract class Dataflow {
+
+	/**
+	 * True if and only if this analysis is forward.
+	 */
+
+	private final boolean forward;
+
+	/**
+	 * The blocks reachable from the start of the code, in reverse postorder.
+	 */
+
+	private final Block[] blocks;
+
+	/**
+	 * The position of each block inside {@link #blocks}.
+	 */
+
+	private final Map<Block, Integer> positions = new HashMap<>();
+
+	/**
+	 * The positions of the predecessors of each block, indexed by the position of the block.
+	 */
+
+	private final int[][] predecessors;
+
+	/**
+	 * The positions of the followers of each block, indexed by the position of the block.
+	 */
+
+	private final int[][] followers;
+
+	/**
+	 * The facts holding at the beginning of each block, indexed by the position of the block.
+	 */
+
+	private BitSet[] entries;
+
+	/**
+	 * The facts holding at the end of each block, indexed by the position of the block.
+	 */
+
+	private BitSet[] exits;
+
+	/**
+	 * The number of applications of the transfer function needed to reach the fixpoint.
+	 */
+
+	private int iterations;
+
+	/**
+	 * Builds the graph of blocks of an analysis. The analysis is not computed yet.
+	 *
+	 * @param start the block where the code starts
+	 * @param forward true if and only if the analysis is forward
+	 */
+
+	protected Dataflow(Block start, boolean forward) {
+		this.forward = forward;
+
+		final List<Block> postorder = new ArrayList<>();
+		new BlockWalker() {
+
+			@Override
+			protected void exit(Block block) {
+				postorder.add(block);
+			}
+		}.walk(start);
+
+		Collections.reverse(postorder);
+		this.blocks = postorder.toArray(new Block[postorder.size()]);
+		for (int pos = 0; pos < blocks.length; pos++)
+			positions.put(blocks[pos], pos);
+
+		// we count the predecessors first, so that they can be kept in arrays
+		int[] counts = new int[blocks.length];
+		this.followers = new int[blocks.length][];
+		for (int pos = 0; pos < blocks.length; pos++) {
+			List<Block> follows = blocks[pos].getFollows();
+			followers[pos] = new int[follows.size()];
+
+			for (int f = 0; f < followers[pos].length; f++)
+				counts[followers[pos][f] = positions.get(follows.get(f))]++;
+		}
+
+		this.predecessors = new int[blocks.length][];
+		for (int pos = 0; pos < blocks.length; pos++)
+			predecessors[pos] = new int[counts[pos]];
+
+		for (int pos = 0; pos < blocks.length; pos++)
+			for (int follower: followers[pos])
+				predecessors[follower][--counts[follower]] = pos;
+	}
+
+	/**
+	 * Yields the blocks of the code, in reverse postorder. The first is the start of the code.
+	 *
+	 * @return the blocks
+	 */
+
+	public final List<Block> getBlocks() {
+		return Collections.unmodifiableList(Arrays.asList(blocks));
+	}
+
+	/**
+	 * Yields the blocks that are followed by the given one.
+	 *
+	 * @param block the block
+	 * @return the predecessors of {@code block}
+	 */
+
+	public final List<Block> getPredecessors(Block block) {
+		List<Block> result = new ArrayList<>();
+		for (int pos: predecessors[positionOf(block)])
+			result.add(blocks[pos]);
+
+		return result;
+	}
+
+	/**
+	 * Yields the facts holding at the beginning of the given block.
+	 *
+	 * @param block the block
+	 * @return the facts. They can be freely modified
+	 */
+
+	public final BitSet getEntry(Block block) {
+		return (BitSet) entries[positionOf(block)].clone();
+	}
+
+	/**
+	 * Yields the facts holding at the end of the given block.
+	 *
+	 * @param block the block
+	 * @return the facts. They can be freely modified
+	 */
+
+	public final BitSet getExit(Block block) {
+		return (BitSet) exits[positionOf(block)].clone();
+	}
+
+	/**
+	 * Yields the number of applications of the transfer function
+	 * that have been needed to reach the fixpoint.
+	 *
+	 * @return the number of applications
+	 */
+
+	public final int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Yields the number of the facts of this analysis. They are numbered from {@code 0}.
+	 *
+	 * @return the number of facts
+	 */
+
+	protected abstract int size();
+
+	/**
+	 * Determines if this is a <i>must</i> analysis, where the facts coming
+	 * from different blocks are merged by intersection, rather than by union.
+	 *
+	 * @return true if and only if this is a <i>must</i> analysis
+	 */
+
+	protected abstract boolean isMust();
+
+	/**
+	 * Yields the facts holding at the beginning of the code, for a forward analysis,
+	 * or at the end of the blocks without followers, for a backward analysis.
+	 *
+	 * @return the facts
+	 */
+
+	protected abstract BitSet boundary();
+
+	/**
+	 * Transforms the facts holding before the given block into those holding after it,
+	 * in the direction of the analysis.
+	 *
+	 * @param block the block
+	 * @param facts the facts, that must be modified in place
+	 */
+
+	protected abstract void transfer(Block block, BitSet facts);
+
+	/**
+	 * Computes the fixpoint of this analysis. It must be called by the
+	 * constructors of the subclasses, once they are ready to answer
+	 * {@link #size()}, {@link #boundary()} and {@link #transfer(Block, BitSet)}.
+	 */
+
+	protected final void solve() {
+		int n = blocks.length;
+		boolean must = isMust();
+		BitSet boundary = boundary();
+
+		// the facts before and after each block, in the direction of the analysis
+		BitSet[] before = new BitSet[n], after = new BitSet[n];
+		for (int pos = 0; pos < n; pos++) {
+			after[pos] = new BitSet();
+			if (must)
+				after[pos].set(0, size());
+		}
+
+		// positions in the worklist are ranks in the order of the analysis
+		BitSet pending = new BitSet(n);
+		pending.set(0, n);
+
+		for (int rank = pending.nextSetBit(0); rank >= 0; rank = pending.nextSetBit(0)) {
+			pending.clear(rank);
+			int pos = forward ? rank : n - 1 - rank;
+			int[] sources = forward ? predecessors[pos] : followers[pos];
+
+			BitSet facts;
+			if (forward ? pos == 0 : sources.length == 0)
+				facts = (BitSet) boundary.clone();
+			else
+				facts = null;
+
+			for (int source: sources)
+				if (facts == null)
+					facts = (BitSet) after[source].clone();
+				else if (must)
+					facts.and(after[source]);
+				else
+					facts.or(after[source]);
+
+			before[pos] = (BitSet) facts.clone();
+			transfer(blocks[pos], facts);
+			iterations++;
+
+			if (!facts.equals(after[pos])) {
+				after[pos] = facts;
+
+				for (int target: forward ? followers[pos] : predecessors[pos])
+					pending.set(forward ? target : n - 1 - target);
+			}
+		}
+
+		this.entries = forward ? before : after;
+		this.exits = forward ? after : before;
+	}
+
+	/**
+	 * Yields the position of a block inside {@link #blocks}.
+	 *
+	 * @param block the block
+	 * @return the position
+	 * @throws IllegalArgumentException if {@code block} is not reachable from the start of the code
+	 */
+
+	private int positionOf(Block block) {
+		Integer pos = positions.get(block);
+		if (pos == null)
+			throw new IllegalArgumentException("Unreachable block " + block);
+
+		return pos;
+	}
+}
@@ -0,0 +1,121 @@
+package optimization;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import translation.Block;
+import translation.Program;
+import types.ClassMemberSignature;
+import types.CodeSignature;
+import bytecode.Bytecode;
+import bytecode.BytecodeList;
+import bytecode.CONST;
+import bytecode.DUP;
+import bytecode.LOAD;
+import bytecode.NOP;
+import bytecode.POP;
+import bytecode.STORE;
+
+/**
+ * A pass that removes the stores into local variables whose value is never
+ * read, as computed by a {@link ReachingDefinitions} analysis: a store is dead
+ * if it reaches no load of its variable. This is typically the case of the
+ * variables whose loads have been replaced by constant folding. A dead store
+ * is removed together with the bytecode that pushes the stored value, if that
+ * is a {@code const}, a {@code load} or a {@code dup}, and it becomes a
+ * {@code pop} otherwise, so that the computation of the value, with its side
+ * effects and exceptions, is kept. Since the removal of a store might make
+ * the stores of the variables that it loads dead as well, the analysis is
+ * repeated until no dead store is left.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class DeadStoreElimination extends Pass {
+
+	/**
+	 * Builds the pass. It is run after constant folding, that replaces
+	 * with constants the loads of the variables that hold a constant.
+	 */
+
+	public DeadStoreElimination() {
+		super("dead-stores", 1, "constant-folding");
+	}
+
+	@Override
+	public String run(Program program) {
+		// the number of dead stores, and the blocks and iterations of the analyses
+		int[] statistics = new int[3];
+
+		for (ClassMemberSignature sig: program.getSigs())
+			if (sig instanceof CodeSignature && ((CodeSignature) sig).getCode() != null) {
+				// the removal of a store might make other stores dead, hence we repeat it
+				boolean removed;
+				do {
+					removed = eliminate(((CodeSignature) sig).getCode(), statistics);
+				}
+				while (removed);
+			}
+
+		// the removed stores might have left isolated nop's
+		program.cleanUp();
+
+		return statistics[0] + " dead stores removed, reaching definitions computed in "
+			+ statistics[2] + " iterations over " + statistics[1] + " blocks";
+	}
+
+	/**
+	 * Removes the dead stores of the given code.
+	 *
+	 * @param start the block where the code starts
+	 * @param statistics the number of dead stores, and the blocks and iterations
+	 *                   of the analyses so far, that gets updated
+	 * @return true if and only if some dead store has been removed
+	 */
+
+	private static boolean eliminate(Block start, int[] statistics) {
+		ReachingDefinitions analysis = new ReachingDefinitions(start);
+		statistics[1] += analysis.getBlocks().size();
+		statistics[2] += analysis.getIterations();
+
+		BitSet used = analysis.getUsedDefinitions();
+		if (used.cardinality() == analysis.size())
+			return false;
+
+		for (Block block: analysis.getBlocks()) {
+			List<Bytecode> result = new ArrayList<>();
+			int number = analysis.getFirstDefinitionIn(block);
+			boolean changed = false;
+
+			for (Bytecode bytecode: block.getBytecode()) {
+				if (bytecode instanceof STORE && !used.get(number)) {
+					int last = result.size() - 1;
+
+					// we remove the push of the stored value, if it has no effect
+					if (last >= 0 && (result.get(last) instanceof CONST || result.get(last) instanceof LOAD || result.get(last) instanceof DUP))
+						result.remove(last);
+					else
+						result.add(new POP(((STORE) bytecode).getType()));
+
+					statistics[0]++;
+					changed = true;
+				}
+				else
+					result.add(bytecode);
+
+				if (bytecode instanceof STORE)
+					number++;
+			}
+
+			if (changed) {
+				if (result.isEmpty())
+					result.add(new NOP());
+
+				block.setBytecode(new BytecodeList(result));
+			}
+		}
+
+		return true;
+	}
+}
@@ -0,0 +1,105 @@
+package optimization;
+
+import java.util.Set;
+
+import tables.Symbol;
+import translation.Block;
+import translation.BlockWalker;
+import translation.Program;
+import types.ClassMemberSignature;
+import types.ClassType;
+import types.CodeSignature;
+import types.MethodSignature;
+import bytecode.Bytecode;
+import bytecode.VIRTUALCALL;
+
+/**
+ * A pass that lets the Java virtual machine bind the calls of the program
+ * statically. The Java classes generated for the classes without subclasses
+ * are made {@code final} and so are the Java methods that are never overridden.
+ * A call whose static target is {@code final} has a single dynamic target
+ * and its {@code invokevirtual} is bound without any lookup, so that it can be
+ * inlined by the just-in-time compiler. The pass also reports how many call sites
+ * are monomorphic, that is, have a single dynamic target, and how many are polymorphic.
+ * It assumes that the program is closed, that is, that no other class
+ * extends the classes of the program: this is why it is only enabled at level 2.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class Devirtualization extends Pass {
+
+	/**
+	 * Builds the pass.
+	 */
+
+	public Devirtualization() {
+		super("devirtualization", 2);
+	}
+
+	@Override
+	public String run(Program program) {
+		int finalClasses = 0, finalMethods = 0;
+
+		for (ClassType clazz: ClassType.getAll()) {
+			boolean isFinal = !clazz.getSubclasses().iterator().hasNext();
+			clazz.setFinal(isFinal);
+			if (isFinal)
+				finalClasses++;
+
+			for (Set<MethodSignature> methods: clazz.getMethods().values())
+				for (MethodSignature method: methods)
+					// the main method is static and cannot be overridden anyway
+					if (method.getName() != Symbol.MAIN && !isOverridden(method)) {
+						method.setFinal(true);
+						finalMethods++;
+					}
+		}
+
+		return report(program, finalClasses, finalMethods);
+	}
+
+	/**
+	 * Determines if a method is overridden in some subclass of its defining class.
+	 *
+	 * @param method the method
+	 * @return true if and only if {@code method} is overridden
+	 */
+
+	private static boolean isOverridden(MethodSignature method) {
+		for (ClassType subclass: method.getDefiningClass().getInstances())
+			if (subclass.methodLookup(method.getName(), method.getParameters()) != method)
+				return true;
+
+		return false;
+	}
+
+	/**
+	 * Counts the monomorphic and polymorphic call sites of the given program.
+	 *
+	 * @param program the program
+	 * @param finalClasses the number of classes that have been made {@code final}
+	 * @param finalMethods the number of methods that have been made {@code final}
+	 * @return the number of monomorphic and polymorphic call sites and of {@code final} classes and methods
+	 */
+
+	private static String report(Program program, int finalClasses, int finalMethods) {
+		// the number of monomorphic and of polymorphic call sites
+		final int[] sites = new int[2];
+
+		for (ClassMemberSignature sig: program.getSigs())
+			if (sig instanceof CodeSignature && ((CodeSignature) sig).getCode() != null)
+				new BlockWalker() {
+
+					@Override
+					protected void enter(Block block) {
+						for (Bytecode bytecode: block.getBytecode())
+							if (bytecode instanceof VIRTUALCALL)
+								sites[((VIRTUALCALL) bytecode).isMonomorphic() ? 0 : 1]++;
+					}
+				}.walk(((CodeSignature) sig).getCode());
+
+		return sites[0] + " monomorphic and " + sites[1]
+			+ " polymorphic call sites, " + finalClasses + " final classes, " + finalMethods + " final methods";
+	}
+}
@@ -0,0 +1,348 @@
+package optimization;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.bcel.generic.ObjectType;
+
+import tables.Symbol;
+import translation.Block;
+import translation.BlockWalker;
+import translation.Program;
+import types.ClassMemberSignature;
+import types.ClassType;
+import types.CodeSignature;
+import types.MethodSignature;
+import types.Type;
+import types.TypeList;
+import bytecode.BranchingBytecode;
+import bytecode.Bytecode;
+import bytecode.BytecodeList;
+import bytecode.CAST;
+import bytecode.DUP;
+import bytecode.LOAD;
+import bytecode.NOP;
+import bytecode.NULLCHECK;
+import bytecode.RETURN;
+import bytecode.STORE;
+import bytecode.VIRTUALCALL;
+
+/**
+ * A pass that inlines the calls to small methods. A call is inlined if it is
+ * monomorphic, that is, it has a single dynamic target, and the code of that
+ * target has at most {@link #getBudget()} Kitten bytecodes. The block of the call
+ * is split: the first half stores the receiver and the actual parameters into
+ * fresh local variables, after checking that the receiver is not {@code nil},
+ * and continues with a copy of the code of the target, whose local variables
+ * are renamed into those fresh variables. The {@code return} bytecodes of the
+ * copy continue with the second half of the block of the call, where the
+ * returned value, if any, is on top of the stack. A method is never inlined into
+ * itself and the code that has been inlined into a method is not inlined again,
+ * so that the pass terminates. Hence a directly recursive method is never unfolded,
+ * while mutually recursive methods can be unfolded by one level: if {@code a}
+ * calls {@code b} and {@code b} calls {@code a}, then {@code a} might have been
+ * already inlined into {@code b} when {@code b} gets inlined into {@code a}.
+ * Since a monomorphic call might become polymorphic if other classes extend
+ * the classes of the program, this pass is only enabled at level 2.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class Inlining extends Pass {
+
+	/**
+	 * The default maximal number of Kitten bytecodes of an inlined method.
+	 */
+
+	public final static int DEFAULT_BUDGET = 20;
+
+	/**
+	 * The maximal number of Kitten bytecodes of an inlined method.
+	 */
+
+	private static volatile int budget = DEFAULT_BUDGET;
+
+	/**
+	 * Builds the pass. It is run after rapid type analysis, that makes
+	 * more calls monomorphic and hence candidates for inlining, and after
+	 * the fusion of the chains of concatenations, that are only recognised
+	 * inside a block, while inlining splits the block of each inlined call.
+	 */
+
+	public Inlining() {
+		super("inlining", 2, "rta", "string-concat");
+	}
+
+	/**
+	 * Yields the maximal number of Kitten bytecodes of an inlined method.
+	 *
+	 * @return the maximal number of bytecodes
+	 */
+
+	public static int getBudget() {
+		return budget;
+	}
+
+	/**
+	 * Sets the maximal number of Kitten bytecodes of an inlined method.
+	 *
+	 * @param budget the maximal number of bytecodes
+	 * @throws IllegalArgumentException if {@code budget} is negative
+	 */
+
+	public static void setBudget(int budget) {
+		if (budget < 0)
+			throw new IllegalArgumentException("The inlining budget cannot be negative");
+
+		Inlining.budget = budget;
+	}
+
+	@Override
+	public String run(Program program) {
+		List<CodeSignature> callers = new ArrayList<>();
+		for (ClassMemberSignature sig: program.getSigs())
+			if (sig instanceof CodeSignature && ((CodeSignature) sig).getCode() != null)
+				callers.add((CodeSignature) sig);
+
+		// the signatures of the program are not ordered, hence we sort
+		// the callers, so that the result does not depend on hashing
+		Collections.sort(callers, new Comparator<CodeSignature>() {
+
+			@Override
+			public int compare(CodeSignature sig1, CodeSignature sig2) {
+				return sig1.toString().compareTo(sig2.toString());
+			}
+		});
+
+		int inlined = 0;
+		for (CodeSignature caller: callers)
+			inlined += inlineCallsOf(caller);
+
+		// the inlined code might have left isolated nop's
+		program.cleanUp();
+
+		return inlined + " call sites inlined, with a budget of " + budget + " bytecodes";
+	}
+
+	/**
+	 * Inlines the calls inside the code of the given constructor or method.
+	 *
+	 * @param caller the constructor or method
+	 * @return the number of inlined calls
+	 */
+
+	private int inlineCallsOf(CodeSignature caller) {
+		Deque<Block> worklist = new ArrayDeque<>(blocksOf(caller.getCode()));
+		int next = localsOf(caller, worklist);
+		int inlined = 0;
+
+		while (!worklist.isEmpty()) {
+			Block block = worklist.pop();
+			BytecodeList code = block.getBytecode();
+
+			for (int pos = 0; pos < code.size(); pos++) {
+				MethodSignature target = inlineableTarget(caller, code.get(pos));
+
+				if (target != null) {
+					// the rest of the block might contain other calls to inline
+					worklist.push(inline(block, pos, (VIRTUALCALL) code.get(pos), target, next));
+					next += localsOf(target, blocksOf(target.getCode()));
+					inlined++;
+					break;
+				}
+			}
+		}
+
+		return inlined;
+	}
+
+	/**
+	 * Yields the method that can be inlined in place of the given bytecode.
+	 *
+	 * @param caller the constructor or method that contains {@code bytecode}
+	 * @param bytecode the bytecode
+	 * @return the method, or {@code null} if {@code bytecode} cannot be replaced
+	 *         by an inlined method
+	 */
+
+	private MethodSignature inlineableTarget(CodeSignature caller, Bytecode bytecode) {
+		if (!(bytecode instanceof VIRTUALCALL) || !((VIRTUALCALL) bytecode).isMonomorphic())
+			return null;
+
+		CodeSignature target = ((VIRTUALCALL) bytecode).getDynamicTargets().iterator().next();
+		if (target == caller || !(target instanceof MethodSignature) || target.getCode() == null)
+			return null;
+
+		// the methods of String are implemented in Java by runTime.String:
+		// their Kitten code is just a stub and cannot be inlined
+		ClassType clazz = target.getDefiningClass();
+		if (!((ObjectType) clazz.toBCEL()).getClassName().equals(clazz.getName()))
+			return null;
+
+		// the first block of the target cannot start with a condition, since it
+		// would become a follower of the block of the call, that does not branch
+		if (target.getCode().getBytecode().getHead() instanceof BranchingBytecode)
+			return null;
+
+		int size = 0;
+		for (Block block: blocksOf(target.getCode()))
+			size += block.getBytecode().size();
+
+		return size <= budget ? (MethodSignature) target : null;
+	}
+
+	/**
+	 * Inlines a call.
+	 *
+	 * @param block the block that contains the call
+	 * @param pos the position of the call inside {@code block}
+	 * @param call the call
+	 * @param target the method that gets inlined
+	 * @param base the number of the first fresh local variable of the caller.
+	 *             The local variables of {@code target} are renamed from it
+	 * @return the block where the execution continues after the inlined method.
+	 *         It contains the bytecodes of {@code block} after the call
+	 */
+
+	private static Block inline(Block block, int pos, VIRTUALCALL call, MethodSignature target, int base) {
+		BytecodeList code = block.getBytecode();
+
+		// the bytecodes after the call go into a new block, with the same followers
+		List<Bytecode> after = new ArrayList<>();
+		for (int cursor = pos + 1; cursor < code.size(); cursor++)
+			after.add(code.get(cursor));
+
+		if (after.isEmpty())
+			after.add(new NOP());
+
+		Block continuation = new Block(new BytecodeList(after), new ArrayList<>(block.getFollows()));
+
+		// the bytecodes before the call are followed by the stores of the actual parameters,
+		// from the last, that is on top of the stack, and of the receiver, after checking it
+		List<Bytecode> before = new ArrayList<>();
+		for (int cursor = 0; cursor < pos; cursor++)
+			before.add(code.get(cursor));
+
+		List<Type> formals = new ArrayList<>();
+		for (TypeList cursor = target.getParameters(); cursor != TypeList.EMPTY; cursor = cursor.getTail())
+			formals.add(cursor.getHead());
+
+		for (int par = formals.size(); par > 0; par--)
+			before.add(new STORE(base + par, formals.get(par - 1)));
+
+		before.add(new DUP(call.getReceiverType()));
+		before.add(new NULLCHECK());
+
+		// the inlined code reads the receiver as an instance of the class of the target,
+		// that might be a subclass of the static type of the receiver: since the target
+		// is the only dynamic target of the call, the cast cannot fail
+		if (call.getReceiverType() != target.getDefiningClass())
+			before.add(new CAST(call.getReceiverType(), target.getDefiningClass()));
+
+		before.add(new STORE(base, target.getDefiningClass()));
+
+		block.setBytecode(new BytecodeList(before));
+		block.getFollows().clear();
+		block.getFollows().add(copy(target.getCode(), base, continuation));
+
+		return continuation;
+	}
+
+	/**
+	 * Copies the code of a method, renaming its local variables
+	 * and making it continue at a given block rather than returning.
+	 *
+	 * @param start the block where the code of the method starts
+	 * @param base the number the local variables are renamed from
+	 * @param continuation the block where the copy continues after returning
+	 * @return the block where the copy starts
+	 */
+
+	private static Block copy(Block start, int base, Block continuation) {
+		List<Block> blocks = blocksOf(start);
+		Map<Block, Block> copies = new HashMap<>();
+
+		for (Block block: blocks) {
+			List<Bytecode> code = new ArrayList<>();
+			boolean returns = false;
+
+			for (Bytecode bytecode: block.getBytecode())
+				if (bytecode instanceof LOAD)
+					code.add(new LOAD(base + ((LOAD) bytecode).getVarNum(), ((LOAD) bytecode).getType()));
+				else if (bytecode instanceof STORE)
+					code.add(new STORE(base + ((STORE) bytecode).getVarNum(), ((STORE) bytecode).getType()));
+				else if (bytecode instanceof RETURN)
+					// the returned value, if any, is left on top of the stack
+					returns = true;
+				else
+					code.add(bytecode);
+
+			if (code.isEmpty())
+				code.add(new NOP());
+
+			List<Block> follows = new ArrayList<>();
+			if (returns)
+				follows.add(continuation);
+
+			copies.put(block, new Block(new BytecodeList(code), follows));
+		}
+
+		for (Block block: blocks)
+			for (Block follow: block.getFollows())
+				copies.get(block).getFollows().add(copies.get(follow));
+
+		return copies.get(start);
+	}
+
+	/**
+	 * Yields the blocks reachable from the given one, in depth-first order.
+	 *
+	 * @param start the block
+	 * @return the blocks
+	 */
+
+	private static List<Block> blocksOf(Block start) {
+		final List<Block> blocks = new ArrayList<>();
+
+		new BlockWalker() {
+
+			@Override
+			protected void enter(Block block) {
+				blocks.add(block);
+			}
+		}.walk(start);
+
+		return blocks;
+	}
+
+	/**
+	 * Yields the number of local variables used by a constructor or method,
+	 * including its receiver, if any, and its parameters.
+	 *
+	 * @param sig the constructor or method
+	 * @param blocks the blocks of its code
+	 * @return the number of local variables
+	 */
+
+	private static int localsOf(CodeSignature sig, Iterable<Block> blocks) {
+		// the main method is static and does not receive parameters from Kitten
+		int locals = sig.getParameters().getSize();
+		if (!(sig instanceof MethodSignature && sig.getName() == Symbol.MAIN))
+			locals++;
+
+		for (Block block: blocks)
+			for (Bytecode bytecode: block.getBytecode())
+				if (bytecode instanceof LOAD)
+					locals = Math.max(locals, ((LOAD) bytecode).getVarNum() + 1);
+				else if (bytecode instanceof STORE)
+					locals = Math.max(locals, ((STORE) bytecode).getVarNum() + 1);
+
+		return locals;
+	}
+}
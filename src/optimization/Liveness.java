@@ -0,0 +1,98 @@
+package optimization;
+
+import java.util.BitSet;
+
+import translation.Block;
+import bytecode.Bytecode;
+import bytecode.BytecodeList;
+import bytecode.LOAD;
+import bytecode.STORE;
+
+/**
+ * The liveness analysis of the local variables of a constructor or method.
+ * A local variable is live at a program point if its value might be read
+ * later, before being overwritten. The facts of the analysis are the numbers
+ * of the live local variables.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class Liveness extends Dataflow {
+
+	/**
+	 * The number of local variables used in the code.
+	 */
+
+	private final int locals;
+
+	/**
+	 * Computes the liveness analysis of the given code.
+	 *
+	 * @param start the block where the code starts
+	 */
+
+	public Liveness(Block start) {
+		super(start, false);
+
+		int max = 0;
+		for (Block block: getBlocks())
+			for (Bytecode bytecode: block.getBytecode())
+				if (bytecode instanceof LOAD)
+					max = Math.max(max, ((LOAD) bytecode).getVarNum() + 1);
+				else if (bytecode instanceof STORE)
+					max = Math.max(max, ((STORE) bytecode).getVarNum() + 1);
+
+		this.locals = max;
+
+		solve();
+	}
+
+	/**
+	 * Yields the number of local variables used in the code, that is,
+	 * the largest number of a local variable that is loaded or stored, plus one.
+	 *
+	 * @return the number of local variables
+	 */
+
+	public int getLocals() {
+		return locals;
+	}
+
+	/**
+	 * Transforms the variables live after the given bytecode into
+	 * those live before it.
+	 *
+	 * @param bytecode the bytecode
+	 * @param live the variables live after {@code bytecode}, modified in place
+	 */
+
+	public static void transfer(Bytecode bytecode, BitSet live) {
+		if (bytecode instanceof STORE)
+			live.clear(((STORE) bytecode).getVarNum());
+		else if (bytecode instanceof LOAD)
+			live.set(((LOAD) bytecode).getVarNum());
+	}
+
+	@Override
+	protected int size() {
+		return locals;
+	}
+
+	@Override
+	protected boolean isMust() {
+		return false;
+	}
+
+	@Override
+	protected BitSet boundary() {
+		// no variable is live at the end of the code
+		return new BitSet(locals);
+	}
+
+	@Override
+	protected void transfer(Block block, BitSet facts) {
+		BytecodeList code = block.getBytecode();
+		for (int pos = code.size() - 1; pos >= 0; pos--)
+			transfer(code.get(pos), facts);
+	}
+}
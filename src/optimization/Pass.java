@@ -0,0 +1,95 @@
+package optimization;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import translation.Program;
+
+/**
+ * A transformation of the Kitten bytecode of a program. It is run by a
+ * {@link PassManager}, between the translation of the program into Kitten
+ * bytecode and the generation of its Java bytecode.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public abstract class Pass {
+
+	/**
+	 * The name of this pass, used on the command line.
+	 */
+
+	private final String name;
+
+	/**
+	 * The lowest optimization level where this pass is enabled by default.
+	 */
+
+	private final int level;
+
+	/**
+	 * The names of the passes that, if they are run, must be run before this one.
+	 */
+
+	private final List<String> dependencies;
+
+	/**
+	 * Builds a pass.
+	 *
+	 * @param name the name of the pass, used on the command line
+	 * @param level the lowest optimization level where the pass is enabled by default
+	 * @param dependencies the names of the passes that, if they are run, must be run before this one
+	 */
+
+	protected Pass(String name, int level, String... dependencies) {
+		this.name = name;
+		this.level = level;
+		this.dependencies = Collections.unmodifiableList(Arrays.asList(dependencies));
+	}
+
+	/**
+	 * Yields the name of this pass.
+	 *
+	 * @return the name of this pass
+	 */
+
+	public final String getName() {
+		return name;
+	}
+
+	/**
+	 * Yields the lowest optimization level where this pass is enabled by default.
+	 *
+	 * @return the level
+	 */
+
+	public final int getLevel() {
+		return level;
+	}
+
+	/**
+	 * Yields the names of the passes that, if they are run, must be run before this one.
+	 * They are not run only because this pass is run: they must be enabled themselves.
+	 *
+	 * @return the names of the passes
+	 */
+
+	public final List<String> getDependencies() {
+		return dependencies;
+	}
+
+	/**
+	 * Transforms the Kitten bytecode of the given program.
+	 *
+	 * @param program the program
+	 * @return a summary of the transformation, reported by the manager of the passes
+	 */
+
+	public abstract String run(Program program);
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,220 @@
+package optimization;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import translation.Program;
+import util.Allocation;
+
+/**
+ * A manager of the passes that transform the Kitten bytecode of a program.
+ * The passes are kept in a registry, in order of registration. The passes to run
+ * are those enabled by default at the optimization level of the manager, from
+ * {@code 0} to {@link #MAX_LEVEL}, plus those explicitly enabled and minus
+ * those explicitly disabled. They are run after the passes they depend on, if
+ * those are run as well, and otherwise in order of registration. The time and
+ * the memory taken by each pass are reported, together with its summary.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class PassManager {
+
+	/**
+	 * The highest optimization level.
+	 */
+
+	public final static int MAX_LEVEL = 2;
+
+	/**
+	 * The passes known to the compiler, from their name, in order of registration.
+	 */
+
+	private final static Map<String, Pass> registry = new LinkedHashMap<>();
+
+	static {
+		register(new RapidTypeAnalysis());
+		register(new TailCallElimination());
+		register(new StringConcatenation());
+		register(new Inlining());
+		register(new ConstantFolding());
+		register(new CommonSubexpressionElimination());
+		register(new DeadStoreElimination());
+		register(new SlotAllocation());
+		register(new Devirtualization());
+	}
+
+	/**
+	 * The optimization level of this manager.
+	 */
+
+	private final int level;
+
+	/**
+	 * The names of the passes explicitly enabled.
+	 */
+
+	private final Set<String> enabled = new HashSet<>();
+
+	/**
+	 * The names of the passes explicitly disabled.
+	 */
+
+	private final Set<String> disabled = new HashSet<>();
+
+	/**
+	 * Builds a manager of passes.
+	 *
+	 * @param level the optimization level, from {@code 0} to {@link #MAX_LEVEL}
+	 * @throws IllegalArgumentException if {@code level} is out of range
+	 */
+
+	public PassManager(int level) {
+		if (level < 0 || level > MAX_LEVEL)
+			throw new IllegalArgumentException("The optimization level must be between 0 and " + MAX_LEVEL);
+
+		this.level = level;
+	}
+
+	/**
+	 * Adds a pass to the registry of the passes known to the compiler.
+	 *
+	 * @param pass the pass
+	 * @throws IllegalArgumentException if a pass with the same name has already been registered
+	 */
+
+	public static synchronized void register(Pass pass) {
+		if (registry.containsKey(pass.getName()))
+			throw new IllegalArgumentException("A pass called " + pass + " has already been registered");
+
+		registry.put(pass.getName(), pass);
+	}
+
+	/**
+	 * Yields the passes known to the compiler, in order of registration.
+	 *
+	 * @return the passes
+	 */
+
+	public static synchronized Collection<Pass> getPasses() {
+		return Collections.unmodifiableCollection(new ArrayList<>(registry.values()));
+	}
+
+	/**
+	 * Yields the pass with the given name.
+	 *
+	 * @param name the name of the pass
+	 * @return the pass
+	 * @throws IllegalArgumentException if no pass has the given name
+	 */
+
+	private static synchronized Pass getPass(String name) {
+		Pass pass = registry.get(name);
+		if (pass == null)
+			throw new IllegalArgumentException("Unknown pass " + name);
+
+		return pass;
+	}
+
+	/**
+	 * Enables a pass, also if it is not enabled by default at the level of this manager.
+	 *
+	 * @param name the name of the pass
+	 * @throws IllegalArgumentException if no pass has the given name
+	 */
+
+	public void enable(String name) {
+		getPass(name);
+		disabled.remove(name);
+		enabled.add(name);
+	}
+
+	/**
+	 * Disables a pass, also if it is enabled by default at the level of this manager.
+	 *
+	 * @param name the name of the pass
+	 * @throws IllegalArgumentException if no pass has the given name
+	 */
+
+	public void disable(String name) {
+		getPass(name);
+		enabled.remove(name);
+		disabled.add(name);
+	}
+
+	/**
+	 * Yields the passes run by this manager, in the order in which they are run.
+	 *
+	 * @return the passes
+	 * @throws IllegalStateException if the dependencies of the passes are cyclical
+	 */
+
+	public List<Pass> schedule() {
+		Set<Pass> selected = new HashSet<>();
+		for (Pass pass: getPasses())
+			if (!disabled.contains(pass.getName()) && (pass.getLevel() <= level || enabled.contains(pass.getName())))
+				selected.add(pass);
+
+		List<Pass> result = new ArrayList<>();
+		Set<Pass> running = new HashSet<>();
+
+		for (Pass pass: getPasses())
+			if (selected.contains(pass))
+				schedule(pass, selected, result, running);
+
+		return result;
+	}
+
+	/**
+	 * Auxiliary method that schedules a pass after the selected passes it depends on.
+	 *
+	 * @param pass the pass
+	 * @param selected the passes that must be run
+	 * @param result the passes scheduled so far. The pass is added at its end, if it is not there already
+	 * @param running the passes whose dependencies are being scheduled
+	 */
+
+	private void schedule(Pass pass, Set<Pass> selected, List<Pass> result, Set<Pass> running) {
+		if (result.contains(pass))
+			return;
+
+		if (!running.add(pass))
+			throw new IllegalStateException("Cyclical dependencies for pass " + pass);
+
+		for (String dependency: pass.getDependencies()) {
+			Pass before = getPass(dependency);
+			if (selected.contains(before))
+				schedule(before, selected, result, running);
+		}
+
+		running.remove(pass);
+		result.add(pass);
+	}
+
+	/**
+	 * Runs the passes of this manager on the given program,
+	 * reporting the time and the memory that each of them takes and its summary.
+	 *
+	 * @param program the program
+	 */
+
+	public void run(Program program) {
+		for (Pass pass: schedule()) {
+			long allocated = Allocation.allocatedBytes();
+			long time = System.currentTimeMillis();
+
+			String summary = pass.run(program);
+
+			time = System.currentTimeMillis() - time;
+			allocated = Allocation.allocatedBytes() - allocated;
+
+			System.out.println("Pass " + pass + " completed\t[" + time + "ms, " + allocated + " bytes allocated]: " + summary);
+		}
+	}
+}
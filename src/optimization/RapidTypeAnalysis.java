@@ -0,0 +1,279 @@
+package optimization;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import translation.Block;
+import translation.BlockWalker;
+import translation.Program;
+import types.ClassMemberSignature;
+import types.ClassType;
+import types.CodeSignature;
+import types.ConstructorSignature;
+import types.FieldSignature;
+import types.MethodSignature;
+import types.TypeList;
+import bytecode.Bytecode;
+import bytecode.BytecodeList;
+import bytecode.CALL;
+import bytecode.NEW;
+import bytecode.NEWSTRING;
+import bytecode.VIRTUALCALL;
+
+/**
+ * A pass that computes the dynamic targets of the calls by rapid type analysis.
+ * The translation into Kitten bytecode assumes that the receiver of a call can
+ * be an instance of any subclass of its static type. Instead, this analysis only
+ * considers the classes that are instantiated by some reachable {@code new}
+ * bytecode. It starts from the main method and from the tests, and reaches the
+ * constructors and methods called from the reachable code, until a fixpoint is
+ * reached. The calls are then rebuilt with their smaller sets of dynamic targets
+ * and the program is restricted to the reachable constructors and methods, so
+ * that they are the only ones that get optimized and compiled into Java bytecode.
+ * Since other classes might instantiate the classes of the program, this pass
+ * is only enabled at level 2.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class RapidTypeAnalysis extends Pass {
+
+	/**
+	 * Builds the pass.
+	 */
+
+	public RapidTypeAnalysis() {
+		super("rta", 2);
+	}
+
+	@Override
+	public String run(Program program) {
+		Analysis analysis = new Analysis();
+
+		if (program.getStart() != null)
+			analysis.reach(program.getStart());
+
+		// the test classes instantiate the classes with tests, through their constructor without parameters
+		for (ClassType clazz: ClassType.getAll())
+			if (!clazz.getTests().isEmpty()) {
+				analysis.instantiate(clazz);
+				analysis.reachAll(clazz.getTests());
+				analysis.reachAll(clazz.getFixtures());
+
+				for (ConstructorSignature constructor: clazz.getConstructors())
+					if (constructor.getParameters().equals(TypeList.EMPTY))
+						analysis.reach(constructor);
+			}
+
+		// Kitten strings are also created by the run-time, for instance by concatenation
+		analysis.instantiate(ClassType.mk("String"));
+		analysis.fixpoint();
+
+		int narrowed = analysis.narrow();
+
+		// the program only keeps the fields and the reachable code
+		Set<ClassMemberSignature> sigs = program.getSigs();
+		int before = sigs.size();
+		for (ClassMemberSignature sig: new ArrayList<>(sigs))
+			if (!(sig instanceof FieldSignature) && !analysis.reachable.contains(sig))
+				sigs.remove(sig);
+
+		return analysis.instantiated.size() + " instantiated classes, "
+			+ analysis.reachable.size() + " reachable constructors and methods, "
+			+ narrowed + " calls with fewer dynamic targets, " + (before - sigs.size()) + " signatures removed";
+	}
+
+	/**
+	 * The fixpoint computation of the instantiated classes and of the reachable code.
+	 */
+
+	private static class Analysis {
+
+		/**
+		 * The classes instantiated by the reachable code.
+		 */
+
+		private final Set<ClassType> instantiated = new LinkedHashSet<>();
+
+		/**
+		 * The constructors and methods reachable from the roots of the program.
+		 */
+
+		private final Set<CodeSignature> reachable = new LinkedHashSet<>();
+
+		/**
+		 * The reachable constructors and methods whose code has not been scanned yet.
+		 */
+
+		private final Deque<CodeSignature> worklist = new ArrayDeque<>();
+
+		/**
+		 * The virtual calls in the reachable code.
+		 */
+
+		private final List<VIRTUALCALL> calls = new ArrayList<>();
+
+		/**
+		 * True if and only if some class has been instantiated after
+		 * the last time that the targets of {@link #calls} have been computed.
+		 */
+
+		private boolean changed;
+
+		/**
+		 * Takes note that the given constructor or method is reachable.
+		 *
+		 * @param code the constructor or method
+		 */
+
+		private void reach(CodeSignature code) {
+			if (reachable.add(code))
+				worklist.add(code);
+		}
+
+		/**
+		 * Takes note that the given constructors or methods are reachable.
+		 *
+		 * @param codes the constructors or methods
+		 */
+
+		private void reachAll(Iterable<? extends CodeSignature> codes) {
+			for (CodeSignature code: codes)
+				reach(code);
+		}
+
+		/**
+		 * Takes note that the given class is instantiated.
+		 *
+		 * @param clazz the class
+		 */
+
+		private void instantiate(ClassType clazz) {
+			changed |= instantiated.add(clazz);
+		}
+
+		/**
+		 * Scans the reachable code until no more classes are instantiated
+		 * nor more constructors or methods become reachable.
+		 */
+
+		private void fixpoint() {
+			do {
+				while (!worklist.isEmpty()) {
+					CodeSignature code = worklist.pop();
+					if (code.getCode() != null)
+						scan(code.getCode());
+				}
+
+				// the calls seen so far might reach the classes instantiated in the meanwhile
+				if (changed) {
+					changed = false;
+
+					for (VIRTUALCALL call: calls)
+						reachAll(targetsOf(call));
+				}
+			}
+			while (!worklist.isEmpty());
+		}
+
+		/**
+		 * Scans the blocks reachable from the given one.
+		 *
+		 * @param start the block
+		 */
+
+		private void scan(Block start) {
+			new BlockWalker() {
+
+				@Override
+				protected void enter(Block block) {
+					for (Bytecode bytecode: block.getBytecode())
+						if (bytecode instanceof NEW)
+							instantiate(((NEW) bytecode).getType());
+						else if (bytecode instanceof NEWSTRING)
+							instantiate(ClassType.mk("String"));
+						else if (bytecode instanceof VIRTUALCALL) {
+							VIRTUALCALL call = (VIRTUALCALL) bytecode;
+							calls.add(call);
+							reachAll(targetsOf(call));
+
+							// the static target is referenced by the Java bytecode of the call
+							reach(call.getStaticTarget());
+						}
+						else if (bytecode instanceof CALL)
+							reachAll(((CALL) bytecode).getDynamicTargets());
+				}
+			}.walk(start);
+		}
+
+		/**
+		 * Yields the dynamic targets of a call, for the classes instantiated so far.
+		 *
+		 * @param call the call
+		 * @return the dynamic targets of {@code call}
+		 */
+
+		private Set<CodeSignature> targetsOf(VIRTUALCALL call) {
+			Set<CodeSignature> targets = new HashSet<>();
+			CodeSignature staticTarget = call.getStaticTarget();
+
+			for (ClassType clazz: instantiated)
+				if (clazz.canBeAssignedTo(call.getReceiverType())) {
+					MethodSignature target = clazz.methodLookup(staticTarget.getName(), staticTarget.getParameters());
+					if (target != null)
+						targets.add(target);
+				}
+
+			return targets;
+		}
+
+		/**
+		 * Rebuilds the calls in the reachable code whose dynamic
+		 * targets are fewer than those assumed by the translation.
+		 *
+		 * @return the number of rebuilt calls
+		 */
+
+		private int narrow() {
+			final int[] narrowed = new int[1];
+
+			for (CodeSignature code: reachable)
+				if (code.getCode() != null)
+					new BlockWalker() {
+
+						@Override
+						protected void enter(Block block) {
+							BytecodeList code = block.getBytecode();
+							List<Bytecode> rebuilt = new ArrayList<>();
+							boolean modified = false;
+
+							for (Bytecode bytecode: code) {
+								if (bytecode instanceof VIRTUALCALL) {
+									VIRTUALCALL call = (VIRTUALCALL) bytecode;
+									Set<CodeSignature> targets = targetsOf(call);
+
+									if (!targets.equals(call.getDynamicTargets())) {
+										bytecode = new VIRTUALCALL((ClassType) call.getReceiverType(),
+											(MethodSignature) call.getStaticTarget(), targets);
+										modified = true;
+										narrowed[0]++;
+									}
+								}
+
+								rebuilt.add(bytecode);
+							}
+
+							if (modified)
+								block.setBytecode(new BytecodeList(rebuilt));
+						}
+					}.walk(code.getCode());
+
+			return narrowed[0];
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package optimization;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import translation.Block;
+import bytecode.Bytecode;
+import bytecode.LOAD;
+import bytecode.STORE;
+
+/**
+ * The reaching definitions analysis of the local variables of a constructor
+ * or method. The definitions are the {@code store} bytecodes of the code,
+ * numbered from {@code 0} in the order of the blocks of the analysis and,
+ * inside each block, in order of occurrence. A definition reaches a program
+ * point if there is a path from the definition to that point that does not
+ * redefine the same variable. The facts of the analysis are the numbers
+ * of the reaching definitions.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class ReachingDefinitions extends Dataflow {
+
+	/**
+	 * The definitions, in order of number.
+	 */
+
+	private final List<STORE> definitions = new ArrayList<>();
+
+	/**
+	 * The blocks holding the definitions, in order of number.
+	 */
+
+	private final List<Block> blocks = new ArrayList<>();
+
+	/**
+	 * The number of the first definition inside each block.
+	 */
+
+	private final Map<Block, Integer> firsts = new HashMap<>();
+
+	/**
+	 * The numbers of the definitions of each local variable.
+	 */
+
+	private final Map<Integer, BitSet> definitionsOf = new HashMap<>();
+
+	/**
+	 * Computes the reaching definitions analysis of the given code.
+	 *
+	 * @param start the block where the code starts
+	 */
+
+	public ReachingDefinitions(Block start) {
+		super(start, true);
+
+		for (Block block: getBlocks()) {
+			firsts.put(block, definitions.size());
+
+			for (Bytecode bytecode: block.getBytecode())
+				if (bytecode instanceof STORE) {
+					int varNum = ((STORE) bytecode).getVarNum();
+					BitSet bits = definitionsOf.get(varNum);
+					if (bits == null)
+						definitionsOf.put(varNum, bits = new BitSet());
+
+					bits.set(definitions.size());
+					definitions.add((STORE) bytecode);
+					blocks.add(block);
+				}
+		}
+
+		solve();
+	}
+
+	/**
+	 * Yields the definition with the given number.
+	 *
+	 * @param number the number of the definition
+	 * @return the {@code store} bytecode of the definition
+	 */
+
+	public STORE getDefinition(int number) {
+		return definitions.get(number);
+	}
+
+	/**
+	 * Yields the block holding the definition with the given number.
+	 *
+	 * @param number the number of the definition
+	 * @return the block
+	 */
+
+	public Block getBlockOf(int number) {
+		return blocks.get(number);
+	}
+
+	/**
+	 * Yields the number of the first definition inside the given block.
+	 * The other definitions of the block follow it in order of occurrence.
+	 *
+	 * @param block the block
+	 * @return the number of the first definition of {@code block}, if any
+	 */
+
+	public int getFirstDefinitionIn(Block block) {
+		return firsts.get(block);
+	}
+
+	/**
+	 * Yields the definitions that reach at least a load of their local variable.
+	 * The other definitions are dead, since the value that they store is never read.
+	 *
+	 * @return the numbers of the definitions. They can be freely modified
+	 */
+
+	public BitSet getUsedDefinitions() {
+		BitSet used = new BitSet(definitions.size());
+
+		for (Block block: getBlocks()) {
+			BitSet facts = getEntry(block);
+			int number = firsts.get(block);
+
+			for (Bytecode bytecode: block.getBytecode())
+				if (bytecode instanceof LOAD) {
+					BitSet reaching = getDefinitionsOf(((LOAD) bytecode).getVarNum());
+					reaching.and(facts);
+					used.or(reaching);
+				}
+				else if (bytecode instanceof STORE) {
+					facts.andNot(definitionsOf.get(((STORE) bytecode).getVarNum()));
+					facts.set(number++);
+				}
+		}
+
+		return used;
+	}
+
+	/**
+	 * Yields the numbers of the definitions of the given local variable.
+	 *
+	 * @param varNum the number of the local variable
+	 * @return the numbers of the definitions. They can be freely modified
+	 */
+
+	public BitSet getDefinitionsOf(int varNum) {
+		BitSet result = definitionsOf.get(varNum);
+		return result == null ? new BitSet() : (BitSet) result.clone();
+	}
+
+	@Override
+	protected int size() {
+		return definitions.size();
+	}
+
+	@Override
+	protected boolean isMust() {
+		return false;
+	}
+
+	@Override
+	protected BitSet boundary() {
+		// no definition reaches the beginning of the code
+		return new BitSet();
+	}
+
+	@Override
+	protected void transfer(Block block, BitSet facts) {
+		int number = firsts.get(block);
+
+		for (Bytecode bytecode: block.getBytecode())
+			if (bytecode instanceof STORE) {
+				// the definition kills all other definitions of the same variable
+				facts.andNot(definitionsOf.get(((STORE) bytecode).getVarNum()));
+				facts.set(number++);
+			}
+	}
+}
@@ -0,0 +1,204 @@
+package optimization;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.apache.bcel.generic.InstructionFactory;
+
+import tables.Symbol;
+import translation.Block;
+import translation.Program;
+import types.ClassMemberSignature;
+import types.CodeSignature;
+import types.MethodSignature;
+import types.Type;
+import bytecode.Bytecode;
+import bytecode.BytecodeList;
+import bytecode.LOAD;
+import bytecode.STORE;
+
+/**
+ * A pass that renumbers the local variables of each constructor or method,
+ * so that variables whose live ranges are disjoint share the same slot of the
+ * Java virtual machine. The type-checker gives a distinct number to every
+ * local declaration, hence the frames of methods with many sequential scopes
+ * would otherwise grow with the number of declarations rather than with the
+ * number of variables that are alive at the same time. The receiver and the
+ * parameters keep their slots. Two variables share a slot only if they are
+ * loaded and stored with the same Java bytecodes, so that every slot always
+ * holds values of the same kind for the verifier.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class SlotAllocation extends Pass {
+
+	/**
+	 * Builds the pass. It is run after inlining and the elimination of common
+	 * subexpressions, so that it also shares the slots of the local variables
+	 * that they introduce, and after the elimination of dead stores, so that
+	 * the variables that are never read take no slot.
+	 */
+
+	public SlotAllocation() {
+		super("slot-allocation", 1, "inlining", "subexpressions", "dead-stores");
+	}
+
+	@Override
+	public String run(Program program) {
+		// the number of local variables and of slots, and the blocks and iterations of the liveness analyses
+		int[] statistics = new int[4];
+
+		for (ClassMemberSignature sig: program.getSigs())
+			if (sig instanceof CodeSignature && ((CodeSignature) sig).getCode() != null)
+				allocate((CodeSignature) sig, statistics);
+
+		return statistics[0] + " local variables in " + statistics[1] + " slots, liveness computed in "
+			+ statistics[3] + " iterations over " + statistics[2] + " blocks";
+	}
+
+	/**
+	 * Renumbers the local variables of the given constructor or method.
+	 *
+	 * @param sig the constructor or method
+	 * @param statistics the number of local variables and of slots, and the blocks and
+	 *                   iterations of the liveness analyses so far, that gets updated
+	 */
+
+	private static void allocate(CodeSignature sig, int[] statistics) {
+		Liveness liveness = new Liveness(sig.getCode());
+		int locals = liveness.getLocals();
+
+		statistics[2] += liveness.getBlocks().size();
+		statistics[3] += liveness.getIterations();
+
+		// the main method is static and does not receive parameters from Kitten
+		int fixed = sig.getParameters().getSize();
+		if (!(sig instanceof MethodSignature && sig.getName() == Symbol.MAIN))
+			fixed++;
+
+		if (locals <= fixed) {
+			statistics[0] += locals;
+			statistics[1] += locals;
+			return;
+		}
+
+		// the kind of each local variable, as the opcode used to load it
+		short[] kinds = new short[locals];
+		for (Block block: liveness.getBlocks())
+			for (Bytecode bytecode: block.getBytecode())
+				if (bytecode instanceof LOAD)
+					kinds[((LOAD) bytecode).getVarNum()] = kindOf(((LOAD) bytecode).getType());
+				else if (bytecode instanceof STORE)
+					kinds[((STORE) bytecode).getVarNum()] = kindOf(((STORE) bytecode).getType());
+
+		// two variables interfere if one is stored while the other is live
+		BitSet[] interferences = new BitSet[locals];
+		for (int varNum = 0; varNum < locals; varNum++)
+			interferences[varNum] = new BitSet(locals);
+
+		for (Block block: liveness.getBlocks()) {
+			BitSet live = liveness.getExit(block);
+			BytecodeList code = block.getBytecode();
+
+			for (int pos = code.size() - 1; pos >= 0; pos--) {
+				Bytecode bytecode = code.get(pos);
+
+				if (bytecode instanceof STORE) {
+					int varNum = ((STORE) bytecode).getVarNum();
+					for (int other = live.nextSetBit(0); other >= 0; other = live.nextSetBit(other + 1))
+						if (other != varNum) {
+							interferences[varNum].set(other);
+							interferences[other].set(varNum);
+						}
+				}
+
+				Liveness.transfer(bytecode, live);
+			}
+		}
+
+		// we assign the lowest compatible slot to each variable, in order
+		int[] slots = new int[locals];
+		List<Short> slotKinds = new ArrayList<>();
+		List<BitSet> occupants = new ArrayList<>();
+		boolean changed = false;
+
+		for (int varNum = 0; varNum < locals; varNum++) {
+			// variables that are never used do not need a slot
+			if (varNum >= fixed && kinds[varNum] == 0)
+				continue;
+
+			int slot = varNum < fixed ? varNum : fixed;
+
+			if (varNum >= fixed)
+				for (; slot < slotKinds.size(); slot++)
+					if (slotKinds.get(slot) == kinds[varNum] && !occupants.get(slot).intersects(interferences[varNum]))
+						break;
+
+			if (slot == slotKinds.size()) {
+				slotKinds.add(kinds[varNum]);
+				occupants.add(new BitSet(locals));
+			}
+
+			occupants.get(slot).set(varNum);
+			slots[varNum] = slot;
+			changed |= slot != varNum;
+		}
+
+		statistics[0] += locals;
+		statistics[1] += slotKinds.size();
+
+		if (changed)
+			for (Block block: liveness.getBlocks())
+				renumber(block, slots);
+	}
+
+	/**
+	 * Renumbers the local variables used in the given block.
+	 *
+	 * @param block the block
+	 * @param slots the new number of each local variable
+	 */
+
+	private static void renumber(Block block, int[] slots) {
+		Bytecode[] code = new Bytecode[block.getBytecode().size()];
+		boolean changed = false;
+		int pos = 0;
+
+		for (Bytecode bytecode: block.getBytecode()) {
+			if (bytecode instanceof LOAD) {
+				LOAD load = (LOAD) bytecode;
+				if (slots[load.getVarNum()] != load.getVarNum()) {
+					bytecode = new LOAD(slots[load.getVarNum()], load.getType());
+					changed = true;
+				}
+			}
+			else if (bytecode instanceof STORE) {
+				STORE store = (STORE) bytecode;
+				if (slots[store.getVarNum()] != store.getVarNum()) {
+					bytecode = new STORE(slots[store.getVarNum()], store.getType());
+					changed = true;
+				}
+			}
+
+			code[pos++] = bytecode;
+		}
+
+		if (changed)
+			block.setBytecode(new BytecodeList(Arrays.asList(code)));
+	}
+
+	/**
+	 * Yields the kind of the local variables of the given type, for the
+	 * Java bytecode verifier.
+	 *
+	 * @param type the type of the local variables
+	 * @return the opcode of the Java bytecode that loads them
+	 */
+
+	private static short kindOf(Type type) {
+		return InstructionFactory.createLoad(type.toBCEL(), 0).getOpcode();
+	}
+}
@@ -0,0 +1,291 @@
+package optimization;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import tables.Symbol;
+import translation.Block;
+import translation.BlockWalker;
+import translation.Program;
+import types.ClassMemberSignature;
+import types.ClassType;
+import types.CodeSignature;
+import types.FloatType;
+import types.IntType;
+import types.Type;
+import bytecode.APPEND;
+import bytecode.ARRAYLOAD;
+import bytecode.ARRAYSTORE;
+import bytecode.BUILDSTRING;
+import bytecode.BinOpBytecode;
+import bytecode.BranchingComparisonBytecode;
+import bytecode.BranchingConstantComparisonBytecode;
+import bytecode.Bytecode;
+import bytecode.BytecodeList;
+import bytecode.CALL;
+import bytecode.CAST;
+import bytecode.CONST;
+import bytecode.DUP;
+import bytecode.GETFIELD;
+import bytecode.LOAD;
+import bytecode.NEG;
+import bytecode.NEW;
+import bytecode.NEWARRAY;
+import bytecode.NEWBUILDER;
+import bytecode.NEWSTRING;
+import bytecode.NOP;
+import bytecode.NULLCHECK;
+import bytecode.POP;
+import bytecode.PUTFIELD;
+import bytecode.RETURN;
+import bytecode.STORE;
+import bytecode.VIRTUALCALL;
+
+/**
+ * A pass that fuses the chains of concatenations of strings, such as
+ * {@code "".concat(a).concat(b).concat("\n")}. Each {@code concat} creates
+ * a new string, hence a chain of <i>k</i> concatenations copies <i>O(k^2)</i>
+ * characters. A chain is recognised inside a block, when it starts from a string
+ * created by a {@code newstring} bytecode: the receiver of its first call is
+ * then statically known to be that fresh string, whose {@code concat} methods
+ * cannot be redefined, and the receiver of each subsequent call is the string
+ * returned by the previous one. The stack is simulated to check that the
+ * actual parameters of the calls never consume nor duplicate that receiver.
+ * The chain is then rewritten into a builder of strings, created by a
+ * {@code newbuilder} bytecode, pre-sized for the expected length of the result.
+ * The calls become {@code append} bytecodes and a {@code buildstring} bytecode,
+ * after the last call, creates the only string of the chain. The actual
+ * parameters that are string constants are appended directly, without
+ * creating a string, and consecutive constants are merged.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class StringConcatenation extends Pass {
+
+	/**
+	 * The number of characters expected for a value of type {@code String}
+	 * that is not a constant, used to pre-size the builders.
+	 */
+
+	private final static int EXPECTED_STRING_LENGTH = 16;
+
+	/**
+	 * The name of the methods that concatenate strings.
+	 */
+
+	private final static Symbol CONCAT = Symbol.mk("concat");
+
+	/**
+	 * Builds the pass. It does not depend on other passes, but inlining
+	 * depends on it, since it splits the blocks where the chains are recognised.
+	 */
+
+	public StringConcatenation() {
+		super("string-concat", 1);
+	}
+
+	@Override
+	public String run(Program program) {
+		// the number of fused chains and of their calls to concat
+		final int[] fused = new int[2];
+
+		for (ClassMemberSignature sig: program.getSigs())
+			if (sig instanceof CodeSignature && ((CodeSignature) sig).getCode() != null)
+				new BlockWalker() {
+
+					@Override
+					protected void enter(Block block) {
+						fuse(block, fused);
+					}
+				}.walk(((CodeSignature) sig).getCode());
+
+		return fused[0] + " chains fused into builders, with " + fused[1] + " calls to concat";
+	}
+
+	/**
+	 * Fuses the chains of concatenations inside the given block.
+	 *
+	 * @param block the block
+	 * @param fused the number of chains and of calls to {@code concat} fused so far, that gets updated
+	 */
+
+	private static void fuse(Block block, int[] fused) {
+		BytecodeList code = block.getBytecode();
+		int size = code.size();
+
+		// the replacement of each bytecode, if any, and the positions after which a string gets built
+		Bytecode[] replacements = new Bytecode[size];
+		boolean[] removed = new boolean[size];
+		boolean[] builds = new boolean[size];
+		int chains = 0;
+
+		for (int start = 0; start < size; start++)
+			if (code.get(start) instanceof NEWSTRING) {
+				List<Integer> concats = chainFrom(code, start);
+				if (concats.isEmpty())
+					continue;
+
+				String value = ((NEWSTRING) code.get(start)).getValue();
+				int capacity = value.length();
+
+				for (int pos: concats) {
+					Type parameter = ((CALL) code.get(pos)).getStaticTarget().getParameters().getHead();
+
+					if (code.get(pos - 1) instanceof NEWSTRING) {
+						// the actual parameter is a string constant, that can be appended directly
+						String constant = ((NEWSTRING) code.get(pos - 1)).getValue();
+						removed[pos - 1] = true;
+						replacements[pos] = new APPEND(constant);
+						capacity += constant.length();
+					}
+					else {
+						replacements[pos] = new APPEND(parameter);
+						capacity += expectedLength(parameter);
+					}
+				}
+
+				replacements[start] = new NEWBUILDER(value, capacity);
+				builds[concats.get(concats.size() - 1)] = true;
+				fused[1] += concats.size();
+				chains++;
+			}
+
+		if (chains == 0)
+			return;
+
+		fused[0] += chains;
+
+		List<Bytecode> rebuilt = new ArrayList<>();
+		for (int pos = 0; pos < size; pos++)
+			if (!removed[pos]) {
+				Bytecode bytecode = replacements[pos] != null ? replacements[pos] : code.get(pos);
+				Bytecode previous = rebuilt.isEmpty() ? null : rebuilt.get(rebuilt.size() - 1);
+
+				// consecutive constants are merged
+				if (bytecode instanceof APPEND && ((APPEND) bytecode).getConstant() != null && previous instanceof NEWBUILDER)
+					rebuilt.set(rebuilt.size() - 1, new NEWBUILDER(((NEWBUILDER) previous).getValue()
+						+ ((APPEND) bytecode).getConstant(), ((NEWBUILDER) previous).getCapacity()));
+				else if (bytecode instanceof APPEND && ((APPEND) bytecode).getConstant() != null
+						&& previous instanceof APPEND && ((APPEND) previous).getConstant() != null)
+					rebuilt.set(rebuilt.size() - 1, new APPEND(((APPEND) previous).getConstant() + ((APPEND) bytecode).getConstant()));
+				else
+					rebuilt.add(bytecode);
+
+				if (builds[pos])
+					rebuilt.add(new BUILDSTRING());
+			}
+
+		block.setBytecode(new BytecodeList(rebuilt));
+	}
+
+	/**
+	 * Yields the positions of the calls to {@code concat} of the chain that
+	 * starts from the string created at the given position.
+	 *
+	 * @param code the bytecodes of a block
+	 * @param start the position of a {@code newstring} bytecode inside {@code code}
+	 * @return the positions of the calls of the chain, possibly empty
+	 */
+
+	private static List<Integer> chainFrom(BytecodeList code, int start) {
+		List<Integer> concats = new ArrayList<>();
+
+		// the height of the stack, where the string created at start is at height 1
+		int height = 1;
+
+		for (int pos = start + 1; pos < code.size(); pos++) {
+			Bytecode bytecode = code.get(pos);
+
+			if (height == 2 && isConcat(bytecode)) {
+				// the receiver of the call is the string of the chain,
+				// that gets replaced by the string returned by the call
+				concats.add(pos);
+				height = 1;
+			}
+			else {
+				int[] effect = effectOf(bytecode);
+
+				// the chain ends where its string is consumed or duplicated
+				if (effect == null || height - effect[0] < 1)
+					break;
+
+				height += effect[1] - effect[0];
+			}
+		}
+
+		return concats;
+	}
+
+	/**
+	 * Determines if the given bytecode is a call to a {@code concat} method of the strings.
+	 *
+	 * @param bytecode the bytecode
+	 * @return true if and only if {@code bytecode} calls {@code String.concat}
+	 */
+
+	private static boolean isConcat(Bytecode bytecode) {
+		if (!(bytecode instanceof VIRTUALCALL))
+			return false;
+
+		CodeSignature target = ((VIRTUALCALL) bytecode).getStaticTarget();
+
+		return target.getDefiningClass() == ClassType.mk("String") && target.getName() == CONCAT;
+	}
+
+	/**
+	 * Yields the number of characters expected for a value of the given type.
+	 *
+	 * @param type the type: {@code int}, {@code float}, {@code boolean} or {@code String}
+	 * @return the number of characters
+	 */
+
+	private static int expectedLength(Type type) {
+		if (type == IntType.INSTANCE)
+			return String.valueOf(Integer.MIN_VALUE).length();
+		else if (type == FloatType.INSTANCE)
+			return String.valueOf(-Float.MIN_VALUE).length();
+		else if (type instanceof ClassType)
+			return EXPECTED_STRING_LENGTH;
+		else // it must be boolean
+			return String.valueOf(false).length();
+	}
+
+	/**
+	 * Yields the effect of a bytecode on the height of the stack.
+	 *
+	 * @param bytecode the bytecode
+	 * @return the number of elements popped and pushed by {@code bytecode},
+	 *         or {@code null} if {@code bytecode} is not expected inside a chain
+	 */
+
+	private static int[] effectOf(Bytecode bytecode) {
+		if (bytecode instanceof CONST || bytecode instanceof LOAD || bytecode instanceof NEW || bytecode instanceof NEWSTRING)
+			return new int[] { 0, 1 };
+		else if (bytecode instanceof STORE || bytecode instanceof POP || bytecode instanceof NULLCHECK
+				|| bytecode instanceof BranchingConstantComparisonBytecode)
+			return new int[] { 1, 0 };
+		else if (bytecode instanceof BinOpBytecode || bytecode instanceof ARRAYLOAD)
+			return new int[] { 2, 1 };
+		else if (bytecode instanceof NEG || bytecode instanceof CAST || bytecode instanceof GETFIELD)
+			return new int[] { 1, 1 };
+		else if (bytecode instanceof DUP)
+			return new int[] { 1, 2 };
+		else if (bytecode instanceof NEWARRAY)
+			return new int[] { ((NEWARRAY) bytecode).getDimensions(), 1 };
+		else if (bytecode instanceof ARRAYSTORE)
+			return new int[] { 3, 0 };
+		else if (bytecode instanceof PUTFIELD || bytecode instanceof BranchingComparisonBytecode)
+			return new int[] { 2, 0 };
+		else if (bytecode instanceof CALL) {
+			CodeSignature target = ((CALL) bytecode).getStaticTarget();
+			return new int[] { target.getParameters().getSize() + 1, target.getReturnType().getSize() };
+		}
+		else if (bytecode instanceof RETURN)
+			return new int[] { ((RETURN) bytecode).getType().getSize(), 0 };
+		else if (bytecode instanceof NOP)
+			return new int[] { 0, 0 };
+		else
+			return null;
+	}
+}
@@ -0,0 +1,182 @@
+package optimization;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import tables.Symbol;
+import translation.Block;
+import translation.BlockWalker;
+import translation.Program;
+import types.ClassMemberSignature;
+import types.MethodSignature;
+import types.Type;
+import types.TypeList;
+import bytecode.Bytecode;
+import bytecode.BytecodeList;
+import bytecode.CAST;
+import bytecode.DUP;
+import bytecode.NOP;
+import bytecode.NULLCHECK;
+import bytecode.RETURN;
+import bytecode.STORE;
+import bytecode.VIRTUALCALL;
+
+/**
+ * A pass that replaces the recursive calls of a method in tail position with a
+ * jump back to the beginning of the method. A call is in tail position if it is
+ * followed by a {@code return} bytecode only. It is recursive if its only dynamic
+ * target is the method itself. The call is replaced by the stores of its actual
+ * parameters into the parameters of the method and of its receiver into {@code this},
+ * after checking that the receiver is not {@code nil} and casting it to the class of
+ * the method, followed by a jump to the first block of the method. The recursion
+ * becomes a loop, that runs in constant stack.
+ * Since the dynamic targets of a call might change if other classes extend
+ * the classes of the program, this pass is only enabled at level 2.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class TailCallElimination extends Pass {
+
+	/**
+	 * Builds the pass.
+	 */
+
+	public TailCallElimination() {
+		super("tail-calls", 2);
+	}
+
+	@Override
+	public String run(Program program) {
+		int eliminated = 0;
+
+		for (ClassMemberSignature sig: program.getSigs())
+			// the main method is static and cannot be called
+			if (sig instanceof MethodSignature && ((MethodSignature) sig).getCode() != null
+					&& ((MethodSignature) sig).getName() != Symbol.MAIN)
+				eliminated += eliminateTailCallsOf((MethodSignature) sig);
+
+		// the removed return's might have left isolated nop's
+		program.cleanUp();
+
+		return eliminated + " recursive calls turned into jumps";
+	}
+
+	/**
+	 * Replaces the recursive calls in tail position inside the given method.
+	 *
+	 * @param method the method
+	 * @return the number of replaced calls
+	 */
+
+	private static int eliminateTailCallsOf(final MethodSignature method) {
+		final List<Block> blocks = new ArrayList<>();
+
+		new BlockWalker() {
+
+			@Override
+			protected void enter(Block block) {
+				blocks.add(block);
+			}
+		}.walk(method.getCode());
+
+		int eliminated = 0;
+		for (Block block: blocks) {
+			BytecodeList code = block.getBytecode();
+
+			// only the last call of a block can be in tail position
+			for (int pos = code.size() - 1; pos >= 0; pos--)
+				if (code.get(pos) instanceof VIRTUALCALL) {
+					VIRTUALCALL call = (VIRTUALCALL) code.get(pos);
+
+					if (call.isMonomorphic() && call.getDynamicTargets().contains(method) && isTail(block, pos)) {
+						eliminate(block, pos, call, method);
+						eliminated++;
+					}
+
+					break;
+				}
+		}
+
+		return eliminated;
+	}
+
+	/**
+	 * Determines if the bytecode at the given position of a block is in tail position,
+	 * that is, it is only followed by {@code nop}'s and by a {@code return},
+	 * possibly at the beginning of the only follower of the block.
+	 *
+	 * @param block the block
+	 * @param pos the position of the bytecode inside {@code block}
+	 * @return true if and only if the bytecode is in tail position
+	 */
+
+	private static boolean isTail(Block block, int pos) {
+		int result = returnsAfter(block.getBytecode(), pos + 1);
+
+		// the return might be at the beginning of the only follower of the block
+		if (result == 0 && block.getFollows().size() == 1)
+			result = returnsAfter(block.getFollows().get(0).getBytecode(), 0);
+
+		return result == 1;
+	}
+
+	/**
+	 * Checks if the given bytecodes, from the given position, are {@code nop}'s
+	 * followed by a {@code return}.
+	 *
+	 * @param code the bytecodes
+	 * @param pos the position
+	 * @return 1 if the bytecodes are {@code nop}'s followed by a {@code return},
+	 *         0 if they are all {@code nop}'s and -1 otherwise
+	 */
+
+	private static int returnsAfter(BytecodeList code, int pos) {
+		for (; pos < code.size(); pos++)
+			if (code.get(pos) instanceof RETURN)
+				return 1;
+			else if (!(code.get(pos) instanceof NOP))
+				return -1;
+
+		return 0;
+	}
+
+	/**
+	 * Replaces a recursive call in tail position with a jump to the beginning of the method.
+	 *
+	 * @param block the block that contains the call
+	 * @param pos the position of the call inside {@code block}
+	 * @param call the call
+	 * @param method the method that contains and is called by {@code call}
+	 */
+
+	private static void eliminate(Block block, int pos, VIRTUALCALL call, MethodSignature method) {
+		BytecodeList code = block.getBytecode();
+
+		List<Bytecode> loop = new ArrayList<>();
+		for (int cursor = 0; cursor < pos; cursor++)
+			loop.add(code.get(cursor));
+
+		List<Type> formals = new ArrayList<>();
+		for (TypeList cursor = method.getParameters(); cursor != TypeList.EMPTY; cursor = cursor.getTail())
+			formals.add(cursor.getHead());
+
+		// the actual parameters are on top of the stack, the last one above the others
+		for (int par = formals.size(); par > 0; par--)
+			loop.add(new STORE(par, formals.get(par - 1)));
+
+		// the receiver becomes this, that is an instance of the class of the method, which
+		// might be a subclass of the static type of the receiver: since the method is the
+		// only dynamic target of the call, the cast cannot fail
+		loop.add(new DUP(call.getReceiverType()));
+		loop.add(new NULLCHECK());
+		if (call.getReceiverType() != method.getDefiningClass())
+			loop.add(new CAST(call.getReceiverType(), method.getDefiningClass()));
+
+		loop.add(new STORE(0, method.getDefiningClass()));
+
+		block.setBytecode(new BytecodeList(loop));
+		block.getFollows().clear();
+		block.getFollows().add(method.getCode());
+	}
+}
@@ -13,8 +13,16 @@ public class Main {
 		}
 
 		// we build the class type for the file name passed as a parameter.
-		// This triggers type-checking of that class and all those referenced from it
-		ErrorMsg errorMsg = ClassType.mkFromFileName(args[0]).getErrorMsg();
+		// This triggers type-checking of that class and all those referenced from it.
+		// With the -parallel option, classes are parsed and type-checked on all processors
+		ErrorMsg errorMsg;
+		if (args.length > 1 && args[1].equals("-parallel")) {
+			ParallelFrontEnd frontEnd = new ParallelFrontEnd();
+			errorMsg = frontEnd.mkFromFileName(args[0]).getErrorMsg();
+			frontEnd.shutdown();
+		}
+		else
+			errorMsg = ClassType.mkFromFileName(args[0]).getErrorMsg();
 
 		System.out.println("End of the semantical analysis");
 
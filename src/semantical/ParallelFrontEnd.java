@@ -0,0 +1,198 @@
+package semantical;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import types.ClassType;
+
+/**
+ * A front-end that performs the lexical, syntactical and semantical analysis
+ * of a Kitten program on more threads. It first discovers the classes that
+ * might be referenced from the program and parses them in parallel. Then it
+ * type-checks the classes in parallel, one task per class.
+ * The result is the same class table built by {@link ClassType#mkFromFileName(String)},
+ * whose members are kept in source order, so that the same Java bytecode is
+ * later generated from it, independently from the order of the tasks.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class ParallelFrontEnd {
+
+	/**
+	 * The pool of threads used for the analysis.
+	 */
+
+	private final ForkJoinPool pool;
+
+	/**
+	 * Builds a front-end that uses all available processors.
+	 */
+
+	public ParallelFrontEnd() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Builds a front-end that uses the given number of threads.
+	 *
+	 * @param parallelism the number of threads
+	 */
+
+	public ParallelFrontEnd(int parallelism) {
+		this.pool = new ForkJoinPool(parallelism);
+	}
+
+	/**
+	 * Yields a type-checked class type for the given file name, analysing
+	 * in parallel the classes referenced from it.
+	 *
+	 * @param fileName the name of the file of the class, with or without the
+	 *                 <tt>.kit</tt> termination
+	 * @return the unique Kitten class type object for the (type-checked)
+	 *         class with the given name
+	 */
+
+	public ClassType mkFromFileName(String fileName) {
+		if (fileName.endsWith(".kit"))
+			fileName = fileName.substring(0, fileName.length() - 4);
+
+		Set<String> seen = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+		seen.add(fileName);
+
+		// Object and String are referenced even if their names do not occur in the sources
+		for (String implicit: new String[] { "Object", "String" })
+			if (seen.add(implicit))
+				pool.invoke(new ParseTask(implicit, seen));
+
+		pool.invoke(new ParseTask(fileName, seen));
+
+		return pool.invoke(new TypeCheckTask(fileName));
+	}
+
+	/**
+	 * Shuts down the threads of this front-end.
+	 */
+
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * A task that parses a class and, recursively and in parallel,
+	 * all classes whose name occurs among its identifiers.
+	 */
+
+	@SuppressWarnings("serial")
+	private static class ParseTask extends RecursiveAction {
+
+		/**
+		 * The name of the class to parse.
+		 */
+
+		private final String name;
+
+		/**
+		 * The names of the classes already scheduled for parsing.
+		 */
+
+		private final Set<String> seen;
+
+		private ParseTask(String name, Set<String> seen) {
+			this.name = name;
+			this.seen = seen;
+		}
+
+		@Override
+		protected void compute() {
+			List<ParseTask> subtasks = new ArrayList<>();
+
+			// an identifier might be the name of a class if there is a source file for it
+			for (String id: ClassType.parseInAdvance(name))
+				if (new File(id + ".kit").exists() && seen.add(id))
+					subtasks.add(new ParseTask(id, seen));
+
+			invokeAll(subtasks);
+		}
+	}
+
+	/**
+	 * A task that builds and type-checks a class. The classes referenced
+	 * from that class are type-checked by further tasks, forked by
+	 * {@link ClassType#typeCheck()}.
+	 */
+
+	@SuppressWarnings("serial")
+	private static class TypeCheckTask extends RecursiveTask<ClassType> {
+
+		/**
+		 * The name of the class.
+		 */
+
+		private final String name;
+
+		private TypeCheckTask(String name) {
+			this.name = name;
+		}
+
+		@Override
+		protected ClassType compute() {
+			ClassType result = ClassType.mk(name);
+			result.typeCheck();
+
+			// we wait for the classes referenced from this one
+			ClassType.awaitTypeChecking();
+
+			return result;
+		}
+	}
+
+	/**
+	 * Runs the front-end on the given file with an increasing number of
+	 * threads, up to the number of available processors, and reports
+	 * the time and speedup with respect to a single thread.
+	 *
+	 * @param args the name of the file to analyse and, optionally, the
+	 *             number of repetitions for each number of threads
+	 */
+
+	public static void main(String[] args) {
+		if (args.length == 0) {
+			System.out.println("You must specify a Kitten class name to compile");
+			return;
+		}
+
+		int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		int processors = Runtime.getRuntime().availableProcessors();
+		long sequential = 0;
+
+		for (int threads = 1; ; threads = Math.min(threads * 2, processors)) {
+			ParallelFrontEnd frontEnd = new ParallelFrontEnd(threads);
+			long best = Long.MAX_VALUE;
+
+			for (int i = 0; i < repetitions; i++) {
+				ClassType.clear();
+				long time = System.nanoTime();
+				frontEnd.mkFromFileName(args[0]);
+				best = Math.min(best, System.nanoTime() - time);
+			}
+
+			frontEnd.shutdown();
+
+			if (threads == 1)
+				sequential = best;
+
+			System.out.printf("%d thread(s)\t[%.2fms]\tspeedup %.2f%n", threads, best / 1e6, (double) sequential / best);
+
+			if (threads == processors)
+				break;
+		}
+	}
+}
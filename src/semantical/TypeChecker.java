@@ -1,5 +1,6 @@
 package semantical;
 
+import tables.Symbol;
 import tables.Table;
 import types.Type;
 import errorMsg.ErrorMsg;
@@ -116,7 +117,7 @@ public class TypeChecker {
 	 * @return the new type-checker where {@code var} is bound to {@code type}
 	 */
 
-	public TypeChecker putVar(String var, Type type) {
+	public TypeChecker putVar(Symbol var, Type type) {
 		// note that in the new type-checker the number of local
 		// variables is one more than in this type-checker
 		return new TypeChecker(returnType,
@@ -131,7 +132,7 @@ public class TypeChecker {
 	 *         Yields {@code null} if {@code var} is not bound in this type-checker
 	 */
 
-	public Type getVar(String var) {
+	public Type getVar(Symbol var) {
 		TypeAndNumber tan = env.get(var);
 
 		return tan != null ? tan.getType() : null;
@@ -149,7 +150,7 @@ public class TypeChecker {
 	 *         -1 if {@code var} is not bound in this type-checker
 	 */
 
-	public int getVarNum(String var) {
+	public int getVarNum(Symbol var) {
 		TypeAndNumber tan = env.get(var);
 
 		return tan != null ? tan.getNumber() : -1;
@@ -2,16 +2,23 @@ package syntactical;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 import java_cup.runtime.Symbol;
 import lexical.Lexer;
 import absyn.ClassDefinition;
+import util.Allocation;
 
 public class Main {
 
 	public static void main(String[] args) throws Exception {
 		if (args.length == 0)
 			System.out.println("You must specify a Kitten class name to compile");
+		else if (args.length > 1 && args[1].equals("-benchmark"))
+			// with the -benchmark option, we measure the start-up of the analysis
+			benchmark(args[0], args.length > 2 ? Integer.parseInt(args[2]) : 1000);
 		else
 			try {
 				String fileName = args[0];
@@ -37,4 +44,54 @@ public class Main {
 				System.out.println("Unmatched input");
 			}
 	}
+
+	/**
+	 * Measures the start-up cost of the lexical and syntactical analysis
+	 * of a program made of many classes. The program consists of as many
+	 * copies of the given class as required, analysed from memory, so
+	 * that the file system does not affect the measure. This should be run
+	 * in a fresh Java virtual machine, so that the first lexer and parser
+	 * include the initialisation of their tables. It then compares the
+	 * bytes allocated for each kilobyte of source, with and without
+	 * packing the tokens before parsing them.
+	 *
+	 * @param fileName the name of the file of the class
+	 * @param classes the number of classes of the program
+	 * @throws Exception if the class cannot be read or parsed
+	 */
+
+	private static void benchmark(String fileName, int classes) throws Exception {
+		String source = new String(Files.readAllBytes(Paths.get(fileName)), Charset.defaultCharset());
+
+		long time = System.nanoTime();
+		new Parser(new Lexer(source, fileName)).parse();
+		long first = System.nanoTime() - time;
+
+		time = System.nanoTime();
+		for (int i = 1; i < classes; i++)
+			new Parser(new Lexer(source, fileName)).parse();
+		long others = System.nanoTime() - time;
+
+		System.out.printf("First class (including tables initialisation)\t[%.3fms]%n", first / 1e6);
+		System.out.printf("Other %d classes\t[%.3fms, %.3fms per class]%n", classes - 1, others / 1e6, others / 1e6 / (classes - 1));
+		System.out.printf("Total for %d classes\t[%.3fms]%n", classes, (first + others) / 1e6);
+
+		// we compare the memory allocated when the parser pulls symbols from the lexer
+		// and when the lexer packs the tokens before the parser consumes them
+		for (boolean packed: new boolean[] { false, true }) {
+			long allocated = Allocation.allocatedBytes();
+			time = System.nanoTime();
+
+			for (int i = 0; i < classes; i++) {
+				Lexer lexer = new Lexer(source, fileName);
+				new Parser(packed ? lexer.tokenize().replay() : lexer).parse();
+			}
+
+			time = System.nanoTime() - time;
+			allocated = Allocation.allocatedBytes() - allocated;
+
+			System.out.printf("%s tokens\t[%.3fms per class]\t[%d bytes per source KB]%n", packed ? "Packed" : "Unpacked",
+				time / 1e6 / classes, allocated * 1024 / classes / Math.max(source.length(), 1));
+		}
+	}
 }
\ No newline at end of file
@@ -11,13 +11,18 @@ final class EmptyTable<E> extends Table<E> {
 	EmptyTable() {}
 
 	@Override
-	public E get(String key) {
+	public E get(Symbol key) {
 		return null;  // there is no key in this empty table
 	}
 
 	@Override
-	public Table<E> put(String key, E value) {
+	Table<E> insert(Symbol key, E value) {
 		// builds a non-empty symbol table with empty subtrees
 		return new NonEmptyTable<E>(key, value);
 	}
+
+	@Override
+	Table<E> blacken() {
+		return this;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package tables;
+
+import semantical.TypeChecker;
+import types.IntType;
+import types.VoidType;
+import errorMsg.ErrorMsg;
+
+/**
+ * Measures the cost of the environment of the type-checker for a method
+ * with many local variables, declared one after the other, as in generated code.
+ * It compares the balanced symbol tables with the unbalanced binary
+ * search trees that were used before.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class Main {
+
+	public static void main(String[] args) {
+		int locals = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+		Symbol[] names = new Symbol[locals];
+		for (int i = 0; i < locals; i++)
+			names[i] = Symbol.mk("a" + (i + 1));
+
+		// the first round warms up the virtual machine and is not reported
+		for (int round = 0; round < 2; round++) {
+			long balanced = Long.MAX_VALUE, unbalanced = Long.MAX_VALUE;
+
+			for (int i = 0; i < repetitions; i++) {
+				long time = System.nanoTime();
+				TypeChecker checker = new TypeChecker(VoidType.INSTANCE, new ErrorMsg("benchmark.kit"));
+				for (Symbol name: names) {
+					checker = checker.putVar(name, IntType.INSTANCE);
+					// each declaration is typically followed by a use of the variable
+					checker.getVarNum(name);
+				}
+				for (Symbol name: names)
+					checker.getVarNum(name);
+				balanced = Math.min(balanced, System.nanoTime() - time);
+
+				time = System.nanoTime();
+				UnbalancedTable<Integer> table = new UnbalancedTable<>(null, null, null, null);
+				for (int pos = 0; pos < locals; pos++) {
+					table = table.put(names[pos], pos);
+					table.get(names[pos]);
+				}
+				for (Symbol name: names)
+					table.get(name);
+				unbalanced = Math.min(unbalanced, System.nanoTime() - time);
+			}
+
+			if (round > 0) {
+				System.out.printf("%d locals, balanced table\t[%.3fms]%n", locals, balanced / 1e6);
+				System.out.printf("%d locals, unbalanced tree\t[%.3fms]%n", locals, unbalanced / 1e6);
+			}
+		}
+	}
+
+	/**
+	 * The persistent binary search tree used before for the symbol tables.
+	 * It is not balanced, so that it degenerates into a list if its keys
+	 * are inserted in increasing order. An empty tree has a {@code null} key.
+	 */
+
+	private static class UnbalancedTable<E> {
+		private final Symbol key;
+		private final E value;
+		private final UnbalancedTable<E> left;
+		private final UnbalancedTable<E> right;
+
+		private UnbalancedTable(Symbol key, E value, UnbalancedTable<E> left, UnbalancedTable<E> right) {
+			this.key = key;
+			this.value = value;
+			this.left = left;
+			this.right = right;
+		}
+
+		private E get(Symbol key) {
+			if (this.key == null)
+				return null;
+
+			int comp = this.key.compareTo(key);
+
+			if (comp < 0)
+				return left.get(key);
+			else if (comp == 0)
+				return value;
+			else
+				return right.get(key);
+		}
+
+		private UnbalancedTable<E> put(Symbol key, E value) {
+			if (this.key == null) {
+				UnbalancedTable<E> empty = new UnbalancedTable<>(null, null, null, null);
+				return new UnbalancedTable<>(key, value, empty, empty);
+			}
+
+			int comp = this.key.compareTo(key);
+
+			if (comp < 0)
+				return new UnbalancedTable<>(this.key, this.value, left.put(key, value), right);
+			else if (comp == 0)
+				return new UnbalancedTable<>(this.key, value, left, right);
+			else
+				return new UnbalancedTable<>(this.key, this.value, left, right.put(key, value));
+		}
+	}
+}
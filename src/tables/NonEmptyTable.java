@@ -1,7 +1,9 @@
 package tables;
 
 /**
- * A non-empty symbol table. It is organized as a binary search tree.
+ * A non-empty symbol table. It is organized as a red-black binary search
+ * tree, so that it remains balanced whatever the order of insertion of its keys.
+ * Lookup and insertion hence cost a logarithmic time in the worst case.
  *
  * @author  <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
  */
@@ -12,7 +14,7 @@ final class NonEmptyTable<E> extends Table<E> {
 	 * the key on top of the tree.
 	 */
 
-	private final String key;
+	private final Symbol key;
 
 	/**
 	 * the value bound on key at the top of the tree.
@@ -21,17 +23,23 @@ final class NonEmptyTable<E> extends Table<E> {
 	private final E value;
 
 	/**
-	 * the left subtree.
+	 * the left subtree. Its keys are smaller than {@link #key}.
 	 */
 
 	private final Table<E> left;
 
 	/**
-	 * the right subtree.
+	 * the right subtree. Its keys are larger than {@link #key}.
 	 */
 
 	private final Table<E> right;
 
+	/**
+	 * true if and only if the top of the tree is red, false if it is black.
+	 */
+
+	private final boolean red;
+
 	/**
 	 * Builds a non-empty table.
 	 *
@@ -39,63 +47,141 @@ final class NonEmptyTable<E> extends Table<E> {
 	 * @param value the value bound to <tt>key</tt>
 	 * @param left the left subtree
 	 * @param right the right subtree
+	 * @param red true if the root of the tree must be red, false if it must be black
 	 */
 
-	private NonEmptyTable(String key, E value, Table<E> left, Table<E> right) {
+	private NonEmptyTable(Symbol key, E value, Table<E> left, Table<E> right, boolean red) {
 		this.key = key;
 		this.value = value;
 		this.left = left;
 		this.right = right;
+		this.red = red;
 	}
 
 	/**
-	 * Builds a non-empty table having empty subtrees.
+	 * Builds a non-empty table having empty subtrees. Its root is red.
 	 *
 	 * @param key the key in the root of the tree
 	 * @param value the value bound to {@code key}
 	 */
 
-	NonEmptyTable(String key, E value) {
-		this.key = key;
-		this.value = value;
-		this.left = Table.empty();
-		this.right = Table.empty();
+	NonEmptyTable(Symbol key, E value) {
+		this(key, value, Table.<E>empty(), Table.<E>empty(), true);
 	}
 
 	@Override
-	public E get(String key) {
-		int comp = this.key.compareTo(key);
+	public E get(Symbol key) {
+		// we descend the tree iteratively
+		Table<E> cursor = this;
+
+		while (cursor instanceof NonEmptyTable) {
+			NonEmptyTable<E> node = (NonEmptyTable<E>) cursor;
+			int comp = key.compareTo(node.key);
+
+			if (comp < 0)
+				cursor = node.left;
+			else if (comp == 0)
+				return node.value;
+			else
+				cursor = node.right;
+		}
 
-		if (comp < 0)
-			return left.get(key);
-		else if (comp == 0)
-			return value;
-		else
-			return right.get(key);
+		return null;
 	}
 
 	@Override
-	public Table<E> put(String key, E value) {
-		int comp = this.key.compareTo(key);
+	Table<E> insert(Symbol key, E value) {
+		int comp = key.compareTo(this.key);
 
 		if (comp < 0) {
-			Table<E> temp = left.put(key,value);
+			Table<E> temp = left.insert(key, value);
 			if (temp == left)
 				return this;
 			else
-				return new NonEmptyTable<E>(this.key, this.value, temp, right);
+				return balance(this.key, this.value, temp, right, red);
 		}
 		else if (comp == 0)
 			if (value == this.value)
 				return this;
 			else
-				return new NonEmptyTable<E>(this.key, value, left, right);
+				return new NonEmptyTable<E>(this.key, value, left, right, red);
 		else {
-			Table<E> temp = right.put(key,value);
+			Table<E> temp = right.insert(key, value);
 			if (temp == right)
 				return this;
 			else
-				return new NonEmptyTable<E>(this.key, this.value, left, temp);
+				return balance(this.key, this.value, left, temp, red);
+		}
+	}
+
+	@Override
+	Table<E> blacken() {
+		return red ? new NonEmptyTable<E>(key, value, left, right, false) : this;
+	}
+
+	/**
+	 * Determines if the given table is a tree with a red root.
+	 *
+	 * @param table the table
+	 * @return true if and only if {@code table} is non-empty and its root is red
+	 */
+
+	private static boolean isRed(Table<?> table) {
+		return table instanceof NonEmptyTable && ((NonEmptyTable<?>) table).red;
+	}
+
+	/**
+	 * Builds a tree from the given root and subtrees, restoring the invariant
+	 * of red-black trees if one of the subtrees has a red root with a red child.
+	 * This is the case after an insertion below a black root.
+	 *
+	 * @param key the key in the root of the tree
+	 * @param value the value bound to {@code key}
+	 * @param left the left subtree
+	 * @param right the right subtree
+	 * @param red true if the root of the tree is red, false if it is black
+	 * @return the resulting tree
+	 */
+
+	private static <E> NonEmptyTable<E> balance(Symbol key, E value, Table<E> left, Table<E> right, boolean red) {
+		if (!red) {
+			// the four cases where a red node has a red child: they
+			// are all rewritten into a red node with two black children
+			if (isRed(left)) {
+				NonEmptyTable<E> l = (NonEmptyTable<E>) left;
+
+				if (isRed(l.left)) {
+					NonEmptyTable<E> ll = (NonEmptyTable<E>) l.left;
+					return new NonEmptyTable<E>(l.key, l.value,
+						new NonEmptyTable<E>(ll.key, ll.value, ll.left, ll.right, false),
+						new NonEmptyTable<E>(key, value, l.right, right, false), true);
+				}
+				else if (isRed(l.right)) {
+					NonEmptyTable<E> lr = (NonEmptyTable<E>) l.right;
+					return new NonEmptyTable<E>(lr.key, lr.value,
+						new NonEmptyTable<E>(l.key, l.value, l.left, lr.left, false),
+						new NonEmptyTable<E>(key, value, lr.right, right, false), true);
+				}
+			}
+
+			if (isRed(right)) {
+				NonEmptyTable<E> r = (NonEmptyTable<E>) right;
+
+				if (isRed(r.left)) {
+					NonEmptyTable<E> rl = (NonEmptyTable<E>) r.left;
+					return new NonEmptyTable<E>(rl.key, rl.value,
+						new NonEmptyTable<E>(key, value, left, rl.left, false),
+						new NonEmptyTable<E>(r.key, r.value, rl.right, r.right, false), true);
+				}
+				else if (isRed(r.right)) {
+					NonEmptyTable<E> rr = (NonEmptyTable<E>) r.right;
+					return new NonEmptyTable<E>(r.key, r.value,
+						new NonEmptyTable<E>(key, value, left, r.left, false),
+						new NonEmptyTable<E>(rr.key, rr.value, rr.left, rr.right, false), true);
+				}
+			}
 		}
+
+		return new NonEmptyTable<E>(key, value, left, right, red);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,122 @@
+package tables;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An identifier of the source code. Symbols are interned, that is,
+ * there is a single symbol for each name. Hence they can be compared with
+ * {@code ==} and their hash code is computed only once, when they are created.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public final class Symbol implements Comparable<Symbol> {
+
+	/**
+	 * The name of this symbol.
+	 */
+
+	private final String name;
+
+	/**
+	 * The hash code of this symbol. It is the hash code of its name,
+	 * so that hash tables keyed on symbols are laid out as if they were
+	 * keyed on their names.
+	 */
+
+	private final int hash;
+
+	/**
+	 * A progressive number, distinct for each symbol. It is used to order symbols.
+	 */
+
+	private final int number;
+
+	/**
+	 * The counter of the symbols created so far.
+	 */
+
+	private final static AtomicInteger counter = new AtomicInteger();
+
+	/**
+	 * The table of the symbols created so far, from their name.
+	 */
+
+	private final static ConcurrentMap<String, Symbol> memory = new ConcurrentHashMap<>();
+
+	/**
+	 * The implicit parameter of constructors and methods.
+	 */
+
+	public final static Symbol THIS = mk("this");
+
+	/**
+	 * The name of constructors in Java bytecode.
+	 */
+
+	public final static Symbol INIT = mk("<init>");
+
+	/**
+	 * The name of the method where execution starts.
+	 */
+
+	public final static Symbol MAIN = mk("main");
+
+	/**
+	 * The name of the top of the hierarchy of classes.
+	 */
+
+	public final static Symbol OBJECT = mk("Object");
+
+	/**
+	 * Builds a symbol with the given name.
+	 *
+	 * @param name the name of the symbol
+	 */
+
+	private Symbol(String name) {
+		this.name = name;
+		this.hash = name.hashCode();
+		this.number = counter.getAndIncrement();
+	}
+
+	/**
+	 * Yields the unique symbol with the given name. This method
+	 * can be called from more threads at the same time.
+	 *
+	 * @param name the name of the symbol
+	 * @return the symbol called {@code name}
+	 */
+
+	public static Symbol mk(String name) {
+		Symbol result = memory.get(name);
+		if (result != null)
+			return result;
+
+		// if another thread created the same symbol in the meantime, we use its symbol
+		Symbol previous = memory.putIfAbsent(name, result = new Symbol(name));
+		return previous != null ? previous : result;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return this == other;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public int compareTo(Symbol other) {
+		return Integer.compare(number, other.number);
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
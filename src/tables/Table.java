@@ -1,7 +1,9 @@
 package tables;
 
 /**
- * A table mapping symbols to objects.
+ * A table mapping symbols to objects. Tables are persistent,
+ * that is, they are never modified but rather copied when a binding is added.
+ * They are kept balanced, so that lookup is logarithmic in their size.
  *
  * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
  */
@@ -35,7 +37,7 @@ public abstract class Table<E> {
      *         Yields {@code null} if no object is bound to {@code key}
      */
 
-    public abstract E get(String key);
+    public abstract E get(Symbol key);
 
     /**
      * Builds a new table, identical to this, but where a given symbol is
@@ -47,5 +49,28 @@ public abstract class Table<E> {
      *         is bound to {@code value}
      */
 
-    public abstract Table<E> put(String key, E value);
+    public Table<E> put(Symbol key, E value) {
+    	// the root of a red-black tree is always black
+    	return insert(key, value).blacken();
+    }
+
+    /**
+     * Inserts a binding in this table. This table is not modified.
+     * The result might have a red root, with a red child.
+     *
+     * @param key the symbol to be bound to the given value
+     * @param value to value to be bound to the symbol
+     * @return a symbol table identical to this except for {@code key}, that
+     *         is bound to {@code value}
+     */
+
+    abstract Table<E> insert(Symbol key, E value);
+
+    /**
+     * Yields a table identical to this, but whose root is black.
+     *
+     * @return the table
+     */
+
+    abstract Table<E> blacken();
 }
\ No newline at end of file
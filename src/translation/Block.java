@@ -1,9 +1,8 @@
 package translation;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import types.CodeSignature;
 import bytecode.BranchingBytecode;
@@ -50,7 +49,7 @@ public class Block {
 	 * The number of blocks created so far.
 	 */
 
-	private static int counter = 0;
+	private final static AtomicInteger counter = new AtomicInteger();
 
 	/**
 	 * Builds a block of code with no predecessors and with the given bytecode and successors.
@@ -59,13 +58,13 @@ public class Block {
 	 * @param follows the list of successors of this block
 	 */
 
-	private Block(BytecodeList bytecode, List<Block> follows) {
+	public Block(BytecodeList bytecode, List<Block> follows) {
 		this.bytecode = bytecode;
 		this.follows = follows;
 		this.mergeable = true;
 
 		// we assign a unique identifier to this block
-		this.id = counter++;
+		this.id = counter.getAndIncrement();
 	}
 
 	/**
@@ -187,6 +186,16 @@ public class Block {
 		return bytecode;
 	}
 
+	/**
+	 * Replaces the bytecode inside this block.
+	 *
+	 * @param bytecode the new bytecode inside this block
+	 */
+
+	public void setBytecode(BytecodeList bytecode) {
+		this.bytecode = bytecode;
+	}
+
 	/**
 	 * Adds a bytecode before this block. This results in the same
 	 * block being modified or in a new block linked to {@code this}.
@@ -199,7 +208,7 @@ public class Block {
 		// we can expand our code if we have no predecessors,
 		// or otherwise we will also affect the view that our predecessors have of us
 		if (mergeable) {
-			this.bytecode = new BytecodeList(bytecode).append(this.bytecode);
+			this.bytecode.prefixedBy(bytecode);
 			return this;
 		}
 		else
@@ -224,55 +233,56 @@ public class Block {
 	 * @param program the program which is being cleaned-up
 	 */
 
-
-	void cleanUp(Program program) {
+	void cleanUp(final Program program) {
 		program.getSigs().add(program.getStart());
-		cleanUp(new HashSet<Block>(), program);
-	}
 
-	/**
-	 * Auxiliary method that cleans-up this block and all those reachable
-	 * from it. It removes useless {@code nop}'s and merges a block, with only
-	 * one successor which has only one predecessor, with that successor.
-	 *
-	 * @param done the set of blocks which have been already cleaned-up
-	 * @param program the program which is being cleaned-up
-	 */
-
-	private void cleanUp(Set<Block> done, Program program) {
-		if (!done.contains(this)) {
-			done.add(this);
-
-			List<Block> newFollows = new ArrayList<>();
+		new BlockWalker() {
 
-			// we consider each successor and remove isolated nop's
-			for (Block follow: follows)
-				if (follow != this && follow.bytecode.getHead() instanceof NOP &&
-				follow.bytecode.getTail() == null)
-					newFollows.addAll(follow.follows);
-				else
-					newFollows.add(follow);
+			@Override
+			protected void enter(Block block) {
+				block.cleanUpBlock(program);
+			}
 
-			follows = newFollows;
+			@Override
+			protected List<Block> successors(Block block) {
+				List<Block> successors = new ArrayList<>(block.follows);
 
-			// we continue with the successors
-			for (Block follow: follows)
-				follow.cleanUp(done,program);
+				// after the successors, we continue by cleaning the dynamic targets
+				for (Bytecode bytecode: block.bytecode)
+					if (bytecode instanceof CALL)
+						for (CodeSignature target: ((CALL) bytecode).getDynamicTargets())
+							successors.add(target.getCode());
 
-			// if the bytecode contains a reference to a field or to a
-			// constructor or to a method, we add it to the signatures
-			// for the program and update its statistics
-			for (BytecodeList bs = bytecode; bs != null; bs = bs.getTail()) {
-				Bytecode bytecode = bs.getHead();
+				return successors;
+			}
+		}.walk(this);
+	}
 
-				// we take note that the program contains the bytecodes in the block
-				program.storeBytecode(bytecode);
+	/**
+	 * Auxiliary method that cleans-up this block only. It removes
+	 * the useless {@code nop}'s that follow this block.
+	 *
+	 * @param program the program which is being cleaned-up
+	 */
 
-				if (bytecode instanceof CALL)
-					// we continue by cleaning the dynamic targets
-					for (CodeSignature target: ((CALL) bytecode).getDynamicTargets())
-						target.getCode().cleanUp(done,program);
-			}
-		}
+	private void cleanUpBlock(Program program) {
+		List<Block> newFollows = new ArrayList<>();
+
+		// we consider each successor and remove isolated nop's
+		for (Block follow: follows)
+			if (follow != this && follow.bytecode.getHead() instanceof NOP &&
+			follow.bytecode.size() == 1)
+				newFollows.addAll(follow.follows);
+			else
+				newFollows.add(follow);
+
+		follows = newFollows;
+
+		// if the bytecode contains a reference to a field or to a
+		// constructor or to a method, we add it to the signatures
+		// for the program and update its statistics
+		for (Bytecode bytecode: this.bytecode)
+			// we take note that the program contains the bytecodes in the block
+			program.storeBytecode(bytecode);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,195 @@
+package translation;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * A depth-first walk over a graph of blocks of code. The walk uses an
+ * explicit stack rather than recursion, so that it can walk graphs of
+ * any size and depth without exhausting the stack of the Java virtual machine.
+ * The successors of a block are visited in order, hence the walk is
+ * deterministic. Each block is visited at most once, also across more
+ * calls to {@link #walk(Block)} on the same walker. Subclasses specify
+ * what must be done when a block is visited.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public abstract class BlockWalker {
+
+	/**
+	 * The identifiers of the blocks visited so far, plus one, in an open
+	 * addressing hash table, indexed by their lower bits. Free slots hold 0.
+	 * Its length is always a power of two.
+	 */
+
+	private int[] visited = new int[64];
+
+	/**
+	 * The number of identifiers in {@link #visited}.
+	 */
+
+	private int size;
+
+	/**
+	 * Walks the blocks reachable from the given one, that have not been visited yet.
+	 *
+	 * @param start the block where the walk starts
+	 */
+
+	public final void walk(Block start) {
+		if (!markVisited(start))
+			return;
+
+		Deque<Frame> stack = new ArrayDeque<>();
+		stack.push(new Frame(start));
+
+		while (!stack.isEmpty()) {
+			Frame frame = stack.peek();
+
+			if (frame.next < frame.successors.size()) {
+				Block successor = frame.successors.get(frame.next++);
+
+				if (markVisited(successor))
+					// the edge will be reported when the walk of the successor is over
+					stack.push(new Frame(successor));
+				else
+					edge(frame.block, successor);
+			}
+			else {
+				stack.pop();
+				exit(frame.block);
+
+				Frame parent = stack.peek();
+				if (parent != null)
+					edge(parent.block, frame.block);
+			}
+		}
+	}
+
+	/**
+	 * Called when a block is visited for the first time,
+	 * before its successors are visited.
+	 *
+	 * @param block the block
+	 */
+
+	protected void enter(Block block) {}
+
+	/**
+	 * Yields the successors of a block that must be visited after it,
+	 * in order. It is called just after {@link #enter(Block)}.
+	 * By default, they are the blocks that follow the block.
+	 *
+	 * @param block the block
+	 * @return the successors of {@code block}
+	 */
+
+	protected List<Block> successors(Block block) {
+		return block.getFollows();
+	}
+
+	/**
+	 * Called after the walk from a successor of a block is over.
+	 * If the successor had already been visited, it is called immediately.
+	 *
+	 * @param block the block
+	 * @param successor the successor of {@code block}
+	 */
+
+	protected void edge(Block block, Block successor) {}
+
+	/**
+	 * Called after all successors of a block have been visited.
+	 *
+	 * @param block the block
+	 */
+
+	protected void exit(Block block) {}
+
+	/**
+	 * Takes note that a block has been visited.
+	 *
+	 * @param block the block
+	 * @return true if and only if {@code block} had not been visited before
+	 */
+
+	private boolean markVisited(Block block) {
+		int key = block.getId() + 1;
+
+		// we enlarge the table when it gets half full
+		if (size * 2 >= visited.length) {
+			int[] old = visited;
+			visited = new int[old.length * 2];
+
+			for (int id: old)
+				if (id != 0)
+					visited[freeSlot(id)] = id;
+		}
+
+		int mask = visited.length - 1;
+		int slot = key & mask;
+		for (int id; (id = visited[slot]) != 0; slot = (slot + 1) & mask)
+			if (id == key)
+				return false;
+
+		visited[slot] = key;
+		size++;
+
+		return true;
+	}
+
+	/**
+	 * Yields the first free slot of {@link #visited} for the given key.
+	 *
+	 * @param key the key
+	 * @return the index of the slot
+	 */
+
+	private int freeSlot(int key) {
+		int mask = visited.length - 1;
+		int slot = key & mask;
+		while (visited[slot] != 0)
+			slot = (slot + 1) & mask;
+
+		return slot;
+	}
+
+	/**
+	 * A block whose successors are being visited.
+	 */
+
+	private class Frame {
+
+		/**
+		 * The block.
+		 */
+
+		private final Block block;
+
+		/**
+		 * The successors of {@link #block}.
+		 */
+
+		private final List<Block> successors;
+
+		/**
+		 * The index of the next successor to visit.
+		 */
+
+		private int next;
+
+		/**
+		 * Enters a block and builds the frame for the visit of its successors.
+		 *
+		 * @param block the block
+		 */
+
+		private Frame(Block block) {
+			this.block = block;
+			enter(block);
+			this.successors = successors(block);
+		}
+	}
+}
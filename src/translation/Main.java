@@ -1,6 +1,11 @@
 package translation;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
 import errorMsg.ErrorMsg;
+import javaBytecodeGenerator.NormalClassGenerator;
 import types.ClassType;
 import translation.Program;
 
@@ -10,6 +15,10 @@ public class Main {
 			System.out.println("You must specify a Kitten class name to compile");
 			return;
 		}
+		else if (args[0].equals("-benchmark")) {
+			benchmark(args.length > 1 ? Integer.parseInt(args[1]) : 50000);
+			return;
+		}
 
 		long totalTime = System.currentTimeMillis();
 
@@ -37,4 +46,75 @@ public class Main {
 
 		System.out.println("Total compilation time was " + (System.currentTimeMillis() - totalTime) + "ms");
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Measures the translation into Kitten bytecode of a method made of
+	 * a long sequence of statements, as in generated code. The class of the
+	 * method is written in the current directory, that must also contain
+	 * {@code Object.kit}. The translation builds the code of the method by
+	 * prefixing its bytecodes one at a time, hence its cost should grow
+	 * linearly with the number of statements, as well as the cost of
+	 * printing that code and of generating its Java bytecode. Since the
+	 * abstract syntax of a sequence of statements is deeply nested,
+	 * the compilation is run in a thread with a large stack.
+	 *
+	 * @param statements the number of statements of the method
+	 */
+
+	private static void benchmark(final int statements) {
+		final File file = new File("LongMethod.kit");
+
+		try (PrintWriter writer = new PrintWriter(file)) {
+			writer.println("class LongMethod {");
+			writer.println("  method void main() {");
+			writer.println("    int a := 0;");
+			for (int i = 1; i < statements; i++)
+				writer.println("    a := a + " + (i % 100) + ";");
+			writer.println("    a := a * 2");
+			writer.println("  }");
+			writer.println("}");
+		}
+		catch (IOException e) {
+			System.out.println("Cannot write " + file);
+			return;
+		}
+
+		Thread thread = new Thread(null, new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					long time = System.currentTimeMillis();
+					ClassType clazz = ClassType.mkFromFileName(file.getName());
+					ErrorMsg errorMsg = clazz.getErrorMsg();
+					System.out.println("Parsing and type-checking completed     \t[" + (System.currentTimeMillis() - time) + "ms]");
+
+					if (errorMsg != null && !errorMsg.anyErrors()) {
+						time = System.currentTimeMillis();
+						Program program = clazz.translate();
+						System.out.println("Translation of " + statements + " statements into Kitten bytecode completed\t[" + (System.currentTimeMillis() - time) + "ms]");
+
+						time = System.currentTimeMillis();
+						int length = program.firstBlock().getBytecode().toString().length();
+						System.out.println("Printing of " + length + " characters of Kitten bytecode completed\t[" + (System.currentTimeMillis() - time) + "ms]");
+
+						time = System.currentTimeMillis();
+						new NormalClassGenerator(clazz, program.getSigs()).getJavaClass();
+						System.out.println("Generation of the Java bytecode completed\t[" + (System.currentTimeMillis() - time) + "ms]");
+					}
+				}
+				finally {
+					file.delete();
+				}
+			}
+		}, "benchmark", 1L << 30);
+
+		thread.start();
+		try {
+			thread.join();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
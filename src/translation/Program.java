@@ -1,13 +1,19 @@
 package translation;
 
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import javaBytecodeGenerator.NormalClassGenerator;
+import javaBytecodeGenerator.ParallelBackEnd;
 import javaBytecodeGenerator.TestClassGenerator;
+
+import types.ArrayType;
 import types.ClassMemberSignature;
 import types.ClassType;
 import types.CodeSignature;
@@ -16,10 +22,16 @@ import types.FieldSignature;
 import types.FixtureSignature;
 import types.MethodSignature;
 import types.TestSignature;
+import types.Type;
 import types.TypeList;
+import bytecode.ARRAYLOAD;
+import bytecode.ARRAYSTORE;
 import bytecode.Bytecode;
 import bytecode.CALL;
+import bytecode.CAST;
 import bytecode.FieldAccessBytecode;
+import bytecode.NEW;
+import bytecode.NEWARRAY;
 
 /**
  * A program, that is, a set of class member signatures.
@@ -101,7 +113,9 @@ public class Program {
 			if (sig instanceof CodeSignature)
 				((CodeSignature) sig).getCode().cleanUp(this);
 		}
-		start.getCode().cleanUp(this);
+
+		if (start != null)
+			start.getCode().cleanUp(this);
 	}
 
 	/**
@@ -140,7 +154,7 @@ public class Program {
 			// the size of a standard A4 sheet (in inches)
 			dot.write("size = \"11,7.5\";\n");
 
-			toDot(sig.getCode(), dot, new HashSet<Block>());
+			dot.write(toDot(sig.getCode()));
 
 			dot.write("}");
 			dot.flush();
@@ -148,90 +162,280 @@ public class Program {
 	}
 
 	/**
-	 * Auxiliary method which writes in the dot file a box standing for the
-	 * given block, linked to the following blocks, if any.
+	 * Auxiliary method which yields the dot representation of the boxes
+	 * standing for the given block and for those reachable from it,
+	 * linked to their following blocks, if any.
 	 *
 	 * @param block
 	 *            the block
-	 * @param where
-	 *            the file where the dot representation must be written
-	 * @param done
-	 *            the set of blocks which have been processed up to now
-	 * @return the identifier of {@code block} in the dot file
-	 * @throws IOException
-	 *             if an input/output error occurs
+	 * @return the dot representation
 	 */
 
-	private String toDot(Block block, FileWriter where, Set<Block> done)
-			throws IOException {
-		String name = block.dotNodeName();
+	private String toDot(Block block) {
+		final StringBuilder dot = new StringBuilder();
 
-		// did we already dumped the given block in the file?
-		if (!done.contains(block)) {
-			// we never dumped the block before: we add it to the set of already
-			// dumped blocks
-			done.add(block);
+		new BlockWalker() {
 
-			// we add a box to the dot file
-			where.write(name + " [ shape = box, label = \"block "
-					+ block.getId() + "\\n");
+			@Override
+			protected void enter(Block block) {
+				// we add a box to the dot file
+				dot.append(block.dotNodeName() + " [ shape = box, label = \"block "
+						+ block.getId() + "\\n");
 
-			// in the middle there is a dump of the bytecode inside the block
-			where.write(block.getBytecode().toString()
-					.replaceAll("\n", "\\\\n"));
+				// in the middle there is a dump of the bytecode inside the block
+				dot.append(block.getBytecode().toString()
+						.replaceAll("\n", "\\\\n"));
 
-			// end of the label of the node
-			where.write("\"];\n");
+				// end of the label of the node
+				dot.append("\"];\n");
+			}
 
-			// we add a dot representation for the follows of the block
-			for (Block follow : block.getFollows())
-				where.write(name + "->" + toDot(follow, where, done)
+			@Override
+			protected void edge(Block block, Block follow) {
+				// we add a dot representation for the follows of the block
+				dot.append(block.dotNodeName() + "->" + follow.dotNodeName()
 						+ " [color = blue label = \"\" fontsize = 8]\n");
-		}
+			}
+		}.walk(block);
 
-		// we return the unique identifier of the block in the dot file
-		return name;
+		return dot.toString();
 	}
 
 	/**
-	 * Generates the Java bytecode for all the class types and dumps the
-	 * relative {@code .class} files on the file system.
+	 * Generates the Java bytecode for the class types needed by this program
+	 * and dumps the relative {@code .class} files on the file system.
+	 * The other class types are skipped, since the Java virtual machine never loads them.
 	 */
 
 	public void generateJavaBytecode() {
-		// we consider one class at the time and we generate its Java bytecode
+		generateJavaBytecode(null);
+	}
+
+	/**
+	 * Generates the Java bytecode for the class types needed by this program
+	 * and dumps the relative {@code .class} files on the file system.
+	 * The other class types are skipped, since the Java virtual machine never loads them.
+	 *
+	 * @param backEnd the back-end that generates the classes in parallel. If this is
+	 *                {@code null}, the classes are generated one at a time, on this thread
+	 */
+
+	public void generateJavaBytecode(ParallelBackEnd backEnd) {
+		Set<ClassType> needed = neededClasses();
+		List<ClassType> classes = new ArrayList<>();
+		int skippedCode = 0;
+
 		for (ClassType clazz : ClassType.getAll())
-			try {
-				new NormalClassGenerator(clazz, sigs).getJavaClass().dump(
-						clazz + ".class");
-			} catch (IOException e) {
-				System.out
-						.println("Could not dump the Java bytecode for class "
-								+ clazz);
-			}
+			if (needed.contains(clazz))
+				classes.add(clazz);
+			else
+				skippedCode += clazz.getConstructors().size() + methodsOf(clazz);
+
+		List<byte[]> generated;
+		if (backEnd != null)
+			generated = backEnd.generate(classes, sigs, false);
+		else {
+			// we consider one class at the time and we generate its Java bytecode
+			generated = new ArrayList<>();
+			for (ClassType clazz : classes)
+				generated.add(new NormalClassGenerator(clazz, sigs).getJavaClass().getBytes());
+		}
+
+		long bytes = 0L;
+		for (int pos = 0; pos < classes.size(); pos++)
+			bytes += dump(generated.get(pos), classes.get(pos).toString());
+
+		System.out.println("Generated " + classes.size() + " classes [" + bytes + " bytes], skipped "
+			+ (ClassType.getAll().size() - classes.size()) + " unreachable classes with "
+			+ skippedCode + " constructors and methods");
 	}
 
 	/**
-	 * Generates the Java bytecode for all the test class types and dumps the
-	 * relative {@code .class} files on the file system.
+	 * Generates the Java bytecode for the test class types of the classes needed
+	 * by this program and dumps the relative {@code .class} files on the file system.
 	 */
 
 	public void generateJavaBytecodeForTest() {
-		// we consider one class at the time and we generate its Java bytecode
+		generateJavaBytecodeForTest(null);
+	}
+
+	/**
+	 * Generates the Java bytecode for the test class types of the classes needed
+	 * by this program and dumps the relative {@code .class} files on the file system.
+	 *
+	 * @param backEnd the back-end that generates the classes in parallel. If this is
+	 *                {@code null}, the classes are generated one at a time, on this thread
+	 */
+
+	public void generateJavaBytecodeForTest(ParallelBackEnd backEnd) {
+		Set<ClassType> needed = neededClasses();
+		List<ClassType> classes = new ArrayList<>();
+		int skipped = 0;
+
 		for (ClassType clazz : ClassType.getAll()) {
 
 			if (clazz.getTests().isEmpty())
 				continue;
 
-			try {
-				new TestClassGenerator(clazz, sigs).getJavaClass().dump(
-						clazz + "Test.class");
-			} catch (IOException e) {
-				System.out
-						.println("Could not dump the Java bytecode for class "
-								+ clazz);
+			if (needed.contains(clazz))
+				classes.add(clazz);
+			else
+				skipped++;
+		}
+
+		List<byte[]> generated;
+		if (backEnd != null)
+			generated = backEnd.generate(classes, sigs, true);
+		else {
+			// we consider one class at the time and we generate its Java bytecode
+			generated = new ArrayList<>();
+			for (ClassType clazz : classes)
+				generated.add(new TestClassGenerator(clazz, sigs).getJavaClass().getBytes());
+		}
+
+		long bytes = 0L;
+		for (int pos = 0; pos < classes.size(); pos++)
+			bytes += dump(generated.get(pos), classes.get(pos) + "Test");
+
+		if (classes.size() + skipped > 0)
+			System.out.println("Generated " + classes.size() + " test classes [" + bytes + " bytes], skipped "
+				+ skipped + " test classes of unreachable classes");
+	}
+
+	/**
+	 * Dumps the bytes of a Java class on the file system.
+	 *
+	 * @param bytes the bytes of the Java class
+	 * @param name the name of the {@code .class} file, without extension
+	 * @return the number of bytes written
+	 */
+
+	private static int dump(byte[] bytes, String name) {
+		try (FileOutputStream out = new FileOutputStream(name + ".class")) {
+			out.write(bytes);
+			return bytes.length;
+		}
+		catch (IOException e) {
+			System.out.println("Could not dump the Java bytecode for class " + name);
+			return 0;
+		}
+	}
+
+	/**
+	 * Yields the number of methods defined in the given class.
+	 *
+	 * @param clazz the class
+	 * @return the number of methods
+	 */
+
+	private static int methodsOf(ClassType clazz) {
+		int methods = 0;
+		for (Set<MethodSignature> s : clazz.getMethods().values())
+			methods += s.size();
+
+		return methods;
+	}
+
+	/**
+	 * Computes the class types whose Java bytecode is needed to run this program
+	 * and its tests. They are the classes that define a signature of this program,
+	 * those referenced by the types of the signatures of this program or by its code,
+	 * and their superclasses. The tests of a class are only generated if the class is needed.
+	 * A program without a starting method is a library, whose classes are all needed.
+	 *
+	 * @return the needed class types
+	 */
+
+	private Set<ClassType> neededClasses() {
+		final Set<ClassType> needed = new HashSet<>();
+
+		if (start == null) {
+			needed.addAll(ClassType.getAll());
+			return needed;
+		}
+
+		for (ClassMemberSignature sig : sigs) {
+			need(sig.getDefiningClass(), needed);
+
+			if (sig instanceof FieldSignature)
+				need(((FieldSignature) sig).getType(), needed);
+			else if (sig instanceof CodeSignature) {
+				CodeSignature code = (CodeSignature) sig;
+				need(code.getReturnType(), needed);
+				for (TypeList cursor = code.getParameters(); cursor != TypeList.EMPTY; cursor = cursor.getTail())
+					need(cursor.getHead(), needed);
+
+				if (code.getCode() != null)
+					new BlockWalker() {
+
+						@Override
+						protected void enter(Block block) {
+							for (Bytecode bytecode : block.getBytecode())
+								needTypesOf(bytecode, needed);
+						}
+					}.walk(code.getCode());
 			}
 		}
+
+		return needed;
+	}
+
+	/**
+	 * Takes note that the class types referenced by the given bytecode are needed.
+	 * The Java virtual machine might load them while verifying or running the bytecode.
+	 *
+	 * @param bytecode the bytecode
+	 * @param needed the set of needed class types, that gets modified
+	 */
+
+	private static void needTypesOf(Bytecode bytecode, Set<ClassType> needed) {
+		if (bytecode instanceof NEW)
+			need(((NEW) bytecode).getType(), needed);
+		else if (bytecode instanceof NEWARRAY)
+			need(((NEWARRAY) bytecode).getElementsType(), needed);
+		else if (bytecode instanceof CAST) {
+			need(((CAST) bytecode).getFromType(), needed);
+			need(((CAST) bytecode).getIntoType(), needed);
+		}
+		else if (bytecode instanceof ARRAYLOAD)
+			need(((ARRAYLOAD) bytecode).getType(), needed);
+		else if (bytecode instanceof ARRAYSTORE)
+			need(((ARRAYSTORE) bytecode).getType(), needed);
+		else if (bytecode instanceof FieldAccessBytecode) {
+			FieldSignature field = ((FieldAccessBytecode) bytecode).getField();
+			need(field.getDefiningClass(), needed);
+			need(field.getType(), needed);
+		}
+		else if (bytecode instanceof CALL) {
+			CodeSignature target = ((CALL) bytecode).getStaticTarget();
+			need(((CALL) bytecode).getReceiverType(), needed);
+			need(target.getDefiningClass(), needed);
+			need(target.getReturnType(), needed);
+			for (TypeList cursor = target.getParameters(); cursor != TypeList.EMPTY; cursor = cursor.getTail())
+				need(cursor.getHead(), needed);
+		}
+	}
+
+	/**
+	 * Takes note that the given type is needed. If it is a class type, its
+	 * superclasses are needed as well. If it is an array type, the class type
+	 * of its elements, if any, is needed.
+	 *
+	 * @param type the type
+	 * @param needed the set of needed class types, that gets modified
+	 */
+
+	private static void need(Type type, Set<ClassType> needed) {
+		while (type instanceof ArrayType)
+			type = ((ArrayType) type).getElementsType();
+
+		if (type instanceof ClassType) {
+			// we stop at the first superclass that is already needed,
+			// since its superclasses have been added together with it
+			ClassType clazz = (ClassType) type;
+			while (clazz != null && needed.add(clazz))
+				clazz = clazz.getSuperclass();
+		}
 	}
 
 	/**
@@ -44,11 +44,13 @@ public class ArrayType extends ReferenceType {
 	 */
 
 	public static ArrayType mk(Type elementsType) {
-		ArrayType result = memory.get(elementsType);
-		if (result == null)
-			memory.put(elementsType, result = new ArrayType(elementsType));
+		synchronized (memory) {
+			ArrayType result = memory.get(elementsType);
+			if (result == null)
+				memory.put(elementsType, result = new ArrayType(elementsType));
 
-		return result;
+			return result;
+		}
 	}
 
 	/**
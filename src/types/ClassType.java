@@ -1,19 +1,35 @@
 package types;
 
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import lexical.Lexer;
 import syntactical.Parser;
+import syntactical.sym;
+import tables.Symbol;
 import translation.Program;
 import absyn.ClassDefinition;
+import bytecode.VIRTUALCALL;
 import errorMsg.ErrorMsg;
 
 /**
@@ -43,40 +59,76 @@ public final class ClassType extends ReferenceType {
 	private final List<ClassType> subclasses;
 
 	/**
-	 * The set of instances of this class. This is a cache for {@link #getInstances()}.
+	 * The position of this class in the last index of the class hierarchy
+	 * that includes this class. This is {@code null} if this class has not
+	 * been indexed yet.
 	 */
 
-	private List<ClassType> instances;
+	private volatile Position position;
 
 	/**
-	 * A map from field symbols to their signature.
+	 * A map from field symbols to their signature. The members of this class
+	 * are kept in the order of the source file, so that they are always
+	 * generated in the same order, also when classes are built in parallel.
 	 */
 
-	private final Map<String, FieldSignature> fields = new HashMap<>();
+	private final Map<Symbol, FieldSignature> fields = new LinkedHashMap<>();
 
 	/**
 	 * The set of constructor signatures in this class.
 	 */
 
-	private final Set<ConstructorSignature> constructors = new HashSet<>();
+	private final Set<ConstructorSignature> constructors = new LinkedHashSet<>();
 	
 	/**
 	 * The set of fixtures signatures in this class.
 	 */
 
-	private Set<FixtureSignature> fixtures = new HashSet<>();
+	private Set<FixtureSignature> fixtures = new LinkedHashSet<>();
 	
 	/**
 	 * The set of tests signatures in this class.
 	 */
 
-	private Set<TestSignature> tests = new HashSet<>();
+	private Set<TestSignature> tests = new LinkedHashSet<>();
 	/**
 	 * A map from method symbols to the set of signatures of the methods with
 	 * that name. Because of overloading, more than one method might have a given name.
 	 */
 
-	private final Map<String, Set<MethodSignature>> methods = new HashMap<>();
+	private final Map<Symbol, Set<MethodSignature>> methods = new LinkedHashMap<>();
+
+	/**
+	 * A map from field symbols to the signature of the field visible
+	 * in this class with that name, either defined in this class or inherited.
+	 * It is built the first time that a field is looked up, since at that
+	 * moment the members of this class and of its superclasses are known.
+	 */
+
+	private volatile Map<Symbol, FieldSignature> visibleFields;
+
+	/**
+	 * A map from method symbols to the signatures of the methods with
+	 * that name visible in this class, that is, defined in this class or
+	 * inherited and not overridden. It is built the first time that
+	 * a method is looked up.
+	 */
+
+	private volatile Map<Symbol, Set<MethodSignature>> visibleMethods;
+
+	/**
+	 * A cache of the results of {@link #methodsLookup(Symbol, TypeList)},
+	 * from the name of the methods and the types of the actual parameters.
+	 */
+
+	private final ConcurrentMap<Symbol, ConcurrentMap<TypeList, Set<MethodSignature>>> methodsResolution = new ConcurrentHashMap<>();
+
+	/**
+	 * A cache of the results of {@link #constructorsLookup(TypeList)},
+	 * from the types of the actual parameters.
+	 */
+
+	private final ConcurrentMap<TypeList, Set<ConstructorSignature>> constructorsResolution = new ConcurrentHashMap<>();
 
 	/**
 	 * The utility for issuing errors about this class.
@@ -91,10 +143,18 @@ public final class ClassType extends ReferenceType {
 	private final ClassDefinition abstractSyntax;
 
 	/**
-	 * True if and only if this class has been already type-checked.
+	 * True if and only if this class has been already type-checked
+	 * (or its type-checking has already started).
 	 */
 	
-	private boolean typeChecked;
+	private final AtomicBoolean typeChecked = new AtomicBoolean();
+
+	/**
+	 * True if and only if the Java class generated for this class must be
+	 * {@code final}, since this class has no subclasses in the program.
+	 */
+
+	private boolean isFinal;
 
 
 	/**
@@ -115,24 +175,36 @@ public final class ClassType extends ReferenceType {
 		// we record this object for future lookup
 		memory.put(name, this);
 	
-		// we perform lexical and syntactical analysis. The result is
-		// the abstract syntax of this class definition
+		// we perform lexical and syntactical analysis, unless it has been
+		// already performed in advance. The result is the abstract syntax of this class definition
 		ClassDefinition abstractSyntax;
+		ParsedClass parsedClass = parsed.remove(name);
 
-		try {
-			Parser parser = new Parser(new Lexer(name));
-			errorMsg = parser.getErrorMsg();
-			abstractSyntax = (ClassDefinition) parser.parse().value;
+		if (parsedClass != null) {
+			// the messages of the analysis have been deferred: we report them now
+			if ((errorMsg = parsedClass.errorMsg) != null)
+				errorMsg.flush();
+
+			abstractSyntax = parsedClass.abstractSyntax;
 		}
-		catch (Exception e) {
+		else
+			try {
+				Parser parser = new Parser(new Lexer(name));
+				errorMsg = parser.getErrorMsg();
+				abstractSyntax = (ClassDefinition) parser.parse().value;
+			}
+			catch (Exception e) {
+				abstractSyntax = null;
+			}
+
+		if (abstractSyntax == null)
 			// there is a syntax error in the class text or the same class
 			// cannot be found on the file system or cannot be type-checked:
 			// we build a fictitious syntax for the class, so that the processing can go on
 			if (name.equals("Object"))
-				abstractSyntax = new ClassDefinition(0, name, null, null);
+				abstractSyntax = new ClassDefinition(0, Symbol.OBJECT, null, null);
 			else
-				abstractSyntax = new ClassDefinition(0, name, "Object", null);
-		}
+				abstractSyntax = new ClassDefinition(0, Symbol.mk(name), Symbol.OBJECT, null);
 
 		// we add the fields, constructors and methods of this class
 		(this.abstractSyntax = abstractSyntax).addMembersTo(this);
@@ -145,7 +217,10 @@ public final class ClassType extends ReferenceType {
 		else
 			// if this is not Object, we also create its superclass and take
 			// note that we are a direct subclass of our superclass
-			(superclass = mk(abstractSyntax.getSuperclassName())).subclasses.add(this);
+			(superclass = mk(abstractSyntax.getSuperclassName().toString())).subclasses.add(this);
+
+		// the class hierarchy has changed: its index must be rebuilt
+		created++;
 	}
 
 	/**
@@ -168,6 +243,27 @@ public final class ClassType extends ReferenceType {
 		return subclasses;
 	}
 
+	/**
+	 * Determines if the Java class generated for this class must be {@code final}.
+	 *
+	 * @return true if and only if the Java class must be {@code final}
+	 */
+
+	public boolean isFinal() {
+		return isFinal;
+	}
+
+	/**
+	 * Specifies if the Java class generated for this class must be {@code final}.
+	 * This is only safe if this class has no subclasses.
+	 *
+	 * @param isFinal true if and only if the Java class must be {@code final}
+	 */
+
+	public void setFinal(boolean isFinal) {
+		this.isFinal = isFinal;
+	}
+
 	/**
 	 * Yields the name of this class.
 	 * 
@@ -206,7 +302,18 @@ public final class ClassType extends ReferenceType {
 	 */
 
 	public boolean subclass(ClassType other) {
-		return this == other || (superclass != null && superclass.subclass(other));
+		Position mine = getPosition(), its = other.getPosition();
+
+		// the subclasses of other are numbered from its number up to the end of its interval
+		if (mine != null && its != null && mine.hierarchy == its.hierarchy)
+			return its.number <= mine.number && mine.number < mine.hierarchy.end[its.number];
+
+		// the two classes have been indexed at different times, or could not be indexed
+		for (ClassType cursor = this; cursor != null; cursor = cursor.superclass)
+			if (cursor == other)
+				return true;
+
+		return false;
 	}
 
 	/**
@@ -232,11 +339,31 @@ public final class ClassType extends ReferenceType {
 		// between a class type and an array type, the least common supertype is Object
 		if (other instanceof ArrayType)
 			return getObjectType();
-		else if (other instanceof ClassType)
+		else if (other instanceof ClassType) {
+			Position mine = getPosition(), its = ((ClassType) other).getPosition();
+
+			if (mine != null && its != null && mine.hierarchy == its.hierarchy) {
+				// we go up to the common ancestor of the two classes
+				Hierarchy hierarchy = mine.hierarchy;
+				int cursor = mine.number, otherCursor = its.number;
+
+				while (hierarchy.depth[cursor] > hierarchy.depth[otherCursor])
+					cursor = hierarchy.parent[cursor];
+				while (hierarchy.depth[otherCursor] > hierarchy.depth[cursor])
+					otherCursor = hierarchy.parent[otherCursor];
+				while (cursor != otherCursor) {
+					cursor = hierarchy.parent[cursor];
+					otherCursor = hierarchy.parent[otherCursor];
+				}
+
+				return hierarchy.order[cursor];
+			}
+
 			// we look in our superclasses for a superclass of other
 			for (ClassType cursor = this; ; cursor = cursor.superclass)
 				if (other.canBeAssignedTo(cursor))
 					return cursor;
+		}
 
 		// the supertype of a class type and null or an unused type is the class itself,
 		// otherwise, there is no common supertype
@@ -245,7 +372,8 @@ public final class ClassType extends ReferenceType {
 
 	/**
 	 * Yields the set of strict and non-strict, direct and indirect
-	 * subclasses of this class.
+	 * subclasses of this class. They are a contiguous slice of the
+	 * index of the class hierarchy.
 	 *
 	 * @return the set of strict and non-strict, direct and indirect
 	 *         subclasses of this class. This list is never empty
@@ -253,20 +381,88 @@ public final class ClassType extends ReferenceType {
 	 */
 
 	public final List<ClassType> getInstances() {
-		// we first check to see if we already computed the set of instances of this class
-		if (instances != null)
-			return instances;
+		Position position = getPosition();
 
-		// we add this class itself
-		List<ClassType> result = new ArrayList<>();
-		result.add(this);
+		// the index must include all subclasses created so far
+		if (position == null || position.hierarchy.created != created) {
+			reindex();
+			position = this.position;
+		}
 
-		// we add the instances of our subclasses
-		for (ClassType sub: subclasses)
-			result.addAll(sub.getInstances());
+		if (position == null) {
+			// this class cannot be reached from Object
+			List<ClassType> result = new ArrayList<>();
+			result.add(this);
+			return result;
+		}
 
-		// we take note of the set of instances, so that we do not recompute it next time
-		return instances = result;
+		Hierarchy hierarchy = position.hierarchy;
+		return Collections.unmodifiableList(Arrays.asList(hierarchy.order).subList(position.number, hierarchy.end[position.number]));
+	}
+
+	/**
+	 * Yields the position of this class in the index of the class hierarchy,
+	 * building the index if this class has not been indexed yet.
+	 *
+	 * @return the position of this class. This is {@code null} if
+	 *         this class cannot be reached from Object
+	 */
+
+	private Position getPosition() {
+		Position result = position;
+
+		if (result == null) {
+			reindex();
+			result = position;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Rebuilds the index of the class hierarchy, if classes have been
+	 * created after it has been built. The classes are numbered in pre-order,
+	 * starting from Object, so that the subclasses of each class get a
+	 * contiguous interval of numbers, starting at the number of that class.
+	 */
+
+	private static void reindex() {
+		synchronized (memory) {
+			Hierarchy last = hierarchy;
+			if ((last != null && last.created == created) || getObjectType() == null)
+				return;
+
+			Hierarchy result = new Hierarchy(created, memory.size());
+			number(getObjectType(), -1, 0, result);
+
+			// the positions are published only when the index is complete
+			for (int number = 0; number < result.order.length && result.order[number] != null; number++)
+				result.order[number].position = new Position(result, number);
+
+			hierarchy = result;
+		}
+	}
+
+	/**
+	 * Numbers in pre-order the given class and its subclasses.
+	 *
+	 * @param clazz the class
+	 * @param parent the number of the superclass of {@code clazz}, or -1 for Object
+	 * @param depth the depth of {@code clazz} in the class hierarchy
+	 * @param hierarchy the index being built
+	 * @return the number of classes numbered so far
+	 */
+
+	private static int number(ClassType clazz, int parent, int depth, Hierarchy hierarchy) {
+		int number = hierarchy.size++;
+		hierarchy.order[number] = clazz;
+		hierarchy.parent[number] = parent;
+		hierarchy.depth[number] = depth;
+
+		for (ClassType sub: clazz.subclasses)
+			number(sub, number, depth + 1, hierarchy);
+
+		return hierarchy.end[number] = hierarchy.size;
 	}
 
 	/**
@@ -277,7 +473,7 @@ public final class ClassType extends ReferenceType {
 	 * @param sig the signature of the field
 	 */
 
-	public void addField(String name, FieldSignature sig) {
+	public void addField(Symbol name, FieldSignature sig) {
 		fields.put(name,sig);
 	}
 
@@ -300,11 +496,11 @@ public final class ClassType extends ReferenceType {
 	 * @param sig the signature of the method
 	 */
 
-	public final void addMethod(String name, MethodSignature sig) {
+	public final void addMethod(Symbol name, MethodSignature sig) {
 		// we read all methods, in this class, with the given name
 		Set<MethodSignature> set = methods.get(name);
 		if (set == null)
-			methods.put(name, set = new HashSet<>());
+			methods.put(name, set = new LinkedHashSet<>());
 
 		// we add this new method
 		set.add(sig);
@@ -339,7 +535,7 @@ public final class ClassType extends ReferenceType {
 	 * @return the fields
 	 */
 
-	public Map<String, FieldSignature> getFields() {
+	public Map<Symbol, FieldSignature> getFields() {
 		return fields;
 	}
 
@@ -359,7 +555,7 @@ public final class ClassType extends ReferenceType {
 	 * @return the methods
 	 */
 
-	public Map<String, Set<MethodSignature>> getMethods() {
+	public Map<Symbol, Set<MethodSignature>> getMethods() {
 		return methods;
 	}
 
@@ -394,15 +590,74 @@ public final class ClassType extends ReferenceType {
 	 *         such field has been found
 	 */
 
-	public final FieldSignature fieldLookup(String name) {
-		FieldSignature result;
+	public final FieldSignature fieldLookup(Symbol name) {
+		return getVisibleFields().get(name);
+	}
 
-		// we first look in this signature
-		if ((result = fields.get(name)) != null)
-			return result;
+	/**
+	 * Yields the fields visible in this class, defined in this class
+	 * or inherited from its superclasses.
+	 *
+	 * @return a map from the name of the fields to their signature
+	 */
+
+	private Map<Symbol, FieldSignature> getVisibleFields() {
+		Map<Symbol, FieldSignature> result = visibleFields;
 
-		// otherwise we look in the signature of the superclass
-		return superclass == null ? null : superclass.fieldLookup(name);
+		if (result == null) {
+			// the fields of this class hide those with the same name in the superclasses
+			result = superclass == null ? new HashMap<Symbol, FieldSignature>() : new HashMap<>(superclass.getVisibleFields());
+			result.putAll(fields);
+
+			// more threads might build the same map: they are all equivalent
+			visibleFields = result;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Yields the methods visible in this class, defined in this class
+	 * or inherited from its superclasses and not overridden.
+	 *
+	 * @return a map from the name of the methods to their signatures
+	 */
+
+	private Map<Symbol, Set<MethodSignature>> getVisibleMethods() {
+		Map<Symbol, Set<MethodSignature>> result = visibleMethods;
+
+		if (result == null) {
+			result = new HashMap<>();
+
+			if (superclass != null)
+				for (Map.Entry<Symbol, Set<MethodSignature>> entry: superclass.getVisibleMethods().entrySet())
+					result.put(entry.getKey(), new HashSet<>(entry.getValue()));
+
+			for (Map.Entry<Symbol, Set<MethodSignature>> entry: methods.entrySet()) {
+				Set<MethodSignature> visible = result.get(entry.getKey());
+				if (visible == null)
+					result.put(entry.getKey(), visible = new HashSet<>());
+				else
+					// we remove the inherited methods that are redefined in this class,
+					// in order to model method overriding
+					for (Iterator<MethodSignature> it = visible.iterator(); it.hasNext(); ) {
+						TypeList inheritedFormals = it.next().getParameters();
+
+						for (MethodSignature sig: entry.getValue())
+							if (sig.getParameters().equals(inheritedFormals)) {
+								it.remove();
+								break;
+							}
+					}
+
+				visible.addAll(entry.getValue());
+			}
+
+			// more threads might build the same map: they are all equivalent
+			visibleMethods = result;
+		}
+
+		return result;
 	}
 
 	/**
@@ -413,14 +668,22 @@ public final class ClassType extends ReferenceType {
 	 *
 	 * @param formals the types the formal parameters of the constructors
 	 *                should be more general of
-	 * @return the signatures of the resulting constructors.
-	 *         Returns an empty set if no constructor has been found
+	 * @return the signatures of the resulting constructors, as an unmodifiable set.
+	 *         Returns an empty set if no constructor has been found. The same set
+	 *         is returned for the same types of the formal parameters
 	 */
 
 	public final Set<ConstructorSignature> constructorsLookup(TypeList formals) {
-		// we return the most specific constructors amongst those available
-		// for this class and whose formal parameters are compatible with formals
-		return mostSpecific(constructors, formals);
+		Set<ConstructorSignature> result = constructorsResolution.get(formals);
+
+		if (result == null) {
+			// we return the most specific constructors amongst those available
+			// for this class and whose formal parameters are compatible with formals
+			result = Collections.unmodifiableSet(mostSpecific(constructors, formals));
+			constructorsResolution.put(formals, result);
+		}
+
+		return result;
 	}
 
 	/**
@@ -455,9 +718,9 @@ public final class ClassType extends ReferenceType {
 	 *         such method has been found
 	 */
 
-	public final MethodSignature methodLookup(String name, TypeList formals) {
-		// we check all methods in this signature having the given name
-		Set<MethodSignature> candidates = methods.get(name);
+	public final MethodSignature methodLookup(Symbol name, TypeList formals) {
+		// we check all methods visible in this class and having the given name
+		Set<MethodSignature> candidates = getVisibleMethods().get(name);
 		if (candidates != null)
 			for (MethodSignature method: candidates)
 				// we check if they have the same parameters types
@@ -465,8 +728,7 @@ public final class ClassType extends ReferenceType {
 					// found!
 					return method;
 
-		// otherwise, we look up in the superclass, if any
-		return superclass == null ? null : superclass.methodLookup(name, formals);
+		return null;
 	}
 
 	/**
@@ -479,46 +741,33 @@ public final class ClassType extends ReferenceType {
 	 * @param name the name of the method to look up for
 	 * @param formals the types the formal parameters of the methods
 	 *                should be more general of
-	 * @return the signatures of the resulting methods.
-	 *         Returns an empty set if no method has been found
+	 * @return the signatures of the resulting methods, as an unmodifiable set.
+	 *         Returns an empty set if no method has been found. The same set is
+	 *         returned for the same name and types of the formal parameters
 	 */
 
-	public final Set<MethodSignature> methodsLookup(String name, TypeList formals) {
-		// the set of candidates is initially the set of all methods
-		// called name and defined in this class
-		Set<MethodSignature> candidates = methods.get(name);
-		if (candidates == null) candidates = new HashSet<>();
-
-		if (superclass != null) {
-			// if this class extends another class, we consider all possible
-			// candidate targets in the superclass, so that we allow method inheritance
-			Set<MethodSignature> superCandidates = superclass.methodsLookup(name,formals);
-
-			// we remove from the inherited candidates those which are
-			// redefined in this class, in order to model method overriding
-			Set<MethodSignature> toBeRemoved = new HashSet<>();
+	public final Set<MethodSignature> methodsLookup(Symbol name, TypeList formals) {
+		ConcurrentMap<TypeList, Set<MethodSignature>> resolution = methodsResolution.get(name);
+		if (resolution == null) {
+			ConcurrentMap<TypeList, Set<MethodSignature>> previous = methodsResolution.putIfAbsent(name, resolution = new ConcurrentHashMap<>());
+			if (previous != null)
+				resolution = previous;
+		}
 
-			TypeList sigFormals, sig2Formals;
-			for (MethodSignature sig: superCandidates) {
-				sigFormals = sig.getParameters();
+		Set<MethodSignature> result = resolution.get(formals);
 
-				for (MethodSignature sig2: candidates) {
-					sig2Formals = sig2.getParameters();
+		if (result == null) {
+			// the candidates are the methods called name, defined in this class or
+			// inherited and not overridden: we return the most specific amongst them
+			// whose formal parameters are compatible with formals
+			Set<MethodSignature> candidates = getVisibleMethods().get(name);
+			result = candidates == null ? Collections.<MethodSignature>emptySet()
+				: Collections.unmodifiableSet(mostSpecific(candidates, formals));
 
-					if (sigFormals.equals(sig2Formals))
-						toBeRemoved.add(sig);
-				}
-			}
-
-			superCandidates.removeAll(toBeRemoved);
-
-			// we add the inherited and not overridden candidates
-			candidates.addAll(superCandidates);
+			resolution.put(formals, result);
 		}
 
-		// we return the most specific methods amongst those called name
-		// and whose formal parameters are compatible with formals
-		return mostSpecific(candidates, formals);
+		return result;
 	}
 
 	/**
@@ -530,10 +779,10 @@ public final class ClassType extends ReferenceType {
 	 * 		   Yields {@code null} if no such method has been found
 	 */
 
-	public final TestSignature testLookup(String name) {
+	public final TestSignature testLookup(Symbol name) {
 		if(tests != null) {
 			for(TestSignature test : tests) {
-				if(test.getName().equals(name)) {
+				if(test.getName() == name) {
 					return test;
 				}
 			}
@@ -604,10 +853,48 @@ public final class ClassType extends ReferenceType {
 	/**
 	 * A table which binds each symbol to its corresponding {@code KittenClassType}.
 	 * This lets us have a unique {@code KittenClassType} for a given name.
+	 * Class types are created under the lock of this table, so that they can be
+	 * created and looked up from more threads at the same time.
 	 */
 
 	private final static Map<String, ClassType> memory = new HashMap<>();
 
+	/**
+	 * The message of the error thrown by the lexer for unmatched input.
+	 */
+
+	private final static String UNMATCHED_INPUT = "Lexical Error: Unmatched Input.";
+
+	/**
+	 * A table which binds the name of some classes to the result of their
+	 * lexical and syntactical analysis, performed in advance and possibly in parallel
+	 * through {@link #parseInAdvance(String)}. The entry is removed when the
+	 * class type is eventually created.
+	 */
+
+	private final static Map<String, ParsedClass> parsed = new ConcurrentHashMap<>();
+
+	/**
+	 * The type-checking tasks forked so far by {@link #typeCheck()}, when
+	 * type-checking is performed inside a fork-join pool. They are joined
+	 * by {@link #awaitTypeChecking()}.
+	 */
+
+	private final static Queue<ForkJoinTask<?>> typeCheckingTasks = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * The number of class types created so far. It is modified under the lock of {@link #memory}.
+	 */
+
+	private static volatile int created;
+
+	/**
+	 * The last index of the class hierarchy, built by {@link #reindex()}.
+	 * It is stale if classes have been created after it.
+	 */
+
+	private static volatile Hierarchy hierarchy;
+
 	/**
 	 * Yields a class type with the given name. If a class type object named
 	 * <tt>name</tt> already exists, that object is returned. Otherwise, if a
@@ -621,13 +908,80 @@ public final class ClassType extends ReferenceType {
 	 */
 
 	public static ClassType mk(String name) {
-		ClassType result;
+		synchronized (memory) {
+			ClassType result;
 
-		// we first check to see if we already built this class type
-		if ((result = memory.get(name)) != null)
-			return result;
-		else
-			return new ClassType(name);
+			// we first check to see if we already built this class type
+			if ((result = memory.get(name)) != null)
+				return result;
+			else
+				return new ClassType(name);
+		}
+	}
+
+	/**
+	 * Performs, in advance, the lexical and syntactical analysis of the class
+	 * with the given name, if it has not been created nor parsed yet. The result
+	 * is used later, if and when the class type is created through {@link #mk(String)}.
+	 * The messages of the analysis are deferred up to that moment, so that nothing
+	 * is reported for classes that are parsed but never used. This method can be
+	 * called from more threads at the same time.
+	 *
+	 * @param name the name of the class
+	 * @return the identifiers occurring in the source of the class. This is empty
+	 *         if the class was already created or parsed, or if its source could
+	 *         not be analysed
+	 */
+
+	public static Set<String> parseInAdvance(String name) {
+		final Set<String> identifiers = new HashSet<>();
+
+		synchronized (memory) {
+			if (memory.containsKey(name) || parsed.containsKey(name))
+				return identifiers;
+		}
+
+		// a missing source file is reported when the class type is created
+		if (!new File(name + ".kit").exists())
+			return identifiers;
+
+		ErrorMsg errorMsg = null;
+		ClassDefinition abstractSyntax;
+
+		try {
+			// this lexer takes note of the identifiers that it finds
+			Lexer lexer = new Lexer(name) {
+
+				@Override
+				public java_cup.runtime.Symbol nextToken() throws IOException {
+					java_cup.runtime.Symbol token = super.nextToken();
+					if (token.sym == sym.ID)
+						identifiers.add(token.value.toString());
+
+					return token;
+				}
+			};
+
+			(errorMsg = lexer.getErrorMsg()).defer();
+			abstractSyntax = (ClassDefinition) new Parser(lexer).parse().value;
+		}
+		catch (Exception e) {
+			// the fictitious class will be built when the class type is created
+			abstractSyntax = null;
+		}
+		catch (Error e) {
+			// the lexer reports unmatched input with a plain error: any other error is rethrown
+			if (e.getClass() != Error.class || !UNMATCHED_INPUT.equals(e.getMessage()))
+				throw e;
+
+			// we let the class type redo the analysis when it is created
+			identifiers.clear();
+			return identifiers;
+		}
+
+		parsed.put(name, new ParsedClass(abstractSyntax, errorMsg));
+
+		return identifiers;
 	}
 
 	/**
@@ -665,6 +1019,23 @@ public final class ClassType extends ReferenceType {
 		return memory.values();
 	}
 
+	/**
+	 * Forgets all class types created or parsed so far, together with the
+	 * sets of dynamic targets of the calls to their methods. This lets one run
+	 * the front-end more times inside the same Java virtual machine,
+	 * for instance for benchmarking.
+	 */
+
+	public static void clear() {
+		synchronized (memory) {
+			memory.clear();
+			parsed.clear();
+			hierarchy = null;
+			typeCheckingTasks.clear();
+			VIRTUALCALL.clear();
+		}
+	}
+
 	/**
 	 * Yields the error reporting utility for this class.
 	 *
@@ -677,22 +1048,58 @@ public final class ClassType extends ReferenceType {
 
 	/**
 	 * Type-checks this class type, <i>i.e.</i>, its abstract syntax.
+	 * If this method is called from inside a fork-join pool, the type-checking
+	 * is forked as a new task, that can be waited for through {@link #awaitTypeChecking()}.
 	 */
 
 	public void typeCheck() {
 		// this check is just to avoid repeated error messages
-		if (!typeChecked) {
-			// we are going to type-check this class now
-			typeChecked = true;
+		if (typeChecked.compareAndSet(false, true))
+			if (ForkJoinTask.inForkJoinPool()) {
+				// we are type-checking in parallel
+				@SuppressWarnings("serial")
+				ForkJoinTask<?> task = new RecursiveAction() {
+
+					@Override
+					protected void compute() {
+						typeCheckAux();
+					}
+				};
+
+				typeCheckingTasks.add(task.fork());
+			}
+			else
+				typeCheckAux();
+	}
 
-			// we type-check the abstract syntax of this class
-			abstractSyntax.typeCheck(this);
+	/**
+	 * Auxiliary method that type-checks the abstract syntax of this class
+	 * and then its superclass, if any.
+	 */
 
-			// we continue by type-checking our superclass, if any
-			ClassType superclass = getSuperclass();
-			if (superclass != null)
-				superclass.typeCheck();
-		}
+	private void typeCheckAux() {
+		// we type-check the abstract syntax of this class
+		abstractSyntax.typeCheck(this);
+
+		// we continue by type-checking our superclass, if any
+		ClassType superclass = getSuperclass();
+		if (superclass != null)
+			superclass.typeCheck();
+	}
+
+	/**
+	 * Waits for the completion of all type-checking tasks forked so far
+	 * by {@link #typeCheck()}, including those forked by the tasks themselves.
+	 * This must be called from inside the same fork-join pool where the
+	 * tasks have been forked.
+	 */
+
+	public static void awaitTypeChecking() {
+		ForkJoinTask<?> task;
+
+		// a task adds its subtasks to the queue before terminating
+		while ((task = typeCheckingTasks.poll()) != null)
+			task.join();
 	}
 
 	/**
@@ -713,4 +1120,105 @@ public final class ClassType extends ReferenceType {
 		}
 	}
 
-}
\ No newline at end of file
+
+	/**
+	 * An index of the class hierarchy. Classes are numbered in pre-order,
+	 * so that the subclasses of a class are numbered contiguously.
+	 */
+
+	private static class Hierarchy {
+
+		/**
+		 * The number of classes created when this index was built.
+		 */
+
+		private final int created;
+
+		/**
+		 * The classes, in order of number.
+		 */
+
+		private final ClassType[] order;
+
+		/**
+		 * The number after the last subclass of each class.
+		 */
+
+		private final int[] end;
+
+		/**
+		 * The number of the superclass of each class, or -1 for Object.
+		 */
+
+		private final int[] parent;
+
+		/**
+		 * The depth of each class in the hierarchy. It is 0 for Object.
+		 */
+
+		private final int[] depth;
+
+		/**
+		 * The number of classes numbered so far.
+		 */
+
+		private int size;
+
+		private Hierarchy(int created, int classes) {
+			this.created = created;
+			this.order = new ClassType[classes];
+			this.end = new int[classes];
+			this.parent = new int[classes];
+			this.depth = new int[classes];
+		}
+	}
+
+	/**
+	 * The position of a class inside an index of the class hierarchy.
+	 */
+
+	private static class Position {
+
+		/**
+		 * The index.
+		 */
+
+		private final Hierarchy hierarchy;
+
+		/**
+		 * The number of the class inside {@link #hierarchy}.
+		 */
+
+		private final int number;
+
+		private Position(Hierarchy hierarchy, int number) {
+			this.hierarchy = hierarchy;
+			this.number = number;
+		}
+	}
+
+	/**
+	 * The result of the lexical and syntactical analysis of a class,
+	 * performed in advance through {@link ClassType#parseInAdvance(String)}.
+	 */
+
+	private static class ParsedClass {
+
+		/**
+		 * The abstract syntax of the class. This is {@code null} if the analysis failed.
+		 */
+
+		private final ClassDefinition abstractSyntax;
+
+		/**
+		 * The error reporting utility used during the analysis, with its messages deferred.
+		 */
+
+		private final ErrorMsg errorMsg;
+
+		private ParsedClass(ClassDefinition abstractSyntax, ErrorMsg errorMsg) {
+			this.abstractSyntax = abstractSyntax;
+			this.errorMsg = errorMsg;
+		}
+	}
+}
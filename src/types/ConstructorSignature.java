@@ -8,6 +8,7 @@ import org.apache.bcel.generic.InstructionFactory;
 import org.apache.bcel.generic.InstructionList;
 import org.apache.bcel.generic.MethodGen;
 
+import tables.Symbol;
 import translation.Block;
 import absyn.ConstructorDeclaration;
 import bytecode.CONSTRUCTORCALL;
@@ -32,7 +33,7 @@ public class ConstructorSignature extends CodeSignature {
 
 	public ConstructorSignature(ClassType clazz, TypeList parameters, ConstructorDeclaration abstractSyntax) {
 		// a constructor always returns void and its name is by default init
-		super(clazz, VoidType.INSTANCE, parameters, "<init>", abstractSyntax);
+		super(clazz, VoidType.INSTANCE, parameters, Symbol.INIT, abstractSyntax);
 	}
 
 	@Override
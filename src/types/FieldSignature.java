@@ -6,6 +6,7 @@ import org.apache.bcel.Constants;
 import org.apache.bcel.generic.FieldGen;
 import org.apache.bcel.generic.FieldInstruction;
 
+import tables.Symbol;
 import absyn.FieldDeclaration;
 
 /**
@@ -26,7 +27,7 @@ public class FieldSignature extends ClassMemberSignature {
      * The name of the field.
      */
 
-    private final String name;
+    private final Symbol name;
 
     /**
      * Constructs the signature of a field with the given type and name,
@@ -38,7 +39,7 @@ public class FieldSignature extends ClassMemberSignature {
      * @param abstractSyntax the abstract syntax of this field declaration
      */
 
-    public FieldSignature(ClassType clazz, Type type, String name, FieldDeclaration abstractSyntax) {
+    public FieldSignature(ClassType clazz, Type type, Symbol name, FieldDeclaration abstractSyntax) {
     	super(clazz, abstractSyntax);
 
     	this.type = type;
@@ -78,7 +79,7 @@ public class FieldSignature extends ClassMemberSignature {
      * @return the name of the field
      */
 
-    public String getName() {
+    public Symbol getName() {
     	return name;
     }
 
@@ -96,7 +97,7 @@ public class FieldSignature extends ClassMemberSignature {
 
     public FieldInstruction createGETFIELD(JavaClassGenerator classGen) {
     	return classGen.getFactory().createGetField
-    		(getDefiningClass().toBCEL().toString(), name, type.toBCEL());
+    		(getDefiningClass().toBCEL().toString(), name.toString(), type.toBCEL());
     }
 
     /**
@@ -110,7 +111,7 @@ public class FieldSignature extends ClassMemberSignature {
 
     public FieldInstruction createPUTFIELD(JavaClassGenerator classGen) {
     	return classGen.getFactory().createPutField
-   			(getDefiningClass().toBCEL().toString(), name, type.toBCEL());
+   			(getDefiningClass().toBCEL().toString(), name.toString(), type.toBCEL());
     }
 
     /**
@@ -124,7 +125,7 @@ public class FieldSignature extends ClassMemberSignature {
     	classGen.addField(new FieldGen
    			(Constants.ACC_PUBLIC, // the field is public
 			getType().toBCEL(), // type
-			name,
+			name.toString(),
 			classGen.getConstantPool()) // constant pool where it must be stored
     		.getField());
     }
@@ -8,6 +8,7 @@ import org.apache.bcel.generic.INVOKESTATIC;
 import org.apache.bcel.generic.INVOKEVIRTUAL;
 import org.apache.bcel.generic.MethodGen;
 
+import tables.Symbol;
 import translation.Block;
 import absyn.FixtureDeclaration;
 import bytecode.CONSTRUCTORCALL;
@@ -29,7 +30,7 @@ public class FixtureSignature extends CodeSignature {
      * @param abstractSyntax the abstract syntax of the declaration of this code
      */
 
-    public FixtureSignature(ClassType clazz, String name, FixtureDeclaration abstractSyntax) {
+    public FixtureSignature(ClassType clazz, Symbol name, FixtureDeclaration abstractSyntax) {
     	super(clazz, VoidType.INSTANCE, TypeList.EMPTY, name, abstractSyntax);
     }
 
@@ -57,7 +58,7 @@ public class FixtureSignature extends CodeSignature {
 		org.apache.bcel.generic.Type.VOID, // return type
 		new org.apache.bcel.generic.Type[]{getDefiningClass().toBCEL()},
 		null, // parameters names: we do not care
-		getName(), // method's name
+		getName().toString(), // method's name
 		classGen.getClassName(), // defining class
 		classGen.generateJavaBytecode(getCode()), // bytecode of the method
 		classGen.getConstantPool()
@@ -206,6 +206,6 @@ public class FloatType extends NumericalType {
 
 	@Override
 	public void neg(InstructionList il) {
-		il.insert(new org.apache.bcel.generic.FNEG());
+		il.append(new org.apache.bcel.generic.FNEG());
 	}
 }
\ No newline at end of file
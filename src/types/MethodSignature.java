@@ -7,6 +7,7 @@ import org.apache.bcel.generic.INVOKEVIRTUAL;
 import org.apache.bcel.generic.MethodGen;
 
 import absyn.MethodDeclaration;
+import tables.Symbol;
 import translation.Block;
 
 /**
@@ -17,6 +18,13 @@ import translation.Block;
 
 public class MethodSignature extends CodeSignature {
 
+	/**
+	 * True if and only if the Java method generated for this method must be
+	 * {@code final}, since no subclass overrides it.
+	 */
+
+	private boolean isFinal;
+
 	/**
 	 * Constructs the signature of a method with the given name, return type
 	 * and parameters types.
@@ -29,11 +37,32 @@ public class MethodSignature extends CodeSignature {
 	 */
 
 	public MethodSignature(ClassType clazz, Type returnType,
-		TypeList parameters, String name, MethodDeclaration abstractSyntax) {
+		TypeList parameters, Symbol name, MethodDeclaration abstractSyntax) {
 
 		super(clazz, returnType, parameters, name, abstractSyntax);
 	}
 
+	/**
+	 * Determines if the Java method generated for this method must be {@code final}.
+	 *
+	 * @return true if and only if the Java method must be {@code final}
+	 */
+
+	public boolean isFinal() {
+		return isFinal;
+	}
+
+	/**
+	 * Specifies if the Java method generated for this method must be {@code final}.
+	 * This is only safe if no subclass of its defining class overrides it.
+	 *
+	 * @param isFinal true if and only if the Java method must be {@code final}
+	 */
+
+	public void setFinal(boolean isFinal) {
+		this.isFinal = isFinal;
+	}
+
 	/**
 	 * Generates an {@code invokevirtual} Java bytecode that calls this
 	 * method. The Java {@code invokevirtual} bytecode calls a method by using
@@ -56,7 +85,7 @@ public class MethodSignature extends CodeSignature {
 
 	public void createMethod(JavaClassGenerator classGen) {
 		MethodGen methodGen;
-		if (getName().equals("main"))
+		if (getName() == Symbol.MAIN)
 			methodGen = new MethodGen
 				(Constants.ACC_PUBLIC | Constants.ACC_STATIC, // public and static
 				org.apache.bcel.generic.Type.VOID, // return type
@@ -73,11 +102,15 @@ public class MethodSignature extends CodeSignature {
 				getReturnType().toBCEL(), // return type
 				getParameters().toBCEL(), // parameters types, if any
 				null, // parameters names: we do not care
-				getName(), // method's name
+				getName().toString(), // method's name
 				classGen.getClassName(), // defining class
 				classGen.generateJavaBytecode(getCode()), // bytecode of the method
 				classGen.getConstantPool()); // constant pool
 
+		// a method that is never overridden can be bound statically by the Java virtual machine
+		if (isFinal)
+			methodGen.isFinal(true);
+
 		// we must always call these methods before the getMethod()
 		// method below. They set the number of local variables and stack
 		// elements used by the code of the method
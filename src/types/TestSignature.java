@@ -7,6 +7,7 @@ import org.apache.bcel.Constants;
 import org.apache.bcel.generic.INVOKESTATIC;
 import org.apache.bcel.generic.MethodGen;
 
+import tables.Symbol;
 import translation.Block;
 import absyn.TestDeclaration;
 import bytecode.CONSTRUCTORCALL;
@@ -20,7 +21,7 @@ import bytecode.LOAD;
 
 public class TestSignature extends CodeSignature {
     
-    public TestSignature(ClassType clazz, String name, TestDeclaration abstractSyntax) {
+    public TestSignature(ClassType clazz, Symbol name, TestDeclaration abstractSyntax) {
     	super(clazz,BooleanType.INSTANCE , TypeList.EMPTY, name, abstractSyntax);
     }
 
@@ -61,7 +62,7 @@ public class TestSignature extends CodeSignature {
 		new org.apache.bcel.generic.ObjectType(runTime.String.class.getName()),
 		new org.apache.bcel.generic.Type[]{getDefiningClass().toBCEL()},
 		null, // parameters names: we do not care
-		getName(), // method's name
+		getName().toString(), // method's name
 		classGen.getClassName(), // defining class
 		classGen.generateJavaBytecode(getCode()), // bytecode of the method
 		classGen.getConstantPool()
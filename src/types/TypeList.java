@@ -1,8 +1,14 @@
 package types;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * A list of stack Kitten types. It is assumed that each type
- * uses as many elements as its size.
+ * uses as many elements as its size. Lists of types are hash-consed:
+ * there is a single list for each sequence of types. Hence they can be
+ * compared with {@code ==}, and their hash code, their size and their
+ * translation into BCEL are computed only once.
  *
  * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
  */
@@ -29,7 +35,41 @@ public class TypeList {
 	private final TypeList tail;
 
 	/**
-	 * Builds a list of types.
+	 * The hash code of this list.
+	 */
+
+	private final int hash;
+
+	/**
+	 * The number of elements of this list.
+	 */
+
+	private final int size;
+
+	/**
+	 * The list equal to this, according to {@link #equals(Object)}, without
+	 * its trailing unused elements. Two lists are equal if and only if
+	 * they have the same canonical list.
+	 */
+
+	private final TypeList canonical;
+
+	/**
+	 * The lists obtained by pushing a single element on top of this,
+	 * from the pushed element. It is created when first needed.
+	 */
+
+	private volatile ConcurrentMap<Type, TypeList> extensions;
+
+	/**
+	 * The translation of this list into BCEL. It is computed when first needed.
+	 */
+
+	private volatile org.apache.bcel.generic.Type[] bcel;
+
+	/**
+	 * Builds a list of types. Only {@link #extend(Type)} and the
+	 * empty list can call this constructor, so that lists are hash-consed.
 	 *
 	 * @param head the first type in the list
 	 * @param tail the tail of the list
@@ -38,6 +78,50 @@ public class TypeList {
 	private TypeList(Type head, TypeList tail) {
 		this.head = head;
 		this.tail = tail;
+
+		if (tail == null) {
+			this.hash = 0;
+			this.size = 0;
+			this.canonical = this;
+		}
+		else {
+			// the same hash code as a sum of the hash codes of the elements,
+			// each shifted by its position, without the unused elements
+			this.hash = (head != UnusedType.INSTANCE ? head.hashCode() : 0) + (tail.hash << 1);
+			this.size = tail.size + 1;
+
+			if (tail.canonical == EMPTY && head == UnusedType.INSTANCE)
+				this.canonical = EMPTY;
+			else if (tail.canonical == tail)
+				this.canonical = this;
+			else
+				this.canonical = tail.canonical.extend(head);
+		}
+	}
+
+	/**
+	 * Yields the unique list having the given type on top of this.
+	 * This method can be called from more threads at the same time.
+	 *
+	 * @param type the type on top of the resulting list
+	 * @return the list
+	 */
+
+	private TypeList extend(Type type) {
+		ConcurrentMap<Type, TypeList> extensions = this.extensions;
+		if (extensions == null)
+			synchronized (this) {
+				if ((extensions = this.extensions) == null)
+					this.extensions = extensions = new ConcurrentHashMap<>();
+			}
+
+		TypeList result = extensions.get(type);
+		if (result != null)
+			return result;
+
+		// if another thread created the same list in the meantime, we use its list
+		TypeList previous = extensions.putIfAbsent(type, result = new TypeList(type, this));
+		return previous != null ? previous : result;
 	}
 
 	/**
@@ -89,38 +173,13 @@ public class TypeList {
 
 	@Override
 	public boolean equals(Object other) {
-		if (!(other instanceof TypeList))
-			return false;
-
-		TypeList otherTL = (TypeList) other, cursor = this;
-		while (cursor != EMPTY && otherTL != EMPTY)
-			if (cursor.head != otherTL.head)
-				return false;
-			else {
-				cursor = cursor.tail;
-				otherTL = otherTL.tail;
-			}
-
 		// trailing unused elements do not affect the equality
-		while (cursor != null && cursor.head == UnusedType.INSTANCE)
-			cursor = cursor.tail;
-		while (otherTL != null && otherTL.head == UnusedType.INSTANCE)
-			otherTL = otherTL.tail;
-
-		return cursor == otherTL;
+		return this == other || (other instanceof TypeList && canonical == ((TypeList) other).canonical);
 	}
 
 	@Override
 	public int hashCode() {
-		TypeList cursor = this;
-		Type t;
-		int code = 0;
-
-		for (int i = 0; cursor != EMPTY; cursor = cursor.tail, i++)
-			if ((t = cursor.head) != UnusedType.INSTANCE)
-				code += (t.hashCode() << i);
-
-		return code;
+		return hash;
 	}
 
 	/**
@@ -131,11 +190,7 @@ public class TypeList {
 	 */
 
 	public int getSize() {
-		int s = 0;
-		for (TypeList cursor = this; cursor != EMPTY; cursor = cursor.tail)
-			s++;
-
-		return s;
+		return size;
 	}
 
 	/**
@@ -211,7 +266,7 @@ public class TypeList {
 
 		int s = type.getSize();
 		while (s-- > 0)
-			result = new TypeList(type,result);
+			result = result.extend(type);
 
 		return result;
 	}
@@ -232,11 +287,28 @@ public class TypeList {
 
 	/**
 	 * Converts this list of types into an array of BCEL types.
+	 * The array is computed once and shared by all callers,
+	 * that must consequently not modify it.
 	 *
 	 * @return an array of BCEL types corresponding to this list of Kitten types
 	 */
 
 	public org.apache.bcel.generic.Type[] toBCEL() {
+		org.apache.bcel.generic.Type[] result = bcel;
+		if (result == null)
+			// two threads might compute the array at the same time: they compute equal arrays
+			bcel = result = computeBCEL();
+
+		return result;
+	}
+
+	/**
+	 * Translates this list of types into a new array of BCEL types.
+	 *
+	 * @return an array of BCEL types corresponding to this list of Kitten types
+	 */
+
+	private org.apache.bcel.generic.Type[] computeBCEL() {
 		TypeList cursor;
 		int pos;
 
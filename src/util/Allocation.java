@@ -0,0 +1,32 @@
+package util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * A utility that measures the memory allocated by the current thread.
+ * It is used to report the memory taken by the phases of the compiler
+ * and by their benchmarks.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class Allocation {
+
+	private Allocation() {}
+
+	/**
+	 * Yields the number of bytes allocated so far by the current thread.
+	 *
+	 * @return the number of bytes, or 0 if the Java virtual machine
+	 *         does not keep track of them
+	 */
+
+	public static long allocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		else
+			return 0L;
+	}
+}